@@ -0,0 +1,83 @@
+package org.dizitart.no2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.store.NitriteStore;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compacts the store of a database in small steps on the scheduled
+ * worker pool, instead of compacting the whole file at once on close.
+ *
+ * Each run writes at most the write limit, and only while the fill rate
+ * of the file is below the target. This way the I/O spent on compaction
+ * stays within a budget per run interval.
+ *
+ * As a step commits the store, it only runs on a database with auto
+ * commit enabled.
+ *
+ * @author Anindya Chatterjee.
+ * @see NitriteBuilder#backgroundCompaction(int, int)
+ */
+@Slf4j
+class BackgroundCompaction implements Runnable {
+    /**
+     * The delay between two runs in milliseconds.
+     */
+    static final long RUN_INTERVAL = 1000;
+
+    private final NitriteStore store;
+    private final int targetFillRate;
+    private final int writeLimit;
+    private ScheduledFuture<?> handle;
+    private boolean stopped;
+    private volatile long runs;
+    private volatile long compactions;
+    private volatile long lastRunTime;
+
+    BackgroundCompaction(NitriteStore store, int targetFillRate, int writeLimit) {
+        this.store = store;
+        this.targetFillRate = targetFillRate;
+        this.writeLimit = writeLimit;
+    }
+
+    synchronized void start(ScheduledExecutorService pool) {
+        handle = pool.scheduleWithFixedDelay(this, RUN_INTERVAL,
+                RUN_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the compaction, waiting for a running step to finish.
+     */
+    synchronized void stop() {
+        stopped = true;
+        if (handle != null) {
+            handle.cancel(false);
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        if (stopped || store.isClosed()) return;
+
+        try {
+            if (store.getFillRate() < targetFillRate
+                    && store.compact(targetFillRate, writeLimit)) {
+                compactions++;
+            }
+            runs++;
+            lastRunTime = System.currentTimeMillis();
+        } catch (Throwable error) {
+            // keeps the schedule alive, the next run tries again
+            log.error("Error while compacting the store in background", error);
+        }
+    }
+
+    CompactionInfo getInfo() {
+        int fillRate = store.isClosed() ? 0 : store.getFillRate();
+        return new CompactionInfo(true, targetFillRate, fillRate,
+                runs, compactions, lastRunTime);
+    }
+}
@@ -0,0 +1,72 @@
+package org.dizitart.no2;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Reports the progress of the background compaction of a database.
+ *
+ * @author Anindya Chatterjee.
+ * @since 1.0
+ * @see Nitrite#getCompactionInfo()
+ * @see NitriteBuilder#backgroundCompaction(int, int)
+ */
+@Getter
+@ToString
+public class CompactionInfo {
+    /**
+     * Indicates if background compaction is enabled or not.
+     *
+     * @returns `true`, if enabled; otherwise `false`.
+     * */
+    private final boolean enabled;
+
+    /**
+     * Gets the fill rate of the file, in percent, the compaction
+     * works towards.
+     *
+     * @returns the target fill rate.
+     * */
+    private final int targetFillRate;
+
+    /**
+     * Gets the current fill rate of the file in percent, i.e. the
+     * share of its space which holds live data. It is `100` for an
+     * in-memory store.
+     *
+     * @returns the fill rate.
+     * */
+    private final int fillRate;
+
+    /**
+     * Gets the number of compaction runs so far.
+     *
+     * @returns the number of runs.
+     * */
+    private final long runs;
+
+    /**
+     * Gets the number of runs which have rewritten or moved data.
+     *
+     * @returns the number of compactions.
+     * */
+    private final long compactions;
+
+    /**
+     * Gets the time of the last run in milliseconds since the epoch.
+     * It is `0` if there was no run yet.
+     *
+     * @returns the time of the last run.
+     * */
+    private final long lastRunTime;
+
+    CompactionInfo(boolean enabled, int targetFillRate, int fillRate,
+                   long runs, long compactions, long lastRunTime) {
+        this.enabled = enabled;
+        this.targetFillRate = targetFillRate;
+        this.fillRate = fillRate;
+        this.runs = runs;
+        this.compactions = compactions;
+        this.lastRunTime = lastRunTime;
+    }
+}
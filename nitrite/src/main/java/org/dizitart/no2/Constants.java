@@ -25,6 +25,11 @@ public class Constants {
      */
     public static final String INTERNAL_NAME_SEPARATOR = "|";
 
+    /**
+     * The constant COMPOUND_FIELD_SEPARATOR.
+     */
+    public static final String COMPOUND_FIELD_SEPARATOR = "+";
+
     /**
      * The constant USER_MAP.
      */
@@ -1,5 +1,6 @@
 package org.dizitart.no2;
 
+import org.dizitart.no2.filters.QueryPlan;
 
 /**
  * An interface to iterate over database {@code find()} results. It provides a
@@ -42,4 +43,11 @@ public interface Cursor extends RecordIterable<Document> {
      * @return a lazy iterable of documents.
      */
     RecordIterable<Document> project(Document projection);
+
+    /**
+     * Gets the query plan used to find the result.
+     *
+     * @return the query plan.
+     */
+    QueryPlan explain();
 }
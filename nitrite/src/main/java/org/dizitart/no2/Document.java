@@ -32,6 +32,9 @@ import static org.dizitart.no2.util.ValidationUtils.notNull;
 public class Document extends LinkedHashMap<String, Object> implements Iterable<KeyValuePair> {
     private static final long serialVersionUID = 1477462374L;
 
+    // the id last read from the _id field, reused while the field is unchanged
+    private transient NitriteId nitriteId;
+
     /**
      * Instantiates an empty document.
      */
@@ -108,17 +111,24 @@ public class Document extends LinkedHashMap<String, Object> implements Iterable<
      * @return the _id field of the document.
      * @see NitriteId
      */
-    @SuppressWarnings("unchecked")
     public NitriteId getId() {
-        Long id = null;
+        Object id = null;
         try {
             if (!containsKey(DOC_ID)) {
-                id = newId().getIdValue();
-                super.put(DOC_ID, id);
-            } else {
-                id = (Long) get(DOC_ID);
+                NitriteId generated = newId();
+                super.put(DOC_ID, generated.getIdValue());
+                nitriteId = generated;
+                return generated;
+            }
+
+            id = get(DOC_ID);
+            NitriteId cached = nitriteId;
+            if (cached != null && id instanceof Long && cached.getValue() == (Long) id) {
+                return cached;
             }
-            return createId(id);
+            cached = createId((Long) id);
+            nitriteId = cached;
+            return cached;
         } catch (ClassCastException cce) {
             throw new InvalidIdException(errorMessage("invalid _id found " + id,
                     IIE_INVALID_ID_FOUND));
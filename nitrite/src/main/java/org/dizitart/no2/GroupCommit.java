@@ -0,0 +1,174 @@
+package org.dizitart.no2;
+
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.store.NitriteStore;
+
+import java.util.concurrent.*;
+
+/**
+ * Batches the durable commit requests of concurrent writers into one
+ * commit of the store.
+ *
+ * A request joins the pending batch, which is committed and synced to
+ * the storage once the commit window has passed and the commit of the
+ * previous batch has completed. All requests of a batch are completed
+ * by the same commit, so that the cost of a sync is shared by all
+ * writers instead of being paid by each of them.
+ *
+ * @author Anindya Chatterjee.
+ * @see Nitrite#commitAsync()
+ */
+@Slf4j
+class GroupCommit {
+    private final NitriteStore store;
+    private final NitriteContext context;
+    private final Object commitLock;
+    private Batch pending;
+
+    GroupCommit(NitriteStore store, NitriteContext context) {
+        this.store = store;
+        this.context = context;
+        this.commitLock = new Object();
+    }
+
+    /**
+     * Requests a durable commit of all changes made so far.
+     *
+     * @return the future of the batch the request has joined.
+     */
+    synchronized Future<Void> request() {
+        if (pending == null) {
+            final Batch batch = new Batch();
+            pending = batch;
+            Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    commit(batch);
+                }
+            };
+
+            int window = context.getGroupCommitWindow();
+            if (window > 0) {
+                batch.trigger = context.getScheduledWorkerPool().schedule(
+                        submitTask(task), window, TimeUnit.MILLISECONDS);
+            } else {
+                batch.trigger = context.getWorkerPool().submit(task);
+            }
+        }
+        pending.size++;
+        return pending;
+    }
+
+    /**
+     * Commits the pending batch right away, if any. A batch the scheduler
+     * has already taken is waited for, so that no commit is running once
+     * it returns.
+     */
+    void flush() {
+        synchronized (commitLock) {
+            Batch batch;
+            synchronized (this) {
+                batch = pending;
+            }
+            if (batch != null) {
+                commit(batch);
+            }
+        }
+    }
+
+    /**
+     * Creates a future of a request which needs no commit.
+     *
+     * @return a completed future.
+     */
+    static Future<Void> completed() {
+        Batch batch = new Batch();
+        batch.complete(null);
+        return batch;
+    }
+
+    // the sync runs on the worker pool, as the scheduled pool has a
+    // single thread
+    private Runnable submitTask(final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                context.getWorkerPool().submit(task);
+            }
+        };
+    }
+
+    private void commit(Batch batch) {
+        synchronized (commitLock) {
+            if (batch.isDone()) return;
+
+            // later requests join a new batch from here on, the changes
+            // of the requests of this batch are all made before the commit
+            synchronized (this) {
+                if (pending == batch) {
+                    pending = null;
+                }
+            }
+            // a flushed batch must not keep the pools busy until its window ends
+            batch.trigger.cancel(false);
+
+            try {
+                store.commit();
+                store.sync();
+                batch.complete(null);
+            } catch (Throwable error) {
+                log.error("Error while committing a batch of " + batch.size + " requests", error);
+                batch.complete(error);
+            }
+        }
+    }
+
+    private static class Batch implements Future<Void> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable error;
+        private Future<?> trigger;
+        private int size;
+
+        void complete(Throwable error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        @Override
+        public Void get() throws InterruptedException, ExecutionException {
+            done.await();
+            return result();
+        }
+
+        @Override
+        public Void get(long timeout, TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!done.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return result();
+        }
+
+        private Void result() throws ExecutionException {
+            if (error != null) {
+                throw new ExecutionException(error);
+            }
+            return null;
+        }
+    }
+}
@@ -3,8 +3,12 @@ package org.dizitart.no2;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.ToString;
+import org.dizitart.no2.exceptions.ValidationException;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import static org.dizitart.no2.exceptions.ErrorCodes.*;
 import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
@@ -19,9 +23,11 @@ import static org.dizitart.no2.util.ValidationUtils.notNull;
  * @since 1.0
  * @see NitriteCollection#createIndex(String, IndexOptions)
  */
-@EqualsAndHashCode
-@ToString
+@EqualsAndHashCode(exclude = "fields")
+@ToString(exclude = "fields")
 public class Index implements Comparable<Index>, Serializable {
+    // keeps indices written before compound index was introduced readable
+    private static final long serialVersionUID = 6405316628911929164L;
 
     /**
      * Specifies the type of the index.
@@ -48,6 +54,9 @@ public class Index implements Comparable<Index>, Serializable {
     @Getter
     private String collectionName;
 
+    // ordered fields of a compound index, null for a single field index
+    private List<String> fields;
+
     /**
      * Instantiates a new Index.
      *
@@ -67,6 +76,54 @@ public class Index implements Comparable<Index>, Serializable {
         this.collectionName = collectionName;
     }
 
+    /**
+     * Instantiates a new compound Index spanning over `fields` in the
+     * specified order.
+     *
+     * @param indexType      the index type
+     * @param field          the field name of the index
+     * @param fields         the ordered fields to index
+     * @param collectionName the collection name
+     * @see org.dizitart.no2.util.IndexUtils#compoundField(String...)
+     */
+    public Index(IndexType indexType, String field, List<String> fields, String collectionName) {
+        this(indexType, field, collectionName);
+        notNull(fields, errorMessage("fields can not be null", VE_INDEX_INVALID_COMPOUND_FIELDS));
+        if (fields.size() < 2) {
+            throw new ValidationException(errorMessage("a compound index must span over " +
+                    "at least two fields", VE_INDEX_INVALID_COMPOUND_FIELDS));
+        }
+
+        for (String compoundField : fields) {
+            notNull(compoundField, errorMessage("field can not be null", VE_INDEX_EMPTY_COMPOUND_FIELD));
+            notEmpty(compoundField, errorMessage("field can not be empty", VE_INDEX_EMPTY_COMPOUND_FIELD));
+        }
+        this.fields = new ArrayList<>(fields);
+    }
+
+    /**
+     * Gets the ordered list of fields covered by the index. For a single
+     * field index it contains only the {@link #getField()}.
+     *
+     * @return the indexed fields.
+     * @see org.dizitart.no2.util.IndexUtils#compoundField(String...)
+     */
+    public List<String> getFields() {
+        if (fields == null) {
+            return Collections.singletonList(field);
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Specifies if the index spans over more than one field.
+     *
+     * @return `true` if it is a compound index; otherwise `false`.
+     */
+    public boolean isCompound() {
+        return fields != null && fields.size() > 1;
+    }
+
     private Index() {
     }
 
@@ -3,6 +3,10 @@ package org.dizitart.no2;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * Represents options to apply while creating an {@link Index}.
  *
@@ -34,6 +38,17 @@ public class IndexOptions {
     @Getter @Setter
     private boolean async = false;
 
+    /**
+     * Specifies the ordered fields of a compound index. It is `null`
+     * for an index on a single field.
+     *
+     * @param fields the ordered fields of a compound index.
+     * @returns the ordered fields of a compound index.
+     * @see #compoundIndexOptions(IndexType, String...)
+     * */
+    @Getter @Setter
+    private List<String> fields;
+
     /**
      * Creates an {@link IndexOptions} with the specified `indexType`. Index creation
      * will be synchronous with this option.
@@ -59,4 +74,29 @@ public class IndexOptions {
         options.setAsync(async);
         return options;
     }
+
+    /**
+     * Creates an {@link IndexOptions} for a compound index of the specified
+     * `indexType`, spanning over `fields` in the specified order. Index
+     * creation will be synchronous with this option.
+     *
+     * [[app-listing]]
+     * [source,java]
+     * .Example
+     * --
+     * // creates a compound index on tenant and createdAt
+     * collection.createIndex(compoundField("tenant", "createdAt"),
+     *         compoundIndexOptions(IndexType.NonUnique, "tenant", "createdAt"));
+     * --
+     *
+     * @param indexType the type of index to be created.
+     * @param fields    the ordered fields to index.
+     * @return a new synchronous compound index creation option.
+     * @see org.dizitart.no2.util.IndexUtils#compoundField(String...)
+     */
+    public static IndexOptions compoundIndexOptions(IndexType indexType, String... fields) {
+        IndexOptions options = indexOptions(indexType, false);
+        options.setFields(new ArrayList<>(Arrays.asList(fields)));
+        return options;
+    }
 }
@@ -13,6 +13,9 @@ import java.nio.channels.NonWritableChannelException;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.dizitart.no2.Constants.INTERNAL_NAME_SEPARATOR;
 import static org.dizitart.no2.Constants.USER_MAP;
@@ -49,6 +52,9 @@ import static org.dizitart.no2.util.ValidationUtils.validateCollectionName;
 @Slf4j
 public class Nitrite implements Closeable {
     private NitriteStore store;
+    private GroupCommit groupCommit;
+    private BackgroundCompaction backgroundCompaction;
+    private ScheduledFuture<?> attributesWriter;
 
     /**
      * Provides contextual information for the nitrite database instance.
@@ -59,6 +65,17 @@ public class Nitrite implements Closeable {
     Nitrite(NitriteStore store, NitriteContext nitriteContext) {
         this.context = nitriteContext;
         this.store = store;
+        this.groupCommit = new GroupCommit(store, nitriteContext);
+        if (nitriteContext.isBackgroundCompactionEnabled() && !nitriteContext.isReadOnly()) {
+            this.backgroundCompaction = new BackgroundCompaction(store,
+                    nitriteContext.getCompactionTargetFillRate(),
+                    nitriteContext.getCompactionWriteLimit() * 1024);
+            this.backgroundCompaction.start(nitriteContext.getScheduledWorkerPool());
+        }
+        if (nitriteContext.isAutoCommitEnabled() && nitriteContext.getCommitInterval() > 0
+                && !nitriteContext.isReadOnly()) {
+            startAttributesWriter(nitriteContext.getCommitInterval());
+        }
     }
 
     /**
@@ -218,6 +235,21 @@ public class Nitrite implements Closeable {
         }
     }
 
+    /**
+     * Gets the progress of the background compaction of the store.
+     *
+     * @return the compaction info.
+     * @see NitriteBuilder#backgroundCompaction(int, int)
+     */
+    public CompactionInfo getCompactionInfo() {
+        BackgroundCompaction compaction = backgroundCompaction;
+        if (compaction != null) {
+            return compaction.getInfo();
+        }
+        int fillRate = store == null || store.isClosed() ? 0 : store.getFillRate();
+        return new CompactionInfo(false, 0, fillRate, 0, 0, 0);
+    }
+
     /**
      * Commits the changes. For file based store, it saves the changes
      * to disk if there are any unsaved changes.
@@ -239,13 +271,44 @@ public class Nitrite implements Closeable {
         }
     }
 
+    /**
+     * Requests a durable commit of all changes made so far. Unlike
+     * {@link Nitrite#commit()}, it does not wait for the commit, and the
+     * changes are also synced to disk.
+     *
+     * The requests of concurrent writers are batched into one commit,
+     * so that they share the cost of a single sync to disk. A batch is
+     * committed after the window set by
+     * {@link NitriteBuilder#groupCommitWindow(int)} has passed, and not
+     * before the commit of the previous batch has completed.
+     *
+     * [icon="{@docRoot}/note.png"]
+     * NOTE: If the commit fails, the {@link Future#get()} of the returned
+     * future throws an {@link java.util.concurrent.ExecutionException}
+     * with the cause of the failure.
+     *
+     * @return a future which completes once the changes are durable.
+     */
+    public Future<Void> commitAsync() {
+        if (store != null && !context.isReadOnly()) {
+            return groupCommit.request();
+        } else if (store == null) {
+            log.error("Underlying store is null. Nitrite has not been initialized properly.");
+        }
+        return GroupCommit.completed();
+    }
+
     /**
      * Closes the database. Unsaved changes are written to disk and compacted first
-     * for a file based store.
+     * for a file based store, unless background compaction is enabled.
      */
     public void close() {
         if (store != null) {
             try {
+                stopBackgroundTasks();
+                if (!context.isReadOnly()) {
+                    groupCommit.flush();
+                }
                 if (hasUnsavedChanges()) {
                     if (log.isDebugEnabled()) {
                         log.debug("Unsaved changes detected, committing the changes.");
@@ -270,6 +333,9 @@ public class Nitrite implements Closeable {
                 }
             } finally {
                 store = null;
+                groupCommit = null;
+                backgroundCompaction = null;
+                attributesWriter = null;
                 log.info("Nitrite database has been closed successfully.");
             }
         } else {
@@ -287,6 +353,7 @@ public class Nitrite implements Closeable {
     void closeImmediately() {
         if (store != null) {
             try {
+                stopBackgroundTasks();
                 store.closeImmediately();
                 context.shutdown();
             } catch (NonWritableChannelException error) {
@@ -297,6 +364,9 @@ public class Nitrite implements Closeable {
                 log.error("Error while closing nitrite store.", t);
             } finally {
                 store = null;
+                groupCommit = null;
+                backgroundCompaction = null;
+                attributesWriter = null;
                 log.info("Nitrite database has been closed by JVM shutdown hook without saving last unsaved changes.");
             }
         } else {
@@ -325,6 +395,38 @@ public class Nitrite implements Closeable {
         return validateUserPassword(store, userId, password);
     }
 
+    // the store writes the attributes of the modified maps on commit, so
+    // with auto commit they are written on the commit interval of the store
+    private void startAttributesWriter(long interval) {
+        final NitriteStore nitriteStore = store;
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (!nitriteStore.isClosed()) {
+                        nitriteStore.writeAttributes();
+                    }
+                } catch (Throwable error) {
+                    // a store closed in the meantime has nothing left to write
+                    if (!nitriteStore.isClosed()) {
+                        log.error("Error while writing the attributes of the modified maps", error);
+                    }
+                }
+            }
+        };
+        attributesWriter = context.getScheduledWorkerPool().scheduleWithFixedDelay(task,
+                interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void stopBackgroundTasks() {
+        if (backgroundCompaction != null) {
+            backgroundCompaction.stop();
+        }
+        if (attributesWriter != null) {
+            attributesWriter.cancel(false);
+        }
+    }
+
     private void closeCollections() {
         List<String> collections = context.getCollectionRegistry();
         if (collections != null) {
@@ -4,12 +4,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.dizitart.no2.exceptions.InvalidOperationException;
 import org.dizitart.no2.exceptions.NitriteIOException;
 import org.dizitart.no2.exceptions.SecurityException;
+import org.dizitart.no2.exceptions.ValidationException;
 import org.dizitart.no2.fulltext.EnglishTextTokenizer;
 import org.dizitart.no2.fulltext.TextIndexingService;
 import org.dizitart.no2.fulltext.TextTokenizer;
 import org.dizitart.no2.internals.NitriteMapper;
+import org.dizitart.no2.store.MappedFilePath;
 import org.dizitart.no2.store.NitriteMVStore;
 import org.dizitart.no2.store.NitriteStore;
+import org.dizitart.no2.store.StoreFactory;
 import org.dizitart.no2.util.StringUtils;
 import org.h2.mvstore.MVStore;
 
@@ -19,8 +22,11 @@ import java.nio.file.Paths;
 
 import static org.dizitart.no2.Security.createSecurely;
 import static org.dizitart.no2.Security.openSecurely;
+import static org.dizitart.no2.Security.secure;
 import static org.dizitart.no2.exceptions.ErrorCodes.NIOE_DIR_DOES_NOT_EXISTS;
+import static org.dizitart.no2.exceptions.ErrorCodes.VE_COMPACTION_INVALID_FILL_RATE;
 import static org.dizitart.no2.exceptions.ErrorMessage.*;
+import static org.dizitart.no2.store.MappedFilePath.mappedFileName;
 import static org.dizitart.no2.tool.Recovery.recover;
 import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
 
@@ -58,6 +64,39 @@ import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
  *
  * [[app-listing]]
  * [source,java]
+ * .Database with memory-mapped file store
+ * --
+ *  Nitrite db = Nitrite.builder()
+ *         .filePath("/tmp/mydb.db")
+ *         .memoryMapped()
+ *         .cacheSize(64)
+ *         .openOrCreate();
+ * --
+ *
+ * [[app-listing]]
+ * [source,java]
+ * .Database with tuned store
+ * --
+ *  Nitrite db = Nitrite.builder()
+ *         .filePath("/tmp/mydb.db")
+ *         .cacheSize(32)
+ *         .pageSplitSize(8 * 1024)
+ *         .commitInterval(500)
+ *         .versionsToKeep(1)
+ *         .openOrCreate();
+ * --
+ *
+ * [[app-listing]]
+ * [source,java]
+ * .Database with off-heap in-memory store
+ * --
+ *  Nitrite db = Nitrite.builder()
+ *         .storeFactory(new OffHeapStoreFactory())
+ *         .openOrCreate();
+ * --
+ *
+ * [[app-listing]]
+ * [source,java]
  * .Database with custom {@link TextIndexingService}
  * --
  *  Nitrite db = Nitrite.builder()
@@ -81,9 +120,21 @@ public class NitriteBuilder {
     private boolean compress;
     private boolean autoCommit = true;
     private boolean autoCompact = true;
+    private boolean backgroundCompaction;
+    private int compactionTargetFillRate;
+    private int compactionWriteLimit;
+    private boolean parallelQuery;
+    private boolean memoryMapped;
+    private int cacheSize;
+    private int pageSplitSize;
+    private int commitInterval;
+    private int retentionTime = -1;
+    private int versionsToKeep = 2;
+    private int groupCommitWindow;
     private TextIndexingService textIndexingService;
     private TextTokenizer textTokenizer;
     private NitriteMapper nitriteMapper;
+    private StoreFactory storeFactory;
 
     NitriteBuilder(){
     }
@@ -138,6 +189,128 @@ public class NitriteBuilder {
         return this;
     }
 
+    /**
+     * Opens the file store through a memory-mapped file. The pages of the
+     * database are then read straight from the mapped memory, without a
+     * system call per read, which pays off for read-heavy workloads on a
+     * warm file. A file opened in {@link NitriteBuilder#readOnly()} mode is
+     * mapped read-only.
+     *
+     * [icon="{@docRoot}/note.png"]
+     * NOTE: This setting only affects file based stores. The page cache
+     * of the store still holds the deserialized pages, its size can be
+     * set by {@link NitriteBuilder#cacheSize(int)}.
+     *
+     * @return the {@link NitriteBuilder} instance.
+     * @see org.dizitart.no2.store.MappedFilePath
+     */
+    public NitriteBuilder memoryMapped() {
+        this.memoryMapped = true;
+        return this;
+    }
+
+    /**
+     * Sets the size of the page cache of the store, in MB. The cache holds
+     * the most recently read pages of the database, so that they do not
+     * need to be read and deserialized again.
+     *
+     * When the value is set to 0 or lower, it will assume the default value
+     * - 16 MB.
+     *
+     * @param size the cache size in MB
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder cacheSize(int size) {
+        this.cacheSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the size of a page of the store, in bytes, above which it is
+     * split. Larger pages mean fewer pages to read for a scan, smaller
+     * pages mean less data to rewrite for a small change.
+     *
+     * When the value is set to 0 or lower, it will assume the default value
+     * - 16 KB for a file based store and 4 KB for an in-memory store.
+     *
+     * @param size the page split size in bytes
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder pageSplitSize(int size) {
+        this.pageSplitSize = size;
+        return this;
+    }
+
+    /**
+     * Sets the maximum delay in milliseconds, after which unsaved changes
+     * are automatically committed in the background. A longer interval
+     * batches more changes into one write, at the risk of losing more
+     * of them if the process dies.
+     *
+     * When the value is set to 0 or lower, it will assume the default value
+     * - 1000 ms.
+     *
+     * [icon="{@docRoot}/note.png"]
+     * NOTE: If auto commit is disabled by {@link NitriteBuilder#disableAutoCommit()},
+     * then the commit interval has no effect.
+     *
+     * @param millis the commit interval in milliseconds
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder commitInterval(int millis) {
+        this.commitInterval = millis;
+        return this;
+    }
+
+    /**
+     * Sets how long, in milliseconds, the space of old data in a file is
+     * retained before it is reused. A negative value reuses the space as
+     * soon as it is no longer needed, which keeps the file small.
+     *
+     * By default the space is reused as soon as possible, i.e. the
+     * retention time is -1.
+     *
+     * @param millis the retention time in milliseconds
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder retentionTime(int millis) {
+        this.retentionTime = millis;
+        return this;
+    }
+
+    /**
+     * Sets the number of old versions of the store to keep. Old versions
+     * serve the readers which are still iterating over them, but they
+     * hold on to their pages.
+     *
+     * By default 2 versions are kept.
+     *
+     * @param count the number of old versions to keep
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder versionsToKeep(int count) {
+        this.versionsToKeep = count;
+        return this;
+    }
+
+    /**
+     * Sets the time in milliseconds for which the durable commit requests
+     * of {@link Nitrite#commitAsync()} are collected, before they are
+     * committed and synced to disk together. A longer window batches more
+     * writers into one sync, at the cost of a higher commit latency.
+     *
+     * When the value is set to 0 or lower, a commit starts as soon as it
+     * is requested, and the requests made while it is running are batched
+     * into the next one.
+     *
+     * @param millis the group commit window in milliseconds
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder groupCommitWindow(int millis) {
+        this.groupCommitWindow = millis;
+        return this;
+    }
+
     /**
      * Compresses data before writing using the LZF algorithm. This will save
      * about 50% of the disk space, but will slow down read and write
@@ -181,6 +354,61 @@ public class NitriteBuilder {
         return this;
     }
 
+    /**
+     * Enables compaction of the store in small steps in the background,
+     * instead of a full compaction before close. Once per second, if the
+     * share of live data in the file is below the `targetFillRate`, the
+     * sparse parts of the file are rewritten and moved next to each other,
+     * writing at most `writeLimit` KB.
+     *
+     * The full compaction before close is skipped with background
+     * compaction enabled, as it rewrites large parts of a big file and
+     * can block the close for a long time. It can still be run by
+     * {@link Nitrite#compact()}.
+     *
+     * NOTE: A compaction step commits the store, so it would publish the
+     * changes of a database with auto commit disabled at any time. If auto
+     * commit is disabled by {@link NitriteBuilder#disableAutoCommit()},
+     * background compaction is not enabled and the store is compacted
+     * before close instead.
+     *
+     * When the `writeLimit` is set to 0 or lower, it will assume the
+     * default value - 1024 KB.
+     *
+     * @param targetFillRate the fill rate in percent to compact towards
+     * @param writeLimit     the maximum KB to write per second
+     * @return the {@link NitriteBuilder} instance.
+     * @throws ValidationException if the `targetFillRate` is not between 1 and 100.
+     * @see Nitrite#getCompactionInfo()
+     */
+    public NitriteBuilder backgroundCompaction(int targetFillRate, int writeLimit) {
+        if (targetFillRate < 1 || targetFillRate > 100) {
+            throw new ValidationException(errorMessage("target fill rate must be between 1 and 100",
+                    VE_COMPACTION_INVALID_FILL_RATE));
+        }
+        this.backgroundCompaction = true;
+        this.compactionTargetFillRate = targetFillRate;
+        this.compactionWriteLimit = writeLimit > 0 ? writeLimit : 1024;
+        return this;
+    }
+
+    /**
+     * Enables parallel execution of the independent steps of a query, e.g.
+     * the branches of an or filter or the scans of an and filter which
+     * can not be answered from an index, on the worker pool.
+     *
+     * By default a query is executed sequentially, the most selective
+     * step of an and filter runs first and the rest of its predicates are
+     * evaluated only on the surviving documents. Parallel execution only
+     * pays off for large collection scans on a multi-core machine.
+     *
+     * @return the {@link NitriteBuilder} instance.
+     */
+    public NitriteBuilder enableParallelQuery() {
+        this.parallelQuery = true;
+        return this;
+    }
+
 
     /**
      * Sets a custom {@link TextIndexingService} implementation to be used
@@ -251,6 +479,24 @@ public class NitriteBuilder {
         return this;
     }
 
+    /**
+     * Sets a custom {@link StoreFactory} to open the store of the database
+     * with. If not set, the database is stored in a
+     * {@link org.h2.mvstore.MVStore}, either in memory or in the file set
+     * by {@link NitriteBuilder#filePath(String)}.
+     *
+     * The factory gets the settings of this builder, and it decides which
+     * of them its store supports.
+     *
+     * @param storeFactory the {@link StoreFactory} implementation.
+     * @return the {@link NitriteBuilder} instance.
+     * @see org.dizitart.no2.store.OffHeapStoreFactory
+     */
+    public NitriteBuilder storeFactory(StoreFactory storeFactory) {
+        this.storeFactory = storeFactory;
+        return this;
+    }
+
     /**
      * Opens or creates a new database. If it is an in-memory store, then it
      * will createId a new one. If it is a file based store, and if the file does not
@@ -323,10 +569,27 @@ public class NitriteBuilder {
     }
 
     private Nitrite openOrCreateInternal(String userId, String password) {
+        if (storeFactory != null) {
+            return openOrCreateWithFactory(userId, password);
+        }
+
         MVStore.Builder builder = new MVStore.Builder();
 
         if (!isNullOrEmpty(filePath)) {
-            builder = builder.fileName(filePath);
+            if (memoryMapped) {
+                MappedFilePath.register();
+                builder = builder.fileName(mappedFileName(filePath));
+            } else {
+                builder = builder.fileName(filePath);
+            }
+        }
+
+        if (cacheSize > 0) {
+            builder = builder.cacheSize(cacheSize);
+        }
+
+        if (pageSplitSize > 0) {
+            builder = builder.pageSplitSize(pageSplitSize);
         }
 
         if (autoCommitBufferSize > 0) {
@@ -395,39 +658,96 @@ public class NitriteBuilder {
             throw new NitriteIOException(UNABLE_TO_CREATE_DB_FILE, iae);
         } finally {
             if (store != null) {
-                store.setRetentionTime(-1);
-                store.setVersionsToKeep(2);
+                store.setRetentionTime(retentionTime);
+                store.setVersionsToKeep(versionsToKeep);
                 store.setReuseSpace(true);
+                if (autoCommit && commitInterval > 0) {
+                    store.setAutoCommitDelay(commitInterval);
+                }
             }
         }
 
         if (store != null) {
-            NitriteContext context = new NitriteContext();
-            context.setTextIndexingService(textIndexingService);
-            if (textTokenizer == null) {
-                textTokenizer = new EnglishTextTokenizer();
-            }
-            context.setTextTokenizer(textTokenizer);
-            context.setFilePath(filePath);
-            if (autoCommitBufferSize > 0) {
-                context.setAutoCommitBufferSize(autoCommitBufferSize);
-            } else {
-                context.setAutoCommitBufferSize(1024);
-            }
-            context.setInMemory(isNullOrEmpty(filePath));
-            context.setReadOnly(readOnly);
-            context.setCompressed(compress);
-            context.setAutoCommitEnabled(autoCommit);
-            context.setAutoCompactEnabled(autoCompact);
-            context.setNitriteMapper(nitriteMapper);
-
             NitriteStore nitriteStore = new NitriteMVStore(store);
-            Nitrite db = new Nitrite(nitriteStore, context);
-
-            // shutdown hook to close db file gracefully
-            Runtime.getRuntime().addShutdownHook(new NitriteShutDownHook(db));
-            return db;
+            NitriteContext context = createContext();
+            reportStoreSettings(store, context);
+            return createDatabase(nitriteStore, context);
         }
         return null;
     }
+
+    private Nitrite openOrCreateWithFactory(String userId, String password) {
+        NitriteContext context = createContext();
+        NitriteStore nitriteStore = null;
+        try {
+            nitriteStore = storeFactory.openStore(context);
+            secure(nitriteStore, userId, password);
+        } catch (RuntimeException error) {
+            if (nitriteStore != null) {
+                nitriteStore.closeImmediately();
+            }
+            context.shutdown();
+            throw error;
+        }
+        return createDatabase(nitriteStore, context);
+    }
+
+    private NitriteContext createContext() {
+        NitriteContext context = new NitriteContext();
+        context.setTextIndexingService(textIndexingService);
+        if (textTokenizer == null) {
+            textTokenizer = new EnglishTextTokenizer();
+        }
+        context.setTextTokenizer(textTokenizer);
+        context.setFilePath(filePath);
+        if (autoCommitBufferSize > 0) {
+            context.setAutoCommitBufferSize(autoCommitBufferSize);
+        } else {
+            context.setAutoCommitBufferSize(1024);
+        }
+        context.setInMemory(isNullOrEmpty(filePath));
+        context.setMemoryMapped(memoryMapped && !isNullOrEmpty(filePath));
+        if (cacheSize > 0) {
+            context.setCacheSize(cacheSize);
+        } else {
+            context.setCacheSize(16);
+        }
+        context.setPageSplitSize(pageSplitSize);
+        context.setCommitInterval(autoCommit ? commitInterval : 0);
+        context.setRetentionTime(retentionTime);
+        context.setVersionsToKeep(versionsToKeep);
+        context.setGroupCommitWindow(Math.max(groupCommitWindow, 0));
+        context.setReadOnly(readOnly);
+        context.setCompressed(compress);
+        context.setAutoCommitEnabled(autoCommit);
+        context.setAutoCompactEnabled(autoCompact && !(backgroundCompaction && autoCommit));
+        context.setBackgroundCompactionEnabled(backgroundCompaction && autoCommit);
+        context.setCompactionTargetFillRate(compactionTargetFillRate);
+        context.setCompactionWriteLimit(compactionWriteLimit);
+        context.setParallelQueryEnabled(parallelQuery);
+        context.setNitriteMapper(nitriteMapper);
+        return context;
+    }
+
+    // the store decides the values of the settings left to their defaults
+    private void reportStoreSettings(MVStore store, NitriteContext context) {
+        context.setCacheSize(store.getCacheSize());
+        context.setPageSplitSize(store.getPageSplitSize());
+        context.setCommitInterval(store.getAutoCommitDelay());
+        context.setRetentionTime(store.getRetentionTime());
+        context.setVersionsToKeep((int) store.getVersionsToKeep());
+
+        log.debug("Store opened with cache size {} MB, page split size {} bytes, "
+                        + "commit interval {} ms, retention time {} ms and {} versions to keep",
+                context.getCacheSize(), context.getPageSplitSize(), context.getCommitInterval(),
+                context.getRetentionTime(), context.getVersionsToKeep());
+    }
+
+    private Nitrite createDatabase(NitriteStore nitriteStore, NitriteContext context) {
+        Nitrite db = new Nitrite(nitriteStore, context);
+
+        // shutdown hook to close db file gracefully
+        Runtime.getRuntime().addShutdownHook(new NitriteShutDownHook(db));
+        return db;
+    }
 }
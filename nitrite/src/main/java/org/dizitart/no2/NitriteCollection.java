@@ -200,4 +200,20 @@ public interface NitriteCollection extends PersistentCollection<Document> {
      * @see Cursor#project(Document)
      */
     Cursor find(Filter filter, FindOptions findOptions);
+
+    /**
+     * Counts the documents selected by a filter, without reading them.
+     *
+     * If the `filter` is `null`, it will count all documents in the collection.
+     *
+     * [icon="{@docRoot}/note.png"]
+     * NOTE: Equality and range filters on an indexed value are counted from
+     * the index alone, other filters are counted while scanning the candidate
+     * documents, so unlike `find(filter).size()` the ids are never collected.
+     *
+     * @param filter the filter to apply to select documents from collection.
+     * @return the number of selected documents.
+     * @see org.dizitart.no2.filters.Filters
+     */
+    long count(Filter filter);
 }
@@ -49,6 +49,69 @@ public class NitriteContext {
      * */
     private boolean inMemory;
 
+    /**
+     * Indicates if the file store is opened through a memory-mapped
+     * file or not.
+     *
+     * @returns `true`, if memory-mapped; otherwise `false`.
+     * */
+    private boolean memoryMapped;
+
+    /**
+     * Gets the size of the page cache of the store in MB. It returns `0`
+     * for an in-memory store, which keeps its pages without a cache.
+     *
+     * The store settings, i.e. the cache size, page split size, commit
+     * interval, retention time and versions to keep, report the values
+     * in effect for the store after it is opened.
+     *
+     * @returns page cache size.
+     * */
+    private int cacheSize;
+
+    /**
+     * Gets the size of a page of the store in bytes, above which
+     * it is split. It returns `0` if the store decides it.
+     *
+     * @returns page split size.
+     * */
+    private int pageSplitSize;
+
+    /**
+     * Gets the maximum delay in milliseconds after which unsaved
+     * changes are committed in the background. It returns `0` if
+     * auto commit is disabled.
+     *
+     * @returns commit interval.
+     * */
+    private int commitInterval;
+
+    /**
+     * Gets how long the space of old data is retained before it is
+     * reused, in milliseconds. A negative value means the space is
+     * reused as soon as possible.
+     *
+     * @returns retention time.
+     * */
+    private int retentionTime;
+
+    /**
+     * Gets the number of old versions of the store being kept.
+     *
+     * @returns versions to keep.
+     * */
+    private int versionsToKeep;
+
+    /**
+     * Gets the time in milliseconds for which durable commit requests
+     * are collected into one commit. It returns `0` if a commit starts
+     * as soon as it is requested.
+     *
+     * @returns group commit window.
+     * @see Nitrite#commitAsync()
+     * */
+    private int groupCommitWindow;
+
     /**
      * Indicates if this is a readonly database or not.
      *
@@ -77,6 +140,39 @@ public class NitriteContext {
      * */
     private boolean autoCompactEnabled;
 
+    /**
+     * Indicates if the store is compacted in small steps in the
+     * background or not.
+     *
+     * @returns `true`, if background compaction is enabled; otherwise `false`.
+     * @see Nitrite#getCompactionInfo()
+     * */
+    private boolean backgroundCompactionEnabled;
+
+    /**
+     * Gets the fill rate in percent the background compaction
+     * works towards.
+     *
+     * @returns target fill rate.
+     * */
+    private int compactionTargetFillRate;
+
+    /**
+     * Gets the maximum amount of data in KB the background compaction
+     * writes per second.
+     *
+     * @returns compaction write limit.
+     * */
+    private int compactionWriteLimit;
+
+    /**
+     * Indicates if the independent steps of a query are executed
+     * in parallel on the worker pool or not.
+     *
+     * @returns `true`, if parallel query is enabled; otherwise `false`.
+     * */
+    private boolean parallelQueryEnabled;
+
     /**
      * Gets the custom {@link TextIndexingService} implementation used for the database.
      * It returns `null` if the default {@link TextIndexingService} implementation
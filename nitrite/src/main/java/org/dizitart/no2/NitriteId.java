@@ -3,12 +3,13 @@ package org.dizitart.no2;
 import lombok.EqualsAndHashCode;
 import org.dizitart.no2.exceptions.InvalidIdException;
 
-import java.io.Serializable;
+import java.io.*;
 
 import static org.dizitart.no2.Constants.ID_PREFIX;
 import static org.dizitart.no2.Constants.ID_SUFFIX;
 import static org.dizitart.no2.exceptions.ErrorMessage.CAN_NOT_COMPARE_WITH_NULL_ID;
 import static org.dizitart.no2.exceptions.ErrorMessage.FAILED_TO_CREATE_AUTO_ID;
+import static org.dizitart.no2.exceptions.ErrorMessage.ID_CAN_NOT_BE_NULL;
 
 /**
  * An unique identifier across the Nitrite database. Each document in
@@ -19,6 +20,9 @@ import static org.dizitart.no2.exceptions.ErrorMessage.FAILED_TO_CREATE_AUTO_ID;
  * createId a new {@link NitriteId}. If that is not supplied, then nitrite
  * will auto generate one and supply it in the '_id' field of the document.
  *
+ * The value of a {@link NitriteId} is kept as a primitive long. Its
+ * serialized form still carries a boxed `Long`, so that ids written by
+ * earlier versions can be read back.
  *
  * @author Anindya Chatterjee
  * @see NitriteCollection#getById(NitriteId)
@@ -27,14 +31,17 @@ import static org.dizitart.no2.exceptions.ErrorMessage.FAILED_TO_CREATE_AUTO_ID;
 @EqualsAndHashCode
 public final class NitriteId implements Comparable<NitriteId>, Serializable {
     private static final long serialVersionUID = 1477462375L;
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("idValue", Long.class)
+    };
 
-    private Long idValue;
+    private long idValue;
 
     private NitriteId() {
         idValue = new ObjectId().toLong();
     }
 
-    private NitriteId(Long value) {
+    private NitriteId(long value) {
         idValue = value;
     }
 
@@ -58,12 +65,25 @@ public final class NitriteId implements Comparable<NitriteId>, Serializable {
      * @return the {@link NitriteId}
      */
     public static NitriteId createId(Long value) {
+        if (value == null) {
+            throw new InvalidIdException(ID_CAN_NOT_BE_NULL);
+        }
+        return new NitriteId(value);
+    }
+
+    /**
+     * Creates a {@link NitriteId} from a primitive long value.
+     *
+     * @param value the value
+     * @return the {@link NitriteId}
+     */
+    public static NitriteId createId(long value) {
         return new NitriteId(value);
     }
 
     @Override
     public int compareTo(NitriteId other) {
-        if (other == null || other.idValue == null) {
+        if (other == null) {
             throw new InvalidIdException(CAN_NOT_COMPARE_WITH_NULL_ID);
         }
 
@@ -72,10 +92,7 @@ public final class NitriteId implements Comparable<NitriteId>, Serializable {
 
     @Override
     public String toString() {
-        if (idValue != null) {
-            return ID_PREFIX + idValue.toString() + ID_SUFFIX;
-        }
-        return "";
+        return ID_PREFIX + idValue + ID_SUFFIX;
     }
 
     /**
@@ -84,7 +101,30 @@ public final class NitriteId implements Comparable<NitriteId>, Serializable {
      * @return the underlying id object.
      */
     public Long getIdValue() {
-        if (idValue != null) return idValue;
-        return null;
+        return idValue;
+    }
+
+    /**
+     * Gets the underlying id value without boxing it.
+     *
+     * @return the underlying id value.
+     */
+    public long getValue() {
+        return idValue;
+    }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        ObjectOutputStream.PutField fields = stream.putFields();
+        fields.put("idValue", Long.valueOf(idValue));
+        stream.writeFields();
+    }
+
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = stream.readFields();
+        Long value = (Long) fields.get("idValue", null);
+        if (value == null) {
+            throw new InvalidObjectException("null id value");
+        }
+        idValue = value;
     }
 }
@@ -34,7 +34,10 @@ public interface PersistentCollection<T> extends ChangeAware, MetadataAware {
      * ====
      * - '_id' value of the document is always indexed. But full text
      * indexing is not supported on '_id' value.
-     * - Compound index is not supported.
+     * - A compound index spanning over several fields is created with the
+     * ordered fields set in {@link IndexOptions#getFields()}, on a field name
+     * built with {@link org.dizitart.no2.util.IndexUtils#compoundField(String...)}.
+     * Full text compound index is not supported.
      * - Indexing on arrays or collection is not supported
      * - Indexing on non-comparable value is not supported
      * ====
@@ -40,14 +40,8 @@ class Security {
 
         try {
             if (!isNullOrEmpty(password) && !isNullOrEmpty(userId)) {
-                byte[] salt = getNextSalt();
-                byte[] hash = hash(password.toCharArray(), salt);
-                UserCredential userCredential = new UserCredential();
-                userCredential.setPasswordHash(hash);
-                userCredential.setPasswordSalt(salt);
-
                 MVMap<String, UserCredential> userMap = store.openMap(USER_MAP);
-                userMap.put(userId, userCredential);
+                userMap.put(userId, createCredential(password));
             }
         } finally {
             if (store != null) {
@@ -66,18 +60,7 @@ class Security {
                 throw new SecurityException(NO_USER_MAP_FOUND);
             }
             MVMap<String, UserCredential> userMap = store.openMap(USER_MAP);
-            UserCredential userCredential = userMap.get(userId);
-
-            if (userCredential != null) {
-                byte[] salt = userCredential.getPasswordSalt();
-                byte[] expectedHash = userCredential.getPasswordHash();
-
-                if (!isExpectedPassword(password.toCharArray(), salt, expectedHash)) {
-                    throw new SecurityException(INVALID_USER_PASSWORD);
-                }
-            } else {
-                throw new SecurityException(NULL_USER_CREDENTIAL);
-            }
+            verifyCredential(userMap.get(userId), password);
         } else {
             if (store.hasMap(USER_MAP)) {
                 throw new SecurityException(USER_MAP_SHOULD_NOT_EXISTS);
@@ -87,6 +70,26 @@ class Security {
         return store;
     }
 
+    static void secure(NitriteStore store, String userId, String password) {
+        boolean credentials = !isNullOrEmpty(password) && !isNullOrEmpty(userId);
+        if (store.getMapNames().isEmpty()) {
+            // a new store
+            if (credentials) {
+                NitriteMap<String, UserCredential> userMap = store.openMap(USER_MAP);
+                userMap.put(userId, createCredential(password));
+            }
+            store.commit();
+        } else if (credentials) {
+            if (!store.hasMap(USER_MAP)) {
+                throw new SecurityException(NO_USER_MAP_FOUND);
+            }
+            NitriteMap<String, UserCredential> userMap = store.openMap(USER_MAP);
+            verifyCredential(userMap.get(userId), password);
+        } else if (store.hasMap(USER_MAP)) {
+            throw new SecurityException(USER_MAP_SHOULD_NOT_EXISTS);
+        }
+    }
+
     static boolean validateUserPassword(NitriteStore store, String userId, String password) {
         if (isNullOrEmpty(userId)
                 && isNullOrEmpty(password)
@@ -113,6 +116,28 @@ class Security {
         return false;
     }
 
+    private static UserCredential createCredential(String password) {
+        byte[] salt = getNextSalt();
+        byte[] hash = hash(password.toCharArray(), salt);
+        UserCredential userCredential = new UserCredential();
+        userCredential.setPasswordHash(hash);
+        userCredential.setPasswordSalt(salt);
+        return userCredential;
+    }
+
+    private static void verifyCredential(UserCredential userCredential, String password) {
+        if (userCredential != null) {
+            byte[] salt = userCredential.getPasswordSalt();
+            byte[] expectedHash = userCredential.getPasswordHash();
+
+            if (!isExpectedPassword(password.toCharArray(), salt, expectedHash)) {
+                throw new SecurityException(INVALID_USER_PASSWORD);
+            }
+        } else {
+            throw new SecurityException(NULL_USER_CREDENTIAL);
+        }
+    }
+
     private static byte[] getNextSalt() {
         byte[] salt = new byte[16];
         random.nextBytes(salt);
@@ -94,6 +94,14 @@ public class ErrorCodes {
     public static final int VE_NEGATIVE_ARRAY_INDEX_FIELD = 1084;
     public static final int VE_INVALID_ARRAY_INDEX_FIELD = 1085;
     public static final int VE_INVALID_REMAINING_FIELD = 1086;
+    public static final int VE_INDEX_EMPTY_COMPOUND_FIELD = 1087;
+    public static final int VE_FIND_COMPOUND_INDEX_NULL_FIELD = 1088;
+    public static final int VE_FIND_COMPOUND_INDEX_NULL_PREFIX = 1089;
+    public static final int VE_FIND_BETWEEN_INDEX_NULL_FIELD = 1090;
+    public static final int VE_FIND_BETWEEN_INDEX_NULL_VALUE = 1091;
+    public static final int VE_OFF_HEAP_INVALID_SLAB_SIZE = 1092;
+    public static final int VE_COMPACTION_INVALID_FILL_RATE = 1093;
+    public static final int VE_INDEX_INVALID_COMPOUND_FIELDS = 1094;
 
     /* NitriteIOException Codes */
     public static final int NIOE_DATABASE_OPENED = 2001;
@@ -110,6 +118,7 @@ public class ErrorCodes {
     public static final int NIOE_DIR_DOES_NOT_EXISTS = 2012;
     public static final int NIOE_FILE_CREATE_FAILED = 2013;
     public static final int NIOE_IN_MEMORY_READONLY_DB = 2014;
+    public static final int NIOE_OFF_HEAP_SERIALIZATION_FAILED = 2015;
 
     /* InvalidOperationException Codes */
     public static final int IOE_IN_MEMORY_READONLY_DB = 3001;
@@ -121,6 +130,7 @@ public class ErrorCodes {
     public static final int IOE_COMPOUND_INDEX = 3007;
     public static final int IOE_REPLICATOR_RUNNING = 3008;
     public static final int IOE_DOC_ID_AUTO_GENERATED = 3009;
+    public static final int IOE_OFF_HEAP_FILE_STORE = 3010;
 
     /* FilterException Codes */
     public static final int FE_AND_INVALID = 4001;
@@ -168,6 +178,10 @@ public class ErrorCodes {
     public static final int FE_SEARCH_TERM_INVALID_LEADING_STAR = 4043;
     public static final int FE_SEARCH_TERM_INVALID_TRAILING_STAR = 4044;
     public static final int FE_MULTIPLE_WORDS_WITH_WILDCARD = 4045;
+    public static final int FE_FILTER_NOT_MATCHABLE = 4046;
+    public static final int FE_PARALLEL_QUERY_FAILED = 4047;
+    public static final int FE_FILTERED_COUNT_FAILED = 4048;
+    public static final int FE_BETWEEN_FIELD_NOT_COMPARABLE = 4049;
 
     /* IndexingException Codes */
     public static final int IE_TEXT_FILTER_FIELD_NOT_INDEXED = 5001;
@@ -191,6 +205,7 @@ public class ErrorCodes {
     public static final int IE_FAILED_TO_QUERY_FTS_DATA = 5019;
     public static final int IE_INVALID_TYPE_FOR_INDEX = 5020;
     public static final int IE_REBUILD_INDEX_DOES_NOT_EXISTS = 5021;
+    public static final int IE_COMPOUND_FULL_TEXT_INDEX = 5022;
 
     /* InvalidIdException Codes */
     public static final int IIE_COMPARISON_WITH_NULL_ID = 6001;
@@ -155,6 +155,10 @@ public class ErrorMessage {
             new ErrorMessage("find operation failed",
                     FE_FILTERED_FIND_WITH_OPTION_FAILED);
 
+    public static final ErrorMessage FILTERED_COUNT_OPERATION_FAILED =
+            new ErrorMessage("count operation failed",
+                    FE_FILTERED_COUNT_FAILED);
+
     public static final ErrorMessage NESTED_OBJ_ELEM_MATCH_NOT_SUPPORTED =
             new ErrorMessage("nested elemMatch filter is not supported",
                     FE_OBJ_ELEM_MATCH_NESTED);
@@ -275,6 +279,10 @@ public class ErrorMessage {
             new ErrorMessage("can not create readonly in-memory database",
                     NIOE_IN_MEMORY_READONLY_DB);
 
+    public static final ErrorMessage OFF_HEAP_STORE_NOT_FILE_BASED =
+            new ErrorMessage("off-heap store can not be file based",
+                    IOE_OFF_HEAP_FILE_STORE);
+
     public static final ErrorMessage UNABLE_TO_SORT_ON_ARRAY =
             new ErrorMessage("can not sort on array or collection objects",
                     IOE_SORT_ON_ARRAY_TYPE);
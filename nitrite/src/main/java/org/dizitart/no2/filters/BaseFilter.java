@@ -1,16 +1,18 @@
 package org.dizitart.no2.filters;
 
-import lombok.extern.slf4j.Slf4j;
 import org.dizitart.no2.Document;
 import org.dizitart.no2.Filter;
 import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.internals.NitriteService;
 import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.util.FieldPath;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
+
+import static org.dizitart.no2.exceptions.ErrorCodes.FE_FILTER_NOT_MATCHABLE;
+import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
 
 /**
  * An abstract implementation of {@link Filter}.
@@ -18,35 +20,56 @@ import java.util.concurrent.Callable;
  * @author Anindya Chatterjee
  * @since 1.0
  */
-@Slf4j
 public abstract class BaseFilter implements Filter {
     /**
      * The Nitrite service.
      */
     protected NitriteService nitriteService;
+    // the compiled path of the field of the filter
+    private FieldPath fieldPath;
 
     @Override
     public void setNitriteService(NitriteService nitriteService) {
         this.nitriteService = nitriteService;
     }
 
-    List<Callable<Set<NitriteId>>> createTasks(Filter[] filters,
-                                               final NitriteMap<NitriteId, Document> documentMap) {
-        List<Callable<Set<NitriteId>>> tasks = new ArrayList<>();
-        for (final Filter filter : filters) {
-            filter.setNitriteService(nitriteService);
-            tasks.add(new Callable<Set<NitriteId>>() {
-                @Override
-                public Set<NitriteId> call() throws Exception {
-                    try {
-                        return filter.apply(documentMap);
-                    } catch (Exception e) {
-                        log.error("Error while executing filter " + filter.toString(), e);
-                        throw e;
-                    }
-                }
-            });
+    /**
+     * Specifies if the filter can be evaluated against a single document
+     * via {@link #matches(Document)}. The query planner uses it to apply
+     * residual predicates on candidate documents only.
+     */
+    boolean isMatchable() {
+        return false;
+    }
+
+    /**
+     * Evaluates the filter against a single document.
+     */
+    boolean matches(Document document) {
+        throw new FilterException(errorMessage(getClass().getName()
+                + " can not be evaluated on a document", FE_FILTER_NOT_MATCHABLE));
+    }
+
+    /**
+     * Gets the value of the field of the filter in a document, through a
+     * path compiled only once for all documents of a scan.
+     */
+    Object getFieldValue(Document document, String field) {
+        FieldPath path = fieldPath;
+        if (path == null || !path.getField().equals(field)) {
+            path = FieldPath.compile(field);
+            fieldPath = path;
+        }
+        return path.getValue(document);
+    }
+
+    Set<NitriteId> matchedSet(NitriteMap<NitriteId, Document> documentMap) {
+        Set<NitriteId> nitriteIdSet = new NitriteIdSet();
+        for (Map.Entry<NitriteId, Document> entry : documentMap.entrySet()) {
+            if (matches(entry.getValue())) {
+                nitriteIdSet.add(entry.getKey());
+            }
         }
-        return tasks;
+        return nitriteIdSet;
     }
 }
@@ -0,0 +1,100 @@
+package org.dizitart.no2.filters;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.internals.NitriteService;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.dizitart.no2.Constants.DOC_ID;
+import static org.dizitart.no2.exceptions.ErrorCodes.FE_BETWEEN_FIELD_NOT_COMPARABLE;
+import static org.dizitart.no2.exceptions.ErrorMessage.VALUE_IS_NOT_COMPARABLE;
+import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
+import static org.dizitart.no2.util.NumberUtils.compare;
+
+/**
+ * Selects the documents whose value of a field lies between a lower
+ * and an upper bound, read from an index in a single bounded scan.
+ *
+ * @author Anindya Chatterjee.
+ */
+@Getter
+@ToString
+class BetweenFilter extends BaseFilter {
+    private String field;
+    private Comparable lowerBound;
+    private boolean lowerInclusive;
+    private Comparable upperBound;
+    private boolean upperInclusive;
+
+    BetweenFilter(String field, Object lowerBound, boolean lowerInclusive,
+                  Object upperBound, boolean upperInclusive) {
+        if (!(lowerBound instanceof Comparable) || !(upperBound instanceof Comparable)) {
+            throw new FilterException(VALUE_IS_NOT_COMPARABLE);
+        }
+        this.field = field;
+        this.lowerBound = (Comparable) lowerBound;
+        this.lowerInclusive = lowerInclusive;
+        this.upperBound = (Comparable) upperBound;
+        this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        if (field.equals(DOC_ID)) {
+            if (lowerBound instanceof Long && upperBound instanceof Long) {
+                return ComparisonFilter.idRange(documentMap,
+                        NitriteId.createId((Long) lowerBound), lowerInclusive,
+                        NitriteId.createId((Long) upperBound), upperInclusive);
+            }
+            return new LinkedHashSet<>();
+        } else if (nitriteService.hasIndex(field)
+                && !nitriteService.isIndexing(field)) {
+            return nitriteService.findBetweenWithIndex(field,
+                    lowerBound, lowerInclusive, upperBound, upperInclusive);
+        } else {
+            return matchedSet(documentMap);
+        }
+    }
+
+    @Override
+    public void setNitriteService(NitriteService nitriteService) {
+        this.nitriteService = nitriteService;
+    }
+
+    @Override
+    boolean isMatchable() {
+        return true;
+    }
+
+    @Override
+    boolean matches(Document document) {
+        Object fieldValue = getFieldValue(document, field);
+        if (fieldValue != null) {
+            if (fieldValue instanceof Comparable) {
+                int lower = compareValue((Comparable) fieldValue, lowerBound);
+                int upper = compareValue((Comparable) fieldValue, upperBound);
+                return (lower > 0 || (lower == 0 && lowerInclusive))
+                        && (upper < 0 || (upper == 0 && upperInclusive));
+            } else {
+                throw new FilterException(errorMessage(
+                        fieldValue + " is not comparable",
+                        FE_BETWEEN_FIELD_NOT_COMPARABLE));
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValue(Comparable value, Comparable bound) {
+        if (value instanceof Number && bound instanceof Number) {
+            return compare((Number) value, (Number) bound);
+        }
+        return value.compareTo(bound);
+    }
+}
@@ -0,0 +1,92 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A plan step scanning all documents of a collection and
+ * selecting those matching all of its predicates.
+ *
+ * @author Anindya Chatterjee.
+ */
+class CollectionScanNode extends PlanNode {
+    private final List<BaseFilter> predicates;
+    private final long estimatedCount;
+
+    CollectionScanNode(List<BaseFilter> predicates, long estimatedCount) {
+        this.predicates = predicates;
+        this.estimatedCount = estimatedCount;
+    }
+
+    @Override
+    long getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return false;
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        if (predicates.isEmpty()) {
+            return NitriteIdSet.of(documentMap.keySet());
+        }
+
+        return collect(iterator(documentMap));
+    }
+
+    @Override
+    Iterator<NitriteId> iterator(NitriteMap<NitriteId, Document> documentMap) {
+        if (predicates.isEmpty()) {
+            return documentMap.keySet().iterator();
+        }
+
+        final Iterator<Map.Entry<NitriteId, Document>> entries = documentMap.entrySet().iterator();
+        return new LazyIdIterator() {
+            @Override
+            NitriteId nextMatch() {
+                while (entries.hasNext()) {
+                    Map.Entry<NitriteId, Document> entry = entries.next();
+                    if (matchesAll(predicates, entry.getValue())) {
+                        return entry.getKey();
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    long count(NitriteMap<NitriteId, Document> documentMap) {
+        if (predicates.isEmpty()) {
+            return documentMap.sizeAsLong();
+        }
+        return super.count(documentMap);
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        explainLine(builder, indent, "COLLECTION SCAN");
+        for (BaseFilter predicate : predicates) {
+            builder.append(indent).append("  FILTER ").append(predicate)
+                    .append(System.lineSeparator());
+        }
+    }
+
+    static boolean matchesAll(List<BaseFilter> predicates, Document document) {
+        for (BaseFilter predicate : predicates) {
+            if (!predicate.matches(document)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
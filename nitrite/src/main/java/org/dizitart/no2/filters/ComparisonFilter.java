@@ -2,8 +2,15 @@ package org.dizitart.no2.filters;
 
 import lombok.Getter;
 import lombok.ToString;
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.internals.NitriteService;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import static org.dizitart.no2.exceptions.ErrorMessage.VALUE_IS_NOT_COMPARABLE;
 
@@ -26,4 +33,24 @@ abstract class ComparisonFilter extends BaseFilter {
     public void setNitriteService(NitriteService nitriteService) {
         this.nitriteService = nitriteService;
     }
+
+    @Override
+    boolean isMatchable() {
+        return true;
+    }
+
+    /**
+     * Reads the ids between `from` and `to` in a single scan of the document map.
+     */
+    static Set<NitriteId> idRange(NitriteMap<NitriteId, Document> documentMap,
+                                  NitriteId from, boolean fromInclusive,
+                                  NitriteId to, boolean toInclusive) {
+        Set<NitriteId> nitriteIdSet = new NitriteIdSet();
+        Iterator<Map.Entry<NitriteId, Document>> entries
+                = documentMap.entryIterator(from, fromInclusive, to, toInclusive, false);
+        while (entries.hasNext()) {
+            nitriteIdSet.add(entries.next().getKey());
+        }
+        return nitriteIdSet;
+    }
 }
@@ -0,0 +1,184 @@
+package org.dizitart.no2.filters;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.Index;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.internals.NitriteService;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.*;
+
+import static org.dizitart.no2.Constants.DOC_ID;
+
+/**
+ * Answers the equality and range predicates of an {@link AndFilter}
+ * from a compound index. The leading fields of the index are matched
+ * with equality predicates and the next field, if any, with a range.
+ *
+ * @author Anindya Chatterjee.
+ */
+@Getter
+@ToString(exclude = "nitriteService")
+class CompoundIndexScan extends PlanNode {
+    private Index index;
+    private Object[] prefix;
+    private ComparisonFilter lowerBound;
+    private ComparisonFilter upperBound;
+    private Set<Filter> coveredFilters;
+    private long estimatedCount;
+    private NitriteService nitriteService;
+
+    private CompoundIndexScan() {
+        // use find()
+    }
+
+    /**
+     * Finds the compound index returning the least entries for the
+     * `filters`, preferring the one covering most of them on a tie.
+     *
+     * @param filters        the filters of an and filter
+     * @param nitriteService the nitrite service
+     * @return the index scan or `null` if no compound index is suitable.
+     */
+    static CompoundIndexScan find(Filter[] filters, NitriteService nitriteService) {
+        Collection<Index> indices = nitriteService.listCompoundIndexes();
+        if (indices.isEmpty()) return null;
+
+        Map<String, EqualsFilter> equalities = new HashMap<>();
+        Map<String, List<ComparisonFilter>> ranges = new HashMap<>();
+        for (Filter filter : filters) {
+            if (filter instanceof EqualsFilter) {
+                EqualsFilter equalsFilter = (EqualsFilter) filter;
+                if (equalsFilter.getValue() instanceof Comparable
+                        && !DOC_ID.equals(equalsFilter.getField())
+                        && !equalities.containsKey(equalsFilter.getField())) {
+                    equalities.put(equalsFilter.getField(), equalsFilter);
+                }
+            } else if (isRange(filter)) {
+                ComparisonFilter comparisonFilter = (ComparisonFilter) filter;
+                List<ComparisonFilter> list = ranges.get(comparisonFilter.getField());
+                if (list == null) {
+                    list = new ArrayList<>();
+                    ranges.put(comparisonFilter.getField(), list);
+                }
+                list.add(comparisonFilter);
+            }
+        }
+        if (equalities.isEmpty()) return null;
+
+        CompoundIndexScan best = null;
+        for (Index index : indices) {
+            if (nitriteService.isIndexing(index.getField())) continue;
+
+            CompoundIndexScan scan = match(index, equalities, ranges);
+            if (scan == null) continue;
+
+            scan.nitriteService = nitriteService;
+            scan.estimatedCount = nitriteService.countWithIndex(index.getField(), scan.prefix,
+                    scan.from(), scan.lowerBound instanceof GreaterEqualFilter,
+                    scan.to(), scan.upperBound instanceof LesserEqualFilter);
+            if (best == null || scan.estimatedCount < best.estimatedCount
+                    || (scan.estimatedCount == best.estimatedCount
+                    && scan.coveredFilters.size() > best.coveredFilters.size())) {
+                best = scan;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        return nitriteService.findWithCompoundIndex(index.getField(), prefix,
+                from(), lowerBound instanceof GreaterEqualFilter,
+                to(), upperBound instanceof LesserEqualFilter);
+    }
+
+    @Override
+    long count(NitriteMap<NitriteId, Document> documentMap) {
+        // counted from the same index range the scan reads
+        return estimatedCount;
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        explainLine(builder, indent, "COMPOUND INDEX SCAN " + index.getField()
+                + " prefix " + Arrays.toString(prefix));
+        for (Filter filter : coveredFilters) {
+            builder.append(indent).append("  COVERS ").append(filter)
+                    .append(System.lineSeparator());
+        }
+    }
+
+    private Comparable from() {
+        return lowerBound == null ? null : lowerBound.getComparable();
+    }
+
+    private Comparable to() {
+        return upperBound == null ? null : upperBound.getComparable();
+    }
+
+    private static CompoundIndexScan match(Index index,
+                                           Map<String, EqualsFilter> equalities,
+                                           Map<String, List<ComparisonFilter>> ranges) {
+        List<String> fields = index.getFields();
+        List<Object> prefix = new ArrayList<>();
+        Set<Filter> covered = Collections.newSetFromMap(new IdentityHashMap<Filter, Boolean>());
+
+        int position = 0;
+        for (; position < fields.size(); position++) {
+            EqualsFilter equalsFilter = equalities.get(fields.get(position));
+            if (equalsFilter == null) break;
+
+            prefix.add(equalsFilter.getValue());
+            covered.add(equalsFilter);
+        }
+        if (prefix.isEmpty()) return null;
+
+        CompoundIndexScan scan = new CompoundIndexScan();
+        if (position < fields.size() && ranges.containsKey(fields.get(position))) {
+            for (ComparisonFilter filter : ranges.get(fields.get(position))) {
+                if (scan.lowerBound == null && (filter instanceof GreaterThanFilter
+                        || filter instanceof GreaterEqualFilter)) {
+                    scan.lowerBound = filter;
+                } else if (scan.upperBound == null && (filter instanceof LesserThanFilter
+                        || filter instanceof LesserEqualFilter)) {
+                    scan.upperBound = filter;
+                }
+            }
+
+            // both bounds must be comparable with each other
+            if (scan.lowerBound != null && scan.upperBound != null
+                    && !comparable(scan.lowerBound.getComparable(),
+                    scan.upperBound.getComparable())) {
+                scan.upperBound = null;
+            }
+            if (scan.lowerBound != null) covered.add(scan.lowerBound);
+            if (scan.upperBound != null) covered.add(scan.upperBound);
+        }
+
+        scan.index = index;
+        scan.prefix = prefix.toArray();
+        scan.coveredFilters = covered;
+        return scan;
+    }
+
+    private static boolean isRange(Filter filter) {
+        return filter instanceof GreaterThanFilter
+                || filter instanceof GreaterEqualFilter
+                || filter instanceof LesserThanFilter
+                || filter instanceof LesserEqualFilter;
+    }
+
+    private static boolean comparable(Comparable first, Comparable second) {
+        return first.getClass() == second.getClass()
+                || (first instanceof Number && second instanceof Number);
+    }
+}
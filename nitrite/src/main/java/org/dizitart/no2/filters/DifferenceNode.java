@@ -0,0 +1,71 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * A plan step of a not filter whose child can not be evaluated
+ * on a single document. It removes the ids of the child from
+ * all ids of the collection.
+ *
+ * @author Anindya Chatterjee.
+ */
+class DifferenceNode extends PlanNode {
+    private final PlanNode child;
+    private final long estimatedCount;
+
+    DifferenceNode(PlanNode child, long estimatedCount) {
+        this.child = child;
+        this.estimatedCount = estimatedCount;
+    }
+
+    @Override
+    long getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return false;
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        NitriteIdSet resultSet = NitriteIdSet.of(documentMap.keySet());
+        resultSet.removeAll(NitriteIdSet.of(child.execute(documentMap)));
+        return resultSet;
+    }
+
+    @Override
+    Iterator<NitriteId> iterator(NitriteMap<NitriteId, Document> documentMap) {
+        final NitriteIdSet excluded = NitriteIdSet.of(child.execute(documentMap));
+        final Iterator<NitriteId> keys = documentMap.keySet().iterator();
+        return new LazyIdIterator() {
+            @Override
+            NitriteId nextMatch() {
+                while (keys.hasNext()) {
+                    NitriteId nitriteId = keys.next();
+                    if (!excluded.contains(nitriteId.getValue())) {
+                        return nitriteId;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    long count(NitriteMap<NitriteId, Document> documentMap) {
+        return Math.max(0, documentMap.sizeAsLong() - child.count(documentMap));
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        explainLine(builder, indent, "DIFFERENCE");
+        child.explain(builder, indent + "  ");
+    }
+}
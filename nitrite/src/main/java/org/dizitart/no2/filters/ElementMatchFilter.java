@@ -14,7 +14,6 @@ import java.util.regex.Pattern;
 
 import static org.dizitart.no2.exceptions.ErrorCodes.*;
 import static org.dizitart.no2.exceptions.ErrorMessage.*;
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
 import static org.dizitart.no2.util.EqualsUtils.deepEquals;
 import static org.dizitart.no2.util.NumberUtils.compare;
 
@@ -32,47 +31,49 @@ class ElementMatchFilter extends BaseFilter {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
-        if (elementFilter instanceof ElementMatchFilter) {
-            throw new FilterException(NESTED_ELEM_MATCH_NOT_SUPPORTED);
-        }
+        validateElementFilter();
+        return matchedSet(documentMap);
+    }
 
-        if (elementFilter instanceof TextFilter) {
-            throw new FilterException(FULL_TEXT_ELEM_MATCH_NOT_SUPPORTED);
-        }
+    @Override
+    boolean isMatchable() {
+        return true;
+    }
 
-        elementFilter.setNitriteService(nitriteService);
+    @Override
+    @SuppressWarnings("unchecked")
+    boolean matches(Document document) {
+        validateElementFilter();
 
-        Set<NitriteId> nitriteIdSet = new LinkedHashSet<>();
-        for (Map.Entry<NitriteId, Document> entry: documentMap.entrySet()) {
-            Document document = entry.getValue();
-            Object fieldValue = getFieldValue(document, field);
+        Object fieldValue = getFieldValue(document, field);
+        if (fieldValue == null) {
+            return false;
+        }
 
-            if (fieldValue == null) {
-                continue;
+        if (fieldValue.getClass().isArray()) {
+            int length = Array.getLength(fieldValue);
+            List list = new ArrayList();
+            for (int i = 0; i < length; i++) {
+                Object item = Array.get(fieldValue, i);
+                list.add(item);
             }
+            return matches(list, elementFilter);
+        } else if (fieldValue instanceof Iterable) {
+            return matches((Iterable) fieldValue, elementFilter);
+        } else {
+            throw new FilterException(ELEM_MATCH_SUPPORTED_ON_ARRAY_ONLY);
+        }
+    }
 
-            if (fieldValue.getClass().isArray()) {
-                int length = Array.getLength(fieldValue);
-                List list = new ArrayList();
-                for (int i = 0; i < length; i++) {
-                    Object item = Array.get(fieldValue, i);
-                    list.add(item);
-                }
+    private void validateElementFilter() {
+        if (elementFilter instanceof ElementMatchFilter) {
+            throw new FilterException(NESTED_ELEM_MATCH_NOT_SUPPORTED);
+        }
 
-                if (matches(list, elementFilter)) {
-                    nitriteIdSet.add(entry.getKey());
-                }
-            } else if (fieldValue instanceof Iterable) {
-                if (matches((Iterable) fieldValue, elementFilter)) {
-                    nitriteIdSet.add(entry.getKey());
-                }
-            } else {
-                throw new FilterException(ELEM_MATCH_SUPPORTED_ON_ARRAY_ONLY);
-            }
+        if (elementFilter instanceof TextFilter) {
+            throw new FilterException(FULL_TEXT_ELEM_MATCH_NOT_SUPPORTED);
         }
-        return nitriteIdSet;
     }
 
     private boolean matches(Iterable iterable, Filter filter) {
@@ -129,7 +130,8 @@ class ElementMatchFilter extends BaseFilter {
         Object value = ((EqualsFilter) filter).getValue();
         if (item instanceof Document) {
             Document document = (Document) item;
-            Object docValue = getFieldValue(document, ((EqualsFilter) filter).getField());
+            Object docValue = ((EqualsFilter) filter).getFieldValue(document,
+                    ((EqualsFilter) filter).getField());
             return deepEquals(value, docValue);
         } else {
             return deepEquals(item, value);
@@ -146,7 +148,8 @@ class ElementMatchFilter extends BaseFilter {
             return arg.compareTo(comparable) > 0;
         } else if (item instanceof Document) {
             Document document = (Document) item;
-            Object docValue = getFieldValue(document, ((GreaterThanFilter) filter).getField());
+            Object docValue = ((GreaterThanFilter) filter).getFieldValue(document,
+                    ((GreaterThanFilter) filter).getField());
             if (docValue instanceof Comparable) {
                 Comparable arg = (Comparable) docValue;
                 return arg.compareTo(comparable) > 0;
@@ -172,7 +175,8 @@ class ElementMatchFilter extends BaseFilter {
             return arg.compareTo(comparable) >= 0;
         } else if (item instanceof Document) {
             Document document = (Document) item;
-            Object docValue = getFieldValue(document, ((GreaterEqualFilter) filter).getField());
+            Object docValue = ((GreaterEqualFilter) filter).getFieldValue(document,
+                    ((GreaterEqualFilter) filter).getField());
             if (docValue instanceof Comparable) {
                 Comparable arg = (Comparable) docValue;
                 return arg.compareTo(comparable) >= 0;
@@ -198,7 +202,8 @@ class ElementMatchFilter extends BaseFilter {
             return arg.compareTo(comparable) <= 0;
         } else if (item instanceof Document) {
             Document document = (Document) item;
-            Object docValue = getFieldValue(document, ((LesserEqualFilter) filter).getField());
+            Object docValue = ((LesserEqualFilter) filter).getFieldValue(document,
+                    ((LesserEqualFilter) filter).getField());
             if (docValue instanceof Comparable) {
                 Comparable arg = (Comparable) docValue;
                 return arg.compareTo(comparable) <= 0;
@@ -224,7 +229,8 @@ class ElementMatchFilter extends BaseFilter {
             return arg.compareTo(comparable) < 0;
         } else if (item instanceof Document) {
             Document document = (Document) item;
-            Object docValue = getFieldValue(document, ((LesserThanFilter) filter).getField());
+            Object docValue = ((LesserThanFilter) filter).getFieldValue(document,
+                    ((LesserThanFilter) filter).getField());
             if (docValue instanceof Comparable) {
                 Comparable arg = (Comparable) docValue;
                 return arg.compareTo(comparable) < 0;
@@ -245,7 +251,8 @@ class ElementMatchFilter extends BaseFilter {
         if (values != null) {
             if (item instanceof Document) {
                 Document document = (Document) item;
-                Object docValue = getFieldValue(document, ((InFilter) filter).getField());
+                Object docValue = ((InFilter) filter).getFieldValue(document,
+                        ((InFilter) filter).getField());
                 return values.contains(docValue);
             } else {
                 return values.contains(item);
@@ -262,7 +269,8 @@ class ElementMatchFilter extends BaseFilter {
             return matcher.find();
         } else if (item instanceof Document) {
             Document document = (Document) item;
-            Object docValue = getFieldValue(document, ((RegexFilter) filter).getField());
+            Object docValue = ((RegexFilter) filter).getFieldValue(document,
+                    ((RegexFilter) filter).getField());
             if (docValue instanceof String) {
                 Pattern pattern = Pattern.compile(value);
                 Matcher matcher = pattern.matcher((String) docValue);
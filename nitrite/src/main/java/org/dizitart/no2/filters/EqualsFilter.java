@@ -7,11 +7,9 @@ import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.store.NitriteMap;
 
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
 
 import static org.dizitart.no2.Constants.DOC_ID;
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
 import static org.dizitart.no2.util.EqualsUtils.deepEquals;
 
 @Getter
@@ -49,15 +47,14 @@ class EqualsFilter extends BaseFilter {
         }
     }
 
-    private Set<NitriteId> matchedSet(NitriteMap<NitriteId, Document> documentMap) {
-        Set<NitriteId> nitriteIdSet = new LinkedHashSet<>();
-        for (Map.Entry<NitriteId, Document> entry: documentMap.entrySet()) {
-            Document document = entry.getValue();
-            Object fieldValue = getFieldValue(document, field);
-            if (deepEquals(fieldValue, value)) {
-                nitriteIdSet.add(entry.getKey());
-            }
-        }
-        return nitriteIdSet;
+    @Override
+    boolean isMatchable() {
+        return true;
+    }
+
+    @Override
+    boolean matches(Document document) {
+        Object fieldValue = getFieldValue(document, field);
+        return deepEquals(fieldValue, value);
     }
 }
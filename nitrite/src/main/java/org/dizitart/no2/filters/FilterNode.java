@@ -0,0 +1,44 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Set;
+
+/**
+ * A plan step for a filter the planner does not know about, e.g. a
+ * custom filter. The filter is applied on the whole collection.
+ *
+ * @author Anindya Chatterjee.
+ */
+class FilterNode extends PlanNode {
+    private final Filter filter;
+    private final long estimatedCount;
+
+    FilterNode(Filter filter, long estimatedCount) {
+        this.filter = filter;
+        this.estimatedCount = estimatedCount;
+    }
+
+    @Override
+    long getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return false;
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        return filter.apply(documentMap);
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        explainLine(builder, indent, "FILTER " + filter);
+    }
+}
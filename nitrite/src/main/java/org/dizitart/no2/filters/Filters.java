@@ -176,6 +176,55 @@ public class Filters {
         return new LesserEqualFilter(field, value);
     }
 
+    /**
+     * Creates a between filter which matches those documents where the value
+     * of the field lies between the specified values, both inclusive.
+     *
+     * [[app-listing]]
+     * [source,java]
+     * .Example
+     * --
+     * // matches all documents where 'age' field has value from 30 to 40
+     * collection.find(between("age", 30, 40));
+     * --
+     *
+     * @param field      the value
+     * @param lowerBound the lower bound
+     * @param upperBound the upper bound
+     * @return the between filter
+     * @see #between(String, Object, boolean, Object, boolean)
+     */
+    public static Filter between(String field, Object lowerBound, Object upperBound) {
+        return new BetweenFilter(field, lowerBound, true, upperBound, true);
+    }
+
+    /**
+     * Creates a between filter which matches those documents where the value
+     * of the field lies between the specified values.
+     *
+     * It selects the same documents as an `and` of a greater and a lesser filter,
+     * but an index on the field is read with a single scan of the range.
+     *
+     * [[app-listing]]
+     * [source,java]
+     * .Example
+     * --
+     * // matches all documents where 'age' field has value from 30 to less than 40
+     * collection.find(between("age", 30, true, 40, false));
+     * --
+     *
+     * @param field          the value
+     * @param lowerBound     the lower bound
+     * @param lowerInclusive if the lower bound is inclusive
+     * @param upperBound     the upper bound
+     * @param upperInclusive if the upper bound is inclusive
+     * @return the between filter
+     */
+    public static Filter between(String field, Object lowerBound, boolean lowerInclusive,
+                                 Object upperBound, boolean upperInclusive) {
+        return new BetweenFilter(field, lowerBound, lowerInclusive, upperBound, upperInclusive);
+    }
+
     /**
      * Creates a text filter which performs a text search on the content of the fields
      * indexed with a full-text index.
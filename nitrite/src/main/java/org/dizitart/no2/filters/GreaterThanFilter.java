@@ -7,13 +7,11 @@ import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.store.NitriteMap;
 
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
 
 import static org.dizitart.no2.Constants.DOC_ID;
 import static org.dizitart.no2.exceptions.ErrorCodes.FE_GT_FIELD_NOT_COMPARABLE;
 import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
 import static org.dizitart.no2.util.NumberUtils.compare;
 
 @ToString
@@ -25,20 +23,15 @@ class GreaterThanFilter extends ComparisonFilter {
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
         if (field.equals(DOC_ID)) {
-            Set<NitriteId> nitriteIdSet = new LinkedHashSet<>();
             NitriteId nitriteId = null;
             if (comparable instanceof Long) {
                 nitriteId = NitriteId.createId((Long) comparable);
             }
 
             if (nitriteId != null) {
-                NitriteId higherKey = documentMap.higherKey(nitriteId);
-                while (higherKey != null) {
-                    nitriteIdSet.add(higherKey);
-                    higherKey = documentMap.higherKey(higherKey);
-                }
+                return idRange(documentMap, nitriteId, false, null, false);
             }
-            return nitriteIdSet;
+            return new LinkedHashSet<>();
         } else if (nitriteService.hasIndex(field)
                 && !nitriteService.isIndexing(field)) {
             return nitriteService.findGreaterThanWithIndex(field, comparable);
@@ -47,29 +40,22 @@ class GreaterThanFilter extends ComparisonFilter {
         }
     }
 
+    @Override
     @SuppressWarnings("unchecked")
-    private Set<NitriteId> matchedSet(NitriteMap<NitriteId, Document> documentMap) {
-        Set<NitriteId> nitriteIdSet = new LinkedHashSet<>();
-        for (Map.Entry<NitriteId, Document> entry: documentMap.entrySet()) {
-            Document document = entry.getValue();
-            Object fieldValue = getFieldValue(document, field);
-            if (fieldValue != null) {
-                if (fieldValue instanceof Number && comparable instanceof Number) {
-                    if (compare((Number) fieldValue, (Number) comparable) > 0) {
-                        nitriteIdSet.add(entry.getKey());
-                    }
-                } else if (fieldValue instanceof Comparable) {
-                    Comparable arg = (Comparable) fieldValue;
-                    if (arg.compareTo(comparable) > 0) {
-                        nitriteIdSet.add(entry.getKey());
-                    }
-                } else {
-                    throw new FilterException(errorMessage(
-                            fieldValue + " is not comparable",
-                            FE_GT_FIELD_NOT_COMPARABLE));
-                }
+    boolean matches(Document document) {
+        Object fieldValue = getFieldValue(document, field);
+        if (fieldValue != null) {
+            if (fieldValue instanceof Number && comparable instanceof Number) {
+                return compare((Number) fieldValue, (Number) comparable) > 0;
+            } else if (fieldValue instanceof Comparable) {
+                Comparable arg = (Comparable) fieldValue;
+                return arg.compareTo(comparable) > 0;
+            } else {
+                throw new FilterException(errorMessage(
+                        fieldValue + " is not comparable",
+                        FE_GT_FIELD_NOT_COMPARABLE));
             }
         }
-        return nitriteIdSet;
+        return false;
     }
 }
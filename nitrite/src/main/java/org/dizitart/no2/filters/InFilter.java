@@ -8,15 +8,16 @@ import org.dizitart.no2.store.NitriteMap;
 
 import java.util.*;
 
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
+import static org.dizitart.no2.util.NumberUtils.normalize;
 import static org.dizitart.no2.util.ValidationUtils.validateInFilterValue;
 
 @Getter
-@ToString
+@ToString(exclude = "valueSet")
 class InFilter extends BaseFilter {
     private String field;
     private Object[] values;
     private List<Object> objectList;
+    private Set<Object> valueSet;
 
     InFilter(String field, Object... values) {
         this.field = field;
@@ -36,15 +37,23 @@ class InFilter extends BaseFilter {
         }
     }
 
-    private Set<NitriteId> matchedSet(NitriteMap<NitriteId, Document> documentMap) {
-        Set<NitriteId> nitriteIdSet = new LinkedHashSet<>();
-        for (Map.Entry<NitriteId, Document> entry: documentMap.entrySet()) {
-            Document document = entry.getValue();
-            Object fieldValue = getFieldValue(document, field);
-            if (objectList.contains(fieldValue)) {
-                nitriteIdSet.add(entry.getKey());
+    @Override
+    boolean isMatchable() {
+        return true;
+    }
+
+    @Override
+    boolean matches(Document document) {
+        validateInFilterValue(field, values);
+        if (valueSet == null) {
+            // built once, so that each document is matched with a single probe
+            Set<Object> set = new HashSet<>();
+            for (Object value : values) {
+                set.add(normalize(value));
             }
+            valueSet = set;
         }
-        return nitriteIdSet;
+        Object fieldValue = getFieldValue(document, field);
+        return valueSet.contains(normalize(fieldValue));
     }
 }
@@ -0,0 +1,69 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Set;
+
+/**
+ * A plan step answering a single filter from an index, either
+ * a field index, a full-text index or the `_id` of the documents.
+ *
+ * @author Anindya Chatterjee.
+ */
+class IndexScanNode extends PlanNode {
+    static final String INDEX_SCAN = "INDEX SCAN";
+    static final String TEXT_INDEX_SCAN = "TEXT INDEX SCAN";
+    static final String ID_SCAN = "ID SCAN";
+
+    private final String operation;
+    private final Filter filter;
+    private final long estimatedCount;
+    private final boolean exact;
+
+    IndexScanNode(String operation, Filter filter, long estimatedCount) {
+        this(operation, filter, estimatedCount, false);
+    }
+
+    /**
+     * Creates an index scan, `exact` denotes that the estimated count was
+     * read from the same index entries the filter returns.
+     */
+    IndexScanNode(String operation, Filter filter, long estimatedCount, boolean exact) {
+        this.operation = operation;
+        this.filter = filter;
+        this.estimatedCount = estimatedCount;
+        this.exact = exact;
+    }
+
+    @Override
+    long getEstimatedCount() {
+        return estimatedCount;
+    }
+
+    @Override
+    boolean isIndexed() {
+        return true;
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        // the filter itself knows how to read its index
+        return filter.apply(documentMap);
+    }
+
+    @Override
+    long count(NitriteMap<NitriteId, Document> documentMap) {
+        if (exact) {
+            return estimatedCount;
+        }
+        return execute(documentMap).size();
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        explainLine(builder, indent, operation + " " + filter);
+    }
+}
@@ -0,0 +1,145 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static org.dizitart.no2.filters.CollectionScanNode.matchesAll;
+
+/**
+ * A plan step of an and filter. The most selective child produces the
+ * candidate ids, the residual predicates are evaluated on the candidate
+ * documents only and the children which can not be evaluated on a single
+ * document are intersected at last.
+ *
+ * If parallel query is enabled, the driver and the children to intersect
+ * are executed concurrently instead, as they do not depend on each other.
+ *
+ * @author Anindya Chatterjee.
+ */
+class IntersectionNode extends PlanNode {
+    private final PlanNode driver;
+    private final List<BaseFilter> residuals;
+    private final List<PlanNode> others;
+    private final ExecutorService executorService;
+
+    IntersectionNode(PlanNode driver, List<BaseFilter> residuals,
+                     List<PlanNode> others, ExecutorService executorService) {
+        this.driver = driver;
+        this.residuals = residuals;
+        this.others = others;
+        this.executorService = executorService;
+    }
+
+    @Override
+    long getEstimatedCount() {
+        return driver.getEstimatedCount();
+    }
+
+    @Override
+    boolean isIndexed() {
+        return driver.isIndexed();
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        if (isParallel()) {
+            List<PlanNode> nodes = new ArrayList<>();
+            nodes.add(driver);
+            nodes.addAll(others);
+
+            List<Set<NitriteId>> results = executeAll(nodes, documentMap, executorService);
+            Set<NitriteId> result = results.get(0);
+            for (int i = 1; i < results.size(); i++) {
+                result.retainAll(NitriteIdSet.of(results.get(i)));
+            }
+            return filterResiduals(result, documentMap);
+        }
+
+        Set<NitriteId> result = filterResiduals(driver.execute(documentMap), documentMap);
+        for (PlanNode other : others) {
+            if (result.isEmpty()) break;
+            result.retainAll(NitriteIdSet.of(other.execute(documentMap)));
+        }
+        return result;
+    }
+
+    @Override
+    Iterator<NitriteId> iterator(final NitriteMap<NitriteId, Document> documentMap) {
+        if (isParallel()) {
+            return execute(documentMap).iterator();
+        }
+
+        final List<NitriteIdSet> memberships = new ArrayList<>();
+        for (PlanNode other : others) {
+            memberships.add(NitriteIdSet.of(other.execute(documentMap)));
+        }
+
+        final Iterator<NitriteId> candidates = driver.iterator(documentMap);
+        return new LazyIdIterator() {
+            @Override
+            NitriteId nextMatch() {
+                while (candidates.hasNext()) {
+                    NitriteId candidate = candidates.next();
+                    if (isMember(candidate, memberships)
+                            && matchesResiduals(documentMap.get(candidate))) {
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        explainLine(builder, indent, isParallel() ? "PARALLEL INTERSECTION" : "INTERSECTION");
+        driver.explain(builder, indent + "  ");
+        for (BaseFilter residual : residuals) {
+            builder.append(indent).append("  RESIDUAL ").append(residual)
+                    .append(System.lineSeparator());
+        }
+        for (PlanNode other : others) {
+            other.explain(builder, indent + "  ");
+        }
+    }
+
+    private boolean isParallel() {
+        return executorService != null && !others.isEmpty();
+    }
+
+    private boolean matchesResiduals(Document document) {
+        return document != null && (residuals.isEmpty() || matchesAll(residuals, document));
+    }
+
+    private static boolean isMember(NitriteId nitriteId, List<NitriteIdSet> memberships) {
+        for (NitriteIdSet membership : memberships) {
+            if (!membership.contains(nitriteId.getValue())) return false;
+        }
+        return true;
+    }
+
+    private Set<NitriteId> filterResiduals(Set<NitriteId> result,
+                                           NitriteMap<NitriteId, Document> documentMap) {
+        if (residuals.isEmpty()) return result;
+
+        // copied instead of removed in place, which would shift the ids
+        // of a sorted id set once per removal
+        Set<NitriteId> filtered = result instanceof NitriteIdSet
+                ? new NitriteIdSet(result.size()) : new LinkedHashSet<NitriteId>();
+        for (NitriteId nitriteId : result) {
+            Document document = documentMap.get(nitriteId);
+            if (document != null && matchesAll(residuals, document)) {
+                filtered.add(nitriteId);
+            }
+        }
+        return filtered;
+    }
+}
@@ -0,0 +1,50 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static org.dizitart.no2.exceptions.ErrorMessage.REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED;
+
+/**
+ * An iterator of ids finding its next element only when asked for,
+ * so that a plan step can be consumed partially.
+ *
+ * @author Anindya Chatterjee.
+ */
+abstract class LazyIdIterator implements Iterator<NitriteId> {
+    private NitriteId nextElement;
+    private boolean ready;
+
+    @Override
+    public boolean hasNext() {
+        if (!ready) {
+            nextElement = nextMatch();
+            ready = true;
+        }
+        return nextElement != null;
+    }
+
+    @Override
+    public NitriteId next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        return nextElement;
+    }
+
+    @Override
+    public void remove() {
+        throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+    }
+
+    /**
+     * Finds the next id.
+     *
+     * @return the next id or `null` if there is none.
+     */
+    abstract NitriteId nextMatch();
+}
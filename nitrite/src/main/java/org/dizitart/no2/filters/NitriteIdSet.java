@@ -0,0 +1,267 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.NitriteId;
+
+import java.util.*;
+
+/**
+ * A set of {@link NitriteId}s kept as a sorted array of their long values.
+ *
+ * An id costs 8 bytes in the set, instead of a hash set entry holding a
+ * {@link NitriteId} and its boxed value. The ids are iterated in ascending
+ * order, the order of the keys of a document map, so a scan appends its
+ * ids at the end of the array. An intersection, union or difference with
+ * another {@link NitriteIdSet} merges both arrays in a single pass, any
+ * other collection is probed element by element.
+ *
+ * [icon="{@docRoot}/note.png"]
+ * NOTE: The set is not thread-safe and its iterator is not fail-fast.
+ *
+ * @author Anindya Chatterjee.
+ */
+class NitriteIdSet extends AbstractSet<NitriteId> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] ids;
+    private int size;
+
+    NitriteIdSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    NitriteIdSet(int capacity) {
+        this.ids = new long[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Gets the ids of a collection as a {@link NitriteIdSet}. The collection
+     * itself is returned if it is a {@link NitriteIdSet} already.
+     *
+     * @param nitriteIds the ids
+     * @return the set of the ids.
+     */
+    static NitriteIdSet of(Collection<NitriteId> nitriteIds) {
+        if (nitriteIds instanceof NitriteIdSet) {
+            return (NitriteIdSet) nitriteIds;
+        }
+
+        NitriteIdSet idSet = new NitriteIdSet(nitriteIds.size());
+        boolean sorted = true;
+        for (NitriteId nitriteId : nitriteIds) {
+            long value = nitriteId.getValue();
+            if (idSet.size > 0 && value <= idSet.ids[idSet.size - 1]) {
+                sorted = false;
+            }
+            idSet.append(value);
+        }
+        if (!sorted) {
+            idSet.sortDistinct();
+        }
+        return idSet;
+    }
+
+    /**
+     * Checks if the set contains an id value.
+     *
+     * @param value the id value
+     * @return `true` if the value is in the set; otherwise `false`.
+     */
+    boolean contains(long value) {
+        return Arrays.binarySearch(ids, 0, size, value) >= 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof NitriteId && contains(((NitriteId) o).getValue());
+    }
+
+    @Override
+    public boolean add(NitriteId nitriteId) {
+        long value = nitriteId.getValue();
+        if (size == 0 || value > ids[size - 1]) {
+            append(value);
+            return true;
+        }
+
+        int index = Arrays.binarySearch(ids, 0, size, value);
+        if (index >= 0) return false;
+
+        index = -(index + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        ids[index] = value;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends NitriteId> c) {
+        if (!(c instanceof NitriteIdSet)) {
+            return super.addAll(c);
+        }
+
+        NitriteIdSet other = (NitriteIdSet) c;
+        if (other.size == 0) return false;
+        if (size == 0 || other.ids[0] > ids[size - 1]) {
+            ensureCapacity(size + other.size);
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+            return true;
+        }
+
+        long[] merged = new long[size + other.size];
+        int i = 0, j = 0, k = 0;
+        while (i < size && j < other.size) {
+            long first = ids[i], second = other.ids[j];
+            if (first < second) {
+                merged[k++] = first;
+                i++;
+            } else if (first > second) {
+                merged[k++] = second;
+                j++;
+            } else {
+                merged[k++] = first;
+                i++;
+                j++;
+            }
+        }
+        while (i < size) merged[k++] = ids[i++];
+        while (j < other.size) merged[k++] = other.ids[j++];
+
+        boolean modified = k != size;
+        ids = merged;
+        size = k;
+        return modified;
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        int retained = 0;
+        if (c instanceof NitriteIdSet) {
+            NitriteIdSet other = (NitriteIdSet) c;
+            int j = 0;
+            for (int i = 0; i < size && j < other.size; i++) {
+                long value = ids[i];
+                while (j < other.size && other.ids[j] < value) j++;
+                if (j < other.size && other.ids[j] == value) {
+                    ids[retained++] = value;
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (c.contains(NitriteId.createId(ids[i]))) {
+                    ids[retained++] = ids[i];
+                }
+            }
+        }
+        return truncate(retained);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        int retained = 0;
+        if (c instanceof NitriteIdSet) {
+            NitriteIdSet other = (NitriteIdSet) c;
+            int j = 0;
+            for (int i = 0; i < size; i++) {
+                long value = ids[i];
+                while (j < other.size && other.ids[j] < value) j++;
+                if (j >= other.size || other.ids[j] != value) {
+                    ids[retained++] = value;
+                }
+            }
+        } else {
+            for (int i = 0; i < size; i++) {
+                if (!c.contains(NitriteId.createId(ids[i]))) {
+                    ids[retained++] = ids[i];
+                }
+            }
+        }
+        return truncate(retained);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof NitriteId)) return false;
+
+        int index = Arrays.binarySearch(ids, 0, size, ((NitriteId) o).getValue());
+        if (index < 0) return false;
+        removeAt(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<NitriteId> iterator() {
+        return new Iterator<NitriteId>() {
+            private int cursor;
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return cursor < size;
+            }
+
+            @Override
+            public NitriteId next() {
+                if (cursor >= size) {
+                    throw new NoSuchElementException();
+                }
+                last = cursor++;
+                return NitriteId.createId(ids[last]);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                removeAt(last);
+                cursor = last;
+                last = -1;
+            }
+        };
+    }
+
+    private void append(long value) {
+        ensureCapacity(size + 1);
+        ids[size++] = value;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+    }
+
+    private boolean truncate(int newSize) {
+        boolean modified = newSize != size;
+        size = newSize;
+        return modified;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(capacity, ids.length + (ids.length >> 1)));
+        }
+    }
+
+    private void sortDistinct() {
+        Arrays.sort(ids, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || ids[i] != ids[distinct - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        size = distinct;
+    }
+}
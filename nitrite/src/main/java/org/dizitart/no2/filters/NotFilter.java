@@ -7,7 +7,6 @@ import org.dizitart.no2.Filter;
 import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.store.NitriteMap;
 
-import java.util.LinkedHashSet;
 import java.util.Set;
 
 @Getter
@@ -19,18 +18,18 @@ class NotFilter extends BaseFilter {
         this.filter = filter;
     }
 
-    private Set<NitriteId> matchedSet(NitriteMap<NitriteId, Document> documentMap) {
-        Set<NitriteId> resultSet = new LinkedHashSet<>(documentMap.keySet());
-        resultSet.removeAll(filter.apply(documentMap));
-        return resultSet;
+    @Override
+    public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return QueryPlan.create(this, nitriteService, documentMap).execute();
     }
 
     @Override
-    public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
-        if (filter != null && filter instanceof BaseFilter) {
-            filter.setNitriteService(nitriteService);
-        }
+    boolean isMatchable() {
+        return filter instanceof BaseFilter && ((BaseFilter) filter).isMatchable();
+    }
 
-        return matchedSet(documentMap);
+    @Override
+    boolean matches(Document document) {
+        return !((BaseFilter) filter).matches(document);
     }
 }
@@ -0,0 +1,154 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.dizitart.no2.Constants.DAEMON_THREAD_NAME;
+import static org.dizitart.no2.exceptions.ErrorCodes.FE_PARALLEL_QUERY_FAILED;
+import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
+
+/**
+ * Represents a step of a {@link QueryPlan}.
+ *
+ * @author Anindya Chatterjee.
+ */
+abstract class PlanNode {
+    /**
+     * Gets the estimated number of ids the step produces.
+     *
+     * @return the estimated count.
+     */
+    abstract long getEstimatedCount();
+
+    /**
+     * Specifies if the step reads its ids from an index
+     * instead of scanning the documents.
+     *
+     * @return `true` if index backed; otherwise `false`.
+     */
+    abstract boolean isIndexed();
+
+    /**
+     * Executes the step.
+     *
+     * @param documentMap the document map of the collection
+     * @return the ids produced by the step.
+     */
+    abstract Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap);
+
+    /**
+     * Executes the step lazily, the ids are found while iterating. Steps
+     * which can not produce their ids one at a time execute eagerly.
+     *
+     * @param documentMap the document map of the collection
+     * @return an iterator of the ids produced by the step.
+     */
+    Iterator<NitriteId> iterator(NitriteMap<NitriteId, Document> documentMap) {
+        return execute(documentMap).iterator();
+    }
+
+    /**
+     * Counts the ids the step produces. Unless a step can read its count
+     * from an index, the ids are counted while iterating them, so that
+     * they are never collected into a set.
+     *
+     * @param documentMap the document map of the collection
+     * @return the number of ids produced by the step.
+     */
+    long count(NitriteMap<NitriteId, Document> documentMap) {
+        long count = 0;
+        Iterator<NitriteId> iterator = iterator(documentMap);
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes a description of the step and its children.
+     *
+     * @param builder the builder to write to
+     * @param indent  the indentation of the step
+     */
+    abstract void explain(StringBuilder builder, String indent);
+
+    /**
+     * Executes the steps, in parallel on the `executorService` if it is
+     * not `null`. A step executing on the worker pool executes its
+     * children sequentially, so that nested steps never wait for the
+     * pool they are running on.
+     *
+     * @param nodes           the steps to execute
+     * @param documentMap     the document map of the collection
+     * @param executorService the executor service or `null`
+     * @return the ids produced by each step, in order.
+     */
+    static List<Set<NitriteId>> executeAll(List<PlanNode> nodes,
+                                           final NitriteMap<NitriteId, Document> documentMap,
+                                           ExecutorService executorService) {
+        List<Set<NitriteId>> results = new ArrayList<>();
+        if (executorService == null || nodes.size() < 2
+                || DAEMON_THREAD_NAME.equals(Thread.currentThread().getName())) {
+            for (PlanNode node : nodes) {
+                results.add(node.execute(documentMap));
+            }
+            return results;
+        }
+
+        List<Callable<Set<NitriteId>>> tasks = new ArrayList<>();
+        for (final PlanNode node : nodes) {
+            tasks.add(new Callable<Set<NitriteId>>() {
+                @Override
+                public Set<NitriteId> call() throws Exception {
+                    return node.execute(documentMap);
+                }
+            });
+        }
+
+        try {
+            for (Future<Set<NitriteId>> future : executorService.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ee.getCause();
+            }
+            throw new FilterException(errorMessage("parallel query execution failed",
+                    FE_PARALLEL_QUERY_FAILED), ee.getCause());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new FilterException(errorMessage("parallel query execution interrupted",
+                    FE_PARALLEL_QUERY_FAILED), ie);
+        }
+    }
+
+    static Set<NitriteId> collect(Iterator<NitriteId> iterator) {
+        Set<NitriteId> nitriteIdSet = new NitriteIdSet();
+        while (iterator.hasNext()) {
+            nitriteIdSet.add(iterator.next());
+        }
+        return nitriteIdSet;
+    }
+
+    void explainLine(StringBuilder builder, String indent, String description) {
+        builder.append(indent)
+                .append(description)
+                .append(" [estimated ")
+                .append(getEstimatedCount())
+                .append("]")
+                .append(System.lineSeparator());
+    }
+}
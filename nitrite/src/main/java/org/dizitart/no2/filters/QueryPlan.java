@@ -0,0 +1,131 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.internals.NitriteService;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Represents the execution plan of a {@link Filter} on a collection.
+ *
+ * The plan is chosen from the estimated number of ids each index
+ * access path returns. Its textual form, as returned by {@link #toString()},
+ * describes every step of the plan along with its estimate, e.g.
+ *
+ * [[app-listing]]
+ * [source,text]
+ * .Example of a query plan
+ * --
+ * INTERSECTION [estimated 2]
+ *   INDEX SCAN EqualsFilter(field=lastName, value=ln2) [estimated 2]
+ *   RESIDUAL GreaterThanFilter(field=age, value=30)
+ * --
+ *
+ * @author Anindya Chatterjee.
+ * @since 1.0
+ */
+public class QueryPlan {
+    private final Filter filter;
+    private final PlanNode root;
+    private final NitriteMap<NitriteId, Document> documentMap;
+
+    private QueryPlan(Filter filter, PlanNode root,
+                      NitriteMap<NitriteId, Document> documentMap) {
+        this.filter = filter;
+        this.root = root;
+        this.documentMap = documentMap;
+    }
+
+    /**
+     * Creates the query plan of a filter.
+     *
+     * @param filter         the filter, `null` selects all documents
+     * @param nitriteService the nitrite service of the collection
+     * @param documentMap    the document map of the collection
+     * @return the query plan.
+     */
+    public static QueryPlan create(Filter filter, NitriteService nitriteService,
+                                   NitriteMap<NitriteId, Document> documentMap) {
+        QueryPlanner planner = new QueryPlanner(nitriteService, documentMap);
+        return new QueryPlan(filter, planner.plan(filter), documentMap);
+    }
+
+    /**
+     * Executes the plan.
+     *
+     * @return the ids of the matching documents.
+     */
+    public Set<NitriteId> execute() {
+        return root.execute(documentMap);
+    }
+
+    /**
+     * Executes the plan lazily. The matching ids are found while
+     * iterating, so a partially consumed iterator does not pay for
+     * scanning the rest of the collection.
+     *
+     * @return an iterator of the ids of the matching documents.
+     */
+    public Iterator<NitriteId> iterator() {
+        return root.iterator(documentMap);
+    }
+
+    /**
+     * Counts the matching documents without collecting their ids. Equality
+     * and range filters on an indexed field are counted from the index alone.
+     *
+     * @return the number of matching documents.
+     */
+    public long count() {
+        return root.count(documentMap);
+    }
+
+    /**
+     * Gets the filter of the plan.
+     *
+     * @return the filter, `null` if all documents are selected.
+     */
+    public Filter getFilter() {
+        return filter;
+    }
+
+    /**
+     * Gets the bounds the filter of the plan puts on the values of a field.
+     *
+     * @param field the field
+     * @return the range or `null` if the values of the field are not bounded.
+     */
+    public ValueRange getValueRange(String field) {
+        return filter == null ? null : ValueRange.of(filter, field);
+    }
+
+    /**
+     * Gets the estimated number of matching documents.
+     *
+     * @return the estimated count.
+     */
+    public long getEstimatedCount() {
+        return root.getEstimatedCount();
+    }
+
+    /**
+     * Specifies if the candidate documents are read from an index
+     * instead of a scan of the whole collection.
+     *
+     * @return `true` if index backed; otherwise `false`.
+     */
+    public boolean isIndexed() {
+        return root.isIndexed();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        root.explain(builder, "");
+        return builder.toString().trim();
+    }
+}
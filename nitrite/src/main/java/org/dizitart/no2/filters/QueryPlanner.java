@@ -0,0 +1,404 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.NitriteContext;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.internals.NitriteService;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+
+import static org.dizitart.no2.Constants.DOC_ID;
+import static org.dizitart.no2.filters.IndexScanNode.*;
+import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
+
+/**
+ * Builds the {@link PlanNode} tree of a filter.
+ *
+ * The cardinality of every index access path is estimated from the
+ * rank of its bounds in the index B-tree, which costs a few lookups
+ * and does not read any entry. An and filter is driven by its most
+ * selective access path, the rest of its predicates are evaluated on
+ * the candidate documents only. Collection scans are used only when
+ * no index can answer the filter.
+ *
+ * If parallel query is enabled on the database, the independent steps of
+ * and and or filters are executed concurrently on the worker pool.
+ *
+ * @author Anindya Chatterjee.
+ */
+class QueryPlanner {
+    private static final Object[] NO_PREFIX = new Object[0];
+
+    private final NitriteService nitriteService;
+    private final NitriteMap<NitriteId, Document> documentMap;
+    private final long collectionSize;
+    private final ExecutorService executorService;
+
+    QueryPlanner(NitriteService nitriteService, NitriteMap<NitriteId, Document> documentMap) {
+        this.nitriteService = nitriteService;
+        this.documentMap = documentMap;
+        this.collectionSize = documentMap.sizeAsLong();
+
+        NitriteContext context = nitriteService == null ? null : nitriteService.getNitriteContext();
+        this.executorService = context != null && context.isParallelQueryEnabled()
+                ? context.getWorkerPool() : null;
+    }
+
+    PlanNode plan(Filter filter) {
+        if (filter == null) {
+            return new CollectionScanNode(Collections.<BaseFilter>emptyList(), collectionSize);
+        }
+
+        filter.setNitriteService(nitriteService);
+        if (filter instanceof AndFilter) {
+            return planAnd((AndFilter) filter);
+        } else if (filter instanceof OrFilter) {
+            return planOr((OrFilter) filter);
+        } else if (filter instanceof NotFilter) {
+            return planNot((NotFilter) filter);
+        }
+
+        PlanNode indexScan = indexScan(filter);
+        if (indexScan != null) {
+            return indexScan;
+        } else if (isMatchable(filter)) {
+            return collectionScan(filter);
+        }
+        return new FilterNode(filter, collectionSize);
+    }
+
+    private PlanNode planAnd(AndFilter andFilter) {
+        List<Filter> filters = new ArrayList<>();
+        flattenAnd(andFilter, filters);
+        if (filters.isEmpty()) {
+            return new UnionNode(Collections.<PlanNode>emptyList(), null);
+        }
+
+        PlanNode driver = CompoundIndexScan.find(filters.toArray(new Filter[filters.size()]),
+                nitriteService);
+        Set<Filter> covered = newIdentitySet();
+        if (driver != null) {
+            covered.addAll(((CompoundIndexScan) driver).getCoveredFilters());
+        }
+        filters = mergeRanges(filters, covered);
+
+        for (Filter filter : filters) {
+            PlanNode accessPath = accessPath(filter);
+            if (accessPath != null && (driver == null
+                    || accessPath.getEstimatedCount() < driver.getEstimatedCount())) {
+                driver = accessPath;
+                covered = newIdentitySet();
+                covered.add(filter);
+            }
+        }
+
+        if (driver == null) {
+            List<BaseFilter> predicates = new ArrayList<>();
+            for (Filter filter : filters) {
+                if (isMatchable(filter)) {
+                    predicates.add((BaseFilter) filter);
+                    covered.add(filter);
+                }
+            }
+
+            if (predicates.isEmpty()) {
+                driver = plan(filters.get(0));
+                covered.add(filters.get(0));
+            } else {
+                driver = new CollectionScanNode(predicates, collectionSize);
+            }
+        }
+
+        List<BaseFilter> residuals = new ArrayList<>();
+        List<PlanNode> others = new ArrayList<>();
+        for (Filter filter : filters) {
+            if (covered.contains(filter)) continue;
+
+            if (isMatchable(filter)) {
+                residuals.add((BaseFilter) filter);
+            } else {
+                others.add(plan(filter));
+            }
+        }
+
+        if (residuals.isEmpty() && others.isEmpty()) {
+            return driver;
+        }
+
+        // cheapest intersection first, it can empty the result early
+        Collections.sort(others, new Comparator<PlanNode>() {
+            @Override
+            public int compare(PlanNode first, PlanNode second) {
+                return Long.compare(first.getEstimatedCount(), second.getEstimatedCount());
+            }
+        });
+        return new IntersectionNode(driver, residuals, others, executorService);
+    }
+
+    private PlanNode planOr(OrFilter orFilter) {
+        List<Filter> filters = new ArrayList<>();
+        flattenOr(orFilter, filters);
+
+        List<PlanNode> accessPaths = new ArrayList<>();
+        boolean allIndexed = true;
+        boolean allMatchable = true;
+        for (Filter filter : filters) {
+            PlanNode accessPath = accessPath(filter);
+            accessPaths.add(accessPath);
+            allIndexed = allIndexed && accessPath != null;
+            allMatchable = allMatchable && isMatchable(filter);
+        }
+
+        if (allIndexed) {
+            return new UnionNode(accessPaths, executorService);
+        }
+
+        // a single pass over the collection answers every branch
+        if (allMatchable) {
+            return collectionScan(orFilter);
+        }
+
+        List<PlanNode> children = new ArrayList<>();
+        List<Filter> scanFilters = new ArrayList<>();
+        for (int i = 0; i < filters.size(); i++) {
+            Filter filter = filters.get(i);
+            if (accessPaths.get(i) != null) {
+                children.add(accessPaths.get(i));
+            } else if (isMatchable(filter)) {
+                scanFilters.add(filter);
+            } else {
+                children.add(plan(filter));
+            }
+        }
+
+        if (scanFilters.size() == 1) {
+            children.add(collectionScan(scanFilters.get(0)));
+        } else if (scanFilters.size() > 1) {
+            OrFilter scanFilter = new OrFilter(scanFilters.toArray(new Filter[scanFilters.size()]));
+            scanFilter.setNitriteService(nitriteService);
+            children.add(collectionScan(scanFilter));
+        }
+        return new UnionNode(children, executorService);
+    }
+
+    private PlanNode planNot(NotFilter notFilter) {
+        if (notFilter.getFilter() != null) {
+            notFilter.getFilter().setNitriteService(nitriteService);
+        }
+
+        if (notFilter.isMatchable()) {
+            return collectionScan(notFilter);
+        }
+        return new DifferenceNode(plan(notFilter.getFilter()), collectionSize);
+    }
+
+    // an index backed plan of the filter, if any
+    private PlanNode accessPath(Filter filter) {
+        if (filter instanceof AndFilter || filter instanceof OrFilter) {
+            PlanNode plan = plan(filter);
+            return plan.isIndexed() ? plan : null;
+        }
+        filter.setNitriteService(nitriteService);
+        return indexScan(filter);
+    }
+
+    private PlanNode indexScan(Filter filter) {
+        if (filter instanceof EqualsFilter) {
+            EqualsFilter equalsFilter = (EqualsFilter) filter;
+            String field = equalsFilter.getField();
+            Object value = equalsFilter.getValue();
+
+            if (DOC_ID.equals(field)) {
+                long count = value instanceof Long
+                        && documentMap.containsKey(NitriteId.createId((Long) value)) ? 1 : 0;
+                return new IndexScanNode(ID_SCAN, filter, count, true);
+            } else if (value != null && isIndexed(field)) {
+                // a non comparable value fails while executing the filter
+                return new IndexScanNode(INDEX_SCAN, filter, countEqual(field, value),
+                        value instanceof Comparable);
+            }
+        } else if (filter instanceof ComparisonFilter) {
+            ComparisonFilter comparisonFilter = (ComparisonFilter) filter;
+            String field = comparisonFilter.getField();
+
+            if (DOC_ID.equals(field)) {
+                return new IndexScanNode(ID_SCAN, filter, countIdRange(comparisonFilter), true);
+            } else if (isIndexed(field)) {
+                return new IndexScanNode(INDEX_SCAN, filter, countRange(comparisonFilter), true);
+            }
+        } else if (filter instanceof BetweenFilter) {
+            BetweenFilter betweenFilter = (BetweenFilter) filter;
+            String field = betweenFilter.getField();
+
+            if (DOC_ID.equals(field)) {
+                return new IndexScanNode(ID_SCAN, filter, countIdBetween(betweenFilter), true);
+            } else if (isIndexed(field)) {
+                long count = nitriteService.countWithIndex(field, NO_PREFIX,
+                        betweenFilter.getLowerBound(), betweenFilter.isLowerInclusive(),
+                        betweenFilter.getUpperBound(), betweenFilter.isUpperInclusive());
+                return new IndexScanNode(INDEX_SCAN, filter, count, true);
+            }
+        } else if (filter instanceof InFilter) {
+            InFilter inFilter = (InFilter) filter;
+            if (isIndexed(inFilter.getField())) {
+                long count = 0;
+                for (Object value : inFilter.getObjectList()) {
+                    count += countEqual(inFilter.getField(), value);
+                }
+                return new IndexScanNode(INDEX_SCAN, filter, count);
+            }
+        } else if (filter instanceof TextFilter) {
+            TextFilter textFilter = (TextFilter) filter;
+            if (isIndexed(textFilter.getField()) && !isNullOrEmpty(textFilter.getValue())) {
+                // the tokens of a text can not be estimated without reading the index
+                return new IndexScanNode(TEXT_INDEX_SCAN, filter, collectionSize);
+            }
+        }
+        return null;
+    }
+
+    private long countEqual(String field, Object value) {
+        if (!(value instanceof Comparable)) return 0;
+        Comparable comparable = (Comparable) value;
+        return nitriteService.countWithIndex(field, NO_PREFIX,
+                comparable, true, comparable, true);
+    }
+
+    private long countRange(ComparisonFilter filter) {
+        String field = filter.getField();
+        Comparable value = filter.getComparable();
+        if (filter instanceof GreaterThanFilter) {
+            return nitriteService.countWithIndex(field, NO_PREFIX, value, false, null, false);
+        } else if (filter instanceof GreaterEqualFilter) {
+            return nitriteService.countWithIndex(field, NO_PREFIX, value, true, null, false);
+        } else if (filter instanceof LesserThanFilter) {
+            return nitriteService.countWithIndex(field, NO_PREFIX, null, false, value, false);
+        } else if (filter instanceof LesserEqualFilter) {
+            return nitriteService.countWithIndex(field, NO_PREFIX, null, false, value, true);
+        }
+        return collectionSize;
+    }
+
+    private long countIdRange(ComparisonFilter filter) {
+        if (!(filter.getComparable() instanceof Long)) return 0;
+
+        long index = documentMap.getKeyIndex(NitriteId.createId((Long) filter.getComparable()));
+        // number of ids lesser than the value, and lesser or equal to it
+        long lesser = index < 0 ? -(index + 1) : index;
+        long lesserOrEqual = index < 0 ? lesser : index + 1;
+
+        if (filter instanceof GreaterThanFilter) {
+            return collectionSize - lesserOrEqual;
+        } else if (filter instanceof GreaterEqualFilter) {
+            return collectionSize - lesser;
+        } else if (filter instanceof LesserThanFilter) {
+            return lesser;
+        } else if (filter instanceof LesserEqualFilter) {
+            return lesserOrEqual;
+        }
+        return collectionSize;
+    }
+
+    private long countIdBetween(BetweenFilter filter) {
+        if (!(filter.getLowerBound() instanceof Long && filter.getUpperBound() instanceof Long)) {
+            return 0;
+        }
+
+        long below = idsBefore((Long) filter.getLowerBound(), !filter.isLowerInclusive());
+        long upTo = idsBefore((Long) filter.getUpperBound(), filter.isUpperInclusive());
+        return Math.max(0, upTo - below);
+    }
+
+    // number of ids lesser than the value, or lesser or equal to it
+    private long idsBefore(Long value, boolean orEqual) {
+        long index = documentMap.getKeyIndex(NitriteId.createId(value));
+        if (index < 0) return -(index + 1);
+        return orEqual ? index + 1 : index;
+    }
+
+    private PlanNode collectionScan(Filter filter) {
+        return new CollectionScanNode(Collections.singletonList((BaseFilter) filter), collectionSize);
+    }
+
+    private boolean isIndexed(String field) {
+        return nitriteService.hasIndex(field) && !nitriteService.isIndexing(field);
+    }
+
+    private static boolean isMatchable(Filter filter) {
+        return filter instanceof BaseFilter && ((BaseFilter) filter).isMatchable();
+    }
+
+    // rewrites a lower and an upper bound of the same field into a between filter,
+    // so that an index on the field is read with a single bounded scan
+    private static List<Filter> mergeRanges(List<Filter> filters, Set<Filter> covered) {
+        Map<String, ComparisonFilter> lowerBounds = new HashMap<>();
+        Map<String, ComparisonFilter> upperBounds = new HashMap<>();
+        for (Filter filter : filters) {
+            if (covered.contains(filter)) continue;
+
+            if (filter instanceof GreaterThanFilter || filter instanceof GreaterEqualFilter) {
+                ComparisonFilter comparisonFilter = (ComparisonFilter) filter;
+                if (!lowerBounds.containsKey(comparisonFilter.getField())) {
+                    lowerBounds.put(comparisonFilter.getField(), comparisonFilter);
+                }
+            } else if (filter instanceof LesserThanFilter || filter instanceof LesserEqualFilter) {
+                ComparisonFilter comparisonFilter = (ComparisonFilter) filter;
+                if (!upperBounds.containsKey(comparisonFilter.getField())) {
+                    upperBounds.put(comparisonFilter.getField(), comparisonFilter);
+                }
+            }
+        }
+
+        List<Filter> merged = new ArrayList<>();
+        Set<Filter> replaced = newIdentitySet();
+        for (Filter filter : filters) {
+            if (replaced.contains(filter)) continue;
+
+            if (filter instanceof ComparisonFilter) {
+                String field = ((ComparisonFilter) filter).getField();
+                ComparisonFilter lower = lowerBounds.get(field);
+                ComparisonFilter upper = upperBounds.get(field);
+
+                // bounds of different types are ordered by type in an index
+                if (lower != null && upper != null && (filter == lower || filter == upper)
+                        && lower.getComparable().getClass() == upper.getComparable().getClass()) {
+                    merged.add(new BetweenFilter(field,
+                            lower.getComparable(), lower instanceof GreaterEqualFilter,
+                            upper.getComparable(), upper instanceof LesserEqualFilter));
+                    replaced.add(lower);
+                    replaced.add(upper);
+                    continue;
+                }
+            }
+            merged.add(filter);
+        }
+        return merged;
+    }
+
+    private static void flattenAnd(AndFilter andFilter, List<Filter> filters) {
+        for (Filter filter : andFilter.getFilters()) {
+            if (filter instanceof AndFilter) {
+                flattenAnd((AndFilter) filter, filters);
+            } else {
+                filters.add(filter);
+            }
+        }
+    }
+
+    private static void flattenOr(OrFilter orFilter, List<Filter> filters) {
+        for (Filter filter : orFilter.getFilters()) {
+            if (filter instanceof OrFilter) {
+                flattenOr((OrFilter) filter, filters);
+            } else {
+                filters.add(filter);
+            }
+        }
+    }
+
+    private static Set<Filter> newIdentitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<Filter, Boolean>());
+    }
+}
@@ -6,47 +6,51 @@ import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.store.NitriteMap;
 
-import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.dizitart.no2.exceptions.ErrorCodes.FE_REGEX_NO_STRING_VALUE;
 import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
 
 /**
  * @author Anindya Chatterjee.
  */
-@ToString
+@ToString(exclude = "pattern")
 class RegexFilter extends StringFilter {
+    private Pattern pattern;
+
     RegexFilter(String field, String value) {
         super(field, value);
     }
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
-        Set<NitriteId> nitriteIdSet = new LinkedHashSet<>();
-        Pattern pattern = Pattern.compile(value);
-
-        for (Map.Entry<NitriteId, Document> entry: documentMap.entrySet()) {
-            Document document = entry.getValue();
-            Object fieldValue = getFieldValue(document, field);
-            if (fieldValue != null) {
-                if (fieldValue instanceof String) {
-                    Matcher matcher = pattern.matcher((String) fieldValue);
-                    if (matcher.find()) {
-                        nitriteIdSet.add(entry.getKey());
-                    }
-                    matcher.reset();
-                } else {
-                    throw new FilterException(errorMessage(
-                            field + " does not contain string value.",
-                            FE_REGEX_NO_STRING_VALUE));
-                }
+        return matchedSet(documentMap);
+    }
+
+    @Override
+    boolean isMatchable() {
+        return true;
+    }
+
+    @Override
+    boolean matches(Document document) {
+        if (pattern == null) {
+            pattern = Pattern.compile(value);
+        }
+
+        Object fieldValue = getFieldValue(document, field);
+        if (fieldValue != null) {
+            if (fieldValue instanceof String) {
+                Matcher matcher = pattern.matcher((String) fieldValue);
+                return matcher.find();
+            } else {
+                throw new FilterException(errorMessage(
+                        field + " does not contain string value.",
+                        FE_REGEX_NO_STRING_VALUE));
             }
         }
-        return nitriteIdSet;
+        return false;
     }
 }
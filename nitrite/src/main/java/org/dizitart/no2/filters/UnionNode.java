@@ -0,0 +1,102 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A plan step of an or filter, merging the ids of all its children.
+ * The children are executed concurrently if parallel query is enabled.
+ *
+ * @author Anindya Chatterjee.
+ */
+class UnionNode extends PlanNode {
+    private final List<PlanNode> children;
+    private final ExecutorService executorService;
+
+    UnionNode(List<PlanNode> children, ExecutorService executorService) {
+        this.children = children;
+        this.executorService = executorService;
+    }
+
+    @Override
+    long getEstimatedCount() {
+        long count = 0;
+        for (PlanNode child : children) {
+            count += child.getEstimatedCount();
+        }
+        return count;
+    }
+
+    @Override
+    boolean isIndexed() {
+        for (PlanNode child : children) {
+            if (!child.isIndexed()) return false;
+        }
+        return true;
+    }
+
+    @Override
+    Set<NitriteId> execute(NitriteMap<NitriteId, Document> documentMap) {
+        List<Set<NitriteId>> childResults = executeAll(children, documentMap, executorService);
+        Set<NitriteId> result = allSorted(childResults)
+                ? new NitriteIdSet() : new LinkedHashSet<NitriteId>();
+        for (Set<NitriteId> childResult : childResults) {
+            result.addAll(childResult);
+        }
+        return result;
+    }
+
+    @Override
+    Iterator<NitriteId> iterator(final NitriteMap<NitriteId, Document> documentMap) {
+        if (executorService != null) {
+            return execute(documentMap).iterator();
+        }
+
+        final Iterator<PlanNode> childIterator = children.iterator();
+        final Set<NitriteId> returned = new HashSet<>();
+        return new LazyIdIterator() {
+            private Iterator<NitriteId> current;
+
+            @Override
+            NitriteId nextMatch() {
+                while (true) {
+                    while (current != null && current.hasNext()) {
+                        NitriteId nitriteId = current.next();
+                        if (returned.add(nitriteId)) {
+                            return nitriteId;
+                        }
+                    }
+                    if (!childIterator.hasNext()) {
+                        return null;
+                    }
+                    current = childIterator.next().iterator(documentMap);
+                }
+            }
+        };
+    }
+
+    // sorted id sets are merged, any other result keeps the order of the children
+    private static boolean allSorted(List<Set<NitriteId>> childResults) {
+        for (Set<NitriteId> childResult : childResults) {
+            if (!(childResult instanceof NitriteIdSet)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    void explain(StringBuilder builder, String indent) {
+        boolean parallel = executorService != null && children.size() > 1;
+        explainLine(builder, indent, parallel ? "PARALLEL UNION" : "UNION");
+        for (PlanNode child : children) {
+            child.explain(builder, indent + "  ");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.dizitart.no2.filters;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.dizitart.no2.Filter;
+
+/**
+ * The bounds a filter puts on the values of a field. The value of the
+ * field in every matching document lies within them, so an index on the
+ * field only needs to be read between them. A `null` bound leaves that
+ * side of the range open.
+ *
+ * @author Anindya Chatterjee.
+ * @since 1.0
+ */
+@Getter
+@ToString
+public class ValueRange {
+    private Comparable from;
+    private boolean fromInclusive;
+    private Comparable to;
+    private boolean toInclusive;
+
+    private ValueRange(Comparable from, boolean fromInclusive,
+                       Comparable to, boolean toInclusive) {
+        this.from = from;
+        this.fromInclusive = fromInclusive;
+        this.to = to;
+        this.toInclusive = toInclusive;
+    }
+
+    /**
+     * Finds the bounds of a field in a filter, from its equality and range
+     * filters and those of an and filter.
+     *
+     * @return the range or `null` if the filter does not bound the field.
+     */
+    static ValueRange of(Filter filter, String field) {
+        if (filter instanceof EqualsFilter) {
+            EqualsFilter equalsFilter = (EqualsFilter) filter;
+            if (field.equals(equalsFilter.getField())
+                    && equalsFilter.getValue() instanceof Comparable) {
+                Comparable value = (Comparable) equalsFilter.getValue();
+                return new ValueRange(value, true, value, true);
+            }
+        } else if (filter instanceof ComparisonFilter) {
+            ComparisonFilter comparisonFilter = (ComparisonFilter) filter;
+            if (field.equals(comparisonFilter.getField())) {
+                Comparable value = comparisonFilter.getComparable();
+                if (filter instanceof GreaterThanFilter || filter instanceof GreaterEqualFilter) {
+                    return new ValueRange(value, filter instanceof GreaterEqualFilter, null, false);
+                }
+                if (filter instanceof LesserThanFilter || filter instanceof LesserEqualFilter) {
+                    return new ValueRange(null, false, value, filter instanceof LesserEqualFilter);
+                }
+            }
+        } else if (filter instanceof BetweenFilter) {
+            BetweenFilter betweenFilter = (BetweenFilter) filter;
+            if (field.equals(betweenFilter.getField())) {
+                return new ValueRange(betweenFilter.getLowerBound(), betweenFilter.isLowerInclusive(),
+                        betweenFilter.getUpperBound(), betweenFilter.isUpperInclusive());
+            }
+        } else if (filter instanceof AndFilter) {
+            return of(((AndFilter) filter).getFilters(), field);
+        }
+        return null;
+    }
+
+    // every filter of an and filter bounds the field, any of them will do
+    private static ValueRange of(Filter[] filters, String field) {
+        ValueRange result = null;
+        for (Filter filter : filters) {
+            ValueRange range = of(filter, field);
+            if (range == null) continue;
+
+            if (result == null) {
+                result = range;
+                continue;
+            }
+            if (result.from == null && range.from != null && comparable(range.from, result.to)) {
+                result.from = range.from;
+                result.fromInclusive = range.fromInclusive;
+            }
+            if (result.to == null && range.to != null && comparable(result.from, range.to)) {
+                result.to = range.to;
+                result.toInclusive = range.toInclusive;
+            }
+        }
+        return result;
+    }
+
+    private static boolean comparable(Comparable first, Comparable second) {
+        return first == null || second == null
+                || first.getClass() == second.getClass()
+                || (first instanceof Number && second instanceof Number);
+    }
+}
@@ -8,7 +8,9 @@ import org.dizitart.no2.store.NitriteMap;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.dizitart.no2.Constants.*;
 import static org.dizitart.no2.exceptions.ErrorCodes.UCE_CONSTRAINT_VIOLATED;
@@ -131,13 +133,19 @@ class DataService {
             log.debug("Filter " + filter + " found total " + cursor.size()
                     + " document(s) to update with options " + updateOptions + " in " + name);
 
+            // only the indexes on the fields set by the update are touched
+            Set<String> changedFields = new HashSet<>(update.keySet());
+            changedFields.add(DOC_REVISION);
+            changedFields.add(DOC_MODIFIED);
+            List<Index> indexes = indexingService.findAffectedIndexes(changedFields);
+
             List<ChangedItem> changedItems = new ArrayList<>();
             for(final Document document : cursor) {
                 if (document != null) {
                     NitriteId nitriteId = document.getId();
 
                     synchronized (document) {
-                        indexingService.removeIndexEntry(document, nitriteId);
+                        Object[] oldValues = indexingService.indexValues(document, indexes);
 
                         log.debug("Document to update " + document + " in " + name);
 
@@ -160,7 +168,7 @@ class DataService {
                             writeResult.addToList(nitriteId);
                         }
 
-                        indexingService.updateIndexEntry(document, nitriteId);
+                        indexingService.updateIndexEntries(document, nitriteId, indexes, oldValues);
                     }
 
                     ChangedItem changedItem = new ChangedItem();
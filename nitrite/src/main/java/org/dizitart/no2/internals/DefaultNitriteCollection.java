@@ -51,10 +51,10 @@ class DefaultNitriteCollection implements NitriteCollection {
         try {
             // by default async is false while creating index
             if (indexOptions == null) {
-                nitriteService.createIndex(field, IndexType.Unique, false);
+                nitriteService.createIndex(field, null, IndexType.Unique, false);
             } else {
-                nitriteService.createIndex(field, indexOptions.getIndexType(),
-                        indexOptions.isAsync());
+                nitriteService.createIndex(field, indexOptions.getFields(),
+                        indexOptions.getIndexType(), indexOptions.isAsync());
             }
         } catch (VirtualMachineError vme) {
             handleVirtualMachineError(vme);
@@ -188,6 +188,17 @@ class DefaultNitriteCollection implements NitriteCollection {
         return null;
     }
 
+    @Override
+    public long count(Filter filter) {
+        checkOpened();
+        try {
+            return nitriteService.count(filter);
+        } catch (VirtualMachineError vme) {
+            handleVirtualMachineError(vme);
+        }
+        return 0;
+    }
+
     @Override
     public Cursor find() {
         checkOpened();
@@ -1,6 +1,7 @@
 package org.dizitart.no2.internals;
 
 import org.dizitart.no2.*;
+import org.dizitart.no2.filters.QueryPlan;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.util.Iterables;
 
@@ -15,8 +16,6 @@ import java.util.TreeSet;
 class DocumentCursor implements Cursor {
     private final Set<NitriteId> resultSet;
     private final NitriteMap<NitriteId, Document> underlyingMap;
-    private boolean hasMore;
-    private int totalCount;
     private Iterator<Document> documentIterator;
     private FindResult findResult;
 
@@ -27,8 +26,6 @@ class DocumentCursor implements Cursor {
             resultSet = new TreeSet<>();
         }
         this.underlyingMap = findResult.getUnderlyingMap();
-        this.hasMore = findResult.isHasMore();
-        this.totalCount = findResult.getTotalCount();
         this.documentIterator = new DocumentCursorIterator(this);
         this.findResult = findResult;
     }
@@ -38,6 +35,11 @@ class DocumentCursor implements Cursor {
         return new ProjectedDocumentIterable(projection, findResult);
     }
 
+    @Override
+    public QueryPlan explain() {
+        return findResult.getQueryPlan();
+    }
+
     @Override
     public Iterator<Document> iterator() {
         return documentIterator;
@@ -45,7 +47,7 @@ class DocumentCursor implements Cursor {
 
     @Override
     public boolean hasMore() {
-        return hasMore;
+        return findResult.isHasMore();
     }
 
     @Override
@@ -55,7 +57,7 @@ class DocumentCursor implements Cursor {
 
     @Override
     public int totalCount() {
-        return totalCount;
+        return findResult.getTotalCount();
     }
 
     @Override
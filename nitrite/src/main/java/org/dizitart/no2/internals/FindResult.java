@@ -1,10 +1,15 @@
 package org.dizitart.no2.internals;
 
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import org.dizitart.no2.Document;
 import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.filters.QueryPlan;
 import org.dizitart.no2.store.NitriteMap;
 
+import java.util.Iterator;
 import java.util.Set;
 
 /**
@@ -16,4 +21,41 @@ class FindResult {
     private int totalCount;
     private Set<NitriteId> idSet;
     private NitriteMap<NitriteId, Document> underlyingMap;
+    private NitriteService nitriteService;
+    private QueryPlan queryPlan;
+
+    // matching ids after the current page, counted only when asked
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+    private Iterator<NitriteId> remaining;
+
+    /**
+     * Sets the matching ids not read yet, so that {@link #isHasMore()}
+     * and {@link #getTotalCount()} are computed on demand.
+     *
+     * @param remaining the iterator of the remaining ids
+     * @param consumed  the number of ids already read
+     */
+    void setRemaining(Iterator<NitriteId> remaining, int consumed) {
+        this.remaining = remaining;
+        this.totalCount = consumed;
+    }
+
+    boolean isHasMore() {
+        if (remaining != null) {
+            return remaining.hasNext();
+        }
+        return hasMore;
+    }
+
+    int getTotalCount() {
+        if (remaining != null) {
+            hasMore = remaining.hasNext();
+            while (remaining.hasNext()) {
+                remaining.next();
+                totalCount++;
+            }
+            remaining = null;
+        }
+        return totalCount;
+    }
 }
@@ -0,0 +1,443 @@
+package org.dizitart.no2.internals;
+
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.store.NitriteMap;
+
+import static org.dizitart.no2.exceptions.ErrorMessage.REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED;
+import static org.dizitart.no2.util.NumberUtils.compare;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A posting-list view of an index {@link NitriteMap}.
+ *
+ * Every indexed (value, id) pair is stored as its own composite key
+ * `[value, id]`, so adding or removing a single {@link NitriteId}
+ * is a single B-tree operation on a few bytes, irrespective of how
+ * many documents share the same value.
+ *
+ * A compound index stores the values of all its fields in index order,
+ * i.e. `[value1, value2, ..., id]`, so all entries sharing a prefix
+ * of values are adjacent and sorted by the value of the next field.
+ *
+ * @author Anindya Chatterjee.
+ */
+class IndexMap {
+    private static final Boolean PRESENT = Boolean.TRUE;
+    private static final Object[] NO_PREFIX = new Object[0];
+    private final NitriteMap<Object[], Boolean> postings;
+
+    IndexMap(NitriteMap<Object[], Boolean> postings) {
+        this.postings = postings;
+    }
+
+    NitriteMap<Object[], Boolean> getUnderlyingMap() {
+        return postings;
+    }
+
+    void add(Comparable value, NitriteId nitriteId) {
+        postings.put(entryKey(value, nitriteId), PRESENT);
+    }
+
+    void remove(Comparable value, NitriteId nitriteId) {
+        postings.remove(entryKey(value, nitriteId));
+    }
+
+    void add(Object[] values, NitriteId nitriteId) {
+        postings.put(entryKey(values, nitriteId), PRESENT);
+    }
+
+    void remove(Object[] values, NitriteId nitriteId) {
+        postings.remove(entryKey(values, nitriteId));
+    }
+
+    boolean containsValues(Object[] values) {
+        Object[] key = postings.ceilingKey(values);
+        return key != null && hasPrefix(key, values);
+    }
+
+    boolean containsValue(Comparable value) {
+        Object[] key = postings.ceilingKey(lowerBound(value));
+        return key != null && sameValue(key[0], value);
+    }
+
+    void clear() {
+        postings.clear();
+    }
+
+    Set<NitriteId> get(Comparable value) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Iterator<Object[]> keys = keys(lowerBound(value), true, upperBound(value), true, false);
+        while (keys.hasNext()) {
+            Object[] key = keys.next();
+            if (!sameValue(key[0], value)) break;
+            resultSet.add(idOf(key));
+        }
+        return resultSet;
+    }
+
+    Set<NitriteId> greaterThan(Comparable value, boolean inclusive) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Iterator<Object[]> keys = inclusive
+                ? keys(lowerBound(value), true, null, false, false)
+                : keys(upperBound(value), false, null, false, false);
+        while (keys.hasNext()) {
+            resultSet.add(idOf(keys.next()));
+        }
+        return resultSet;
+    }
+
+    Set<NitriteId> lesserThan(Comparable value, boolean inclusive) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Iterator<Object[]> keys = inclusive
+                ? keys(null, false, upperBound(value), true, false)
+                : keys(null, false, lowerBound(value), false, false);
+        while (keys.hasNext()) {
+            resultSet.add(idOf(keys.next()));
+        }
+        return resultSet;
+    }
+
+    /**
+     * Finds the ids of a compound index whose leading values are equal to
+     * `prefix` and the value of the next field falls within `from` and `to`.
+     * A `null` bound leaves that side of the range open; both bounds must
+     * be comparable to each other.
+     */
+    Set<NitriteId> findRange(Object[] prefix, Comparable from, boolean fromInclusive,
+                             Comparable to, boolean toInclusive) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Iterator<Object[]> keys = rangeKeys(prefix, from, fromInclusive, to, toInclusive);
+        while (keys.hasNext()) {
+            resultSet.add(idOf(keys.next()));
+        }
+        return resultSet;
+    }
+
+    /**
+     * Counts the entries {@link #findRange} would return, without reading
+     * them. It only needs a few B-tree rank lookups per bound, so it is
+     * cheap enough to be used for query planning.
+     */
+    @SuppressWarnings("unchecked")
+    long countRange(Object[] prefix, Comparable from, boolean fromInclusive,
+                    Comparable to, boolean toInclusive) {
+        if (from != null && to != null) {
+            int bounds = from instanceof Number && to instanceof Number
+                    ? compare((Number) from, (Number) to) : from.compareTo(to);
+            if (bounds > 0 || (bounds == 0 && !(fromInclusive && toInclusive))) {
+                return 0;
+            }
+        }
+
+        long start;
+        if (from == null) {
+            start = position(prefix);
+        } else {
+            Object[] fromPrefix = append(prefix, from);
+            start = position(fromPrefix);
+            if (!fromInclusive) {
+                start = prefixEnd(fromPrefix, start);
+            }
+        }
+
+        long end;
+        if (to == null) {
+            end = prefixEnd(prefix, start);
+        } else {
+            Object[] toPrefix = append(prefix, to);
+            end = position(toPrefix);
+            if (toInclusive) {
+                end = prefixEnd(toPrefix, end);
+            }
+        }
+        return Math.max(0, end - start);
+    }
+
+    /**
+     * Iterates the ids in the order of their indexed values, so that
+     * a sorted find can stop as soon as its page is full.
+     */
+    Iterator<NitriteId> ids(boolean descending) {
+        final Iterator<Object[]> keys = keys(null, false, null, false, descending);
+        return new Iterator<NitriteId>() {
+            @Override
+            public boolean hasNext() {
+                return keys.hasNext();
+            }
+
+            @Override
+            public NitriteId next() {
+                return idOf(keys.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+            }
+        };
+    }
+
+    /**
+     * Checks if the key order of the index is the numeric order of its
+     * values. Numbers are ordered by their type before their value, e.g.
+     * every integer before every long, so it is only the case if all the
+     * numbers of the index are of the same type. The numbers are adjacent
+     * and sort after `null` and booleans and before any character, so
+     * the first and the last of them tell.
+     */
+    boolean isNumericOrder() {
+        Object[] first = postings.ceilingKey(lowerBound(Byte.MIN_VALUE));
+        if (first == null || !(first[0] instanceof Number)) return true;
+
+        Object[] last = postings.lowerKey(lowerBound(Character.MIN_VALUE));
+        return last[0].getClass() == first[0].getClass();
+    }
+
+    /**
+     * Reads the index entry of each of the `nitriteIds` having one, i.e.
+     * `[value, id]` or `[value1, ..., valueN, id]` for a compound index.
+     * Only the entries whose first value falls within `from` and `to` are
+     * scanned, in key order, and the scan stops once all ids are found.
+     */
+    Map<NitriteId, Object[]> entriesOf(Set<NitriteId> nitriteIds, Comparable from,
+                                       boolean fromInclusive, Comparable to,
+                                       boolean toInclusive) {
+        Map<NitriteId, Object[]> entries = new HashMap<>();
+        if (nitriteIds.isEmpty()) return entries;
+
+        Iterator<Object[]> keys = rangeKeys(NO_PREFIX, from, fromInclusive, to, toInclusive);
+        while (keys.hasNext()) {
+            Object[] key = keys.next();
+            NitriteId nitriteId = idOf(key);
+            if (nitriteIds.contains(nitriteId)) {
+                entries.put(nitriteId, key);
+                if (entries.size() == nitriteIds.size()) break;
+            }
+        }
+        return entries;
+    }
+
+    long size() {
+        return postings.sizeAsLong();
+    }
+
+    /**
+     * Finds the ids of all `values` with one point lookup per distinct
+     * value, instead of matching every key of the index against them.
+     */
+    Set<NitriteId> in(List<Object> values) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Set<Object> distinct = new HashSet<>();
+        for (Object value : values) {
+            if (value instanceof Comparable && distinct.add(value)) {
+                resultSet.addAll(get((Comparable) value));
+            }
+        }
+        return resultSet;
+    }
+
+    Set<NitriteId> startsWith(String prefix) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Iterator<Object[]> keys = keys(lowerBound(prefix), true, null, false, false);
+        while (keys.hasNext()) {
+            Object[] key = keys.next();
+            if (!(key[0] instanceof String && ((String) key[0]).startsWith(prefix))) break;
+            resultSet.add(idOf(key));
+        }
+        return resultSet;
+    }
+
+    Set<NitriteId> endsWith(String suffix) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        for (Object[] key : postings.keySet()) {
+            if (key[0] instanceof String && ((String) key[0]).endsWith(suffix)) {
+                resultSet.add(idOf(key));
+            }
+        }
+        return resultSet;
+    }
+
+    Set<NitriteId> contains(String term) {
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        for (Object[] key : postings.keySet()) {
+            if (key[0] instanceof String && ((String) key[0]).contains(term)) {
+                resultSet.add(idOf(key));
+            }
+        }
+        return resultSet;
+    }
+
+    private static Object[] entryKey(Comparable value, NitriteId nitriteId) {
+        return new Object[] { value, nitriteId.getIdValue() };
+    }
+
+    private static Object[] entryKey(Object[] values, NitriteId nitriteId) {
+        return append(values, nitriteId.getIdValue());
+    }
+
+    private static Object[] append(Object[] values, Object value) {
+        Object[] key = Arrays.copyOf(values, values.length + 1);
+        key[values.length] = value;
+        return key;
+    }
+
+    // the keys of a range, read in a single scan of the index
+    private Iterator<Object[]> keys(Object[] from, boolean fromInclusive,
+                                    Object[] to, boolean toInclusive, boolean descending) {
+        final Iterator<Map.Entry<Object[], Boolean>> entries
+                = postings.entryIterator(from, fromInclusive, to, toInclusive, descending);
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return entries.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+                throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+            }
+        };
+    }
+
+    // the keys having the prefix and the value of the next field within
+    // `from` and `to`, read in a single scan of the index
+    @SuppressWarnings("unchecked")
+    private Iterator<Object[]> rangeKeys(final Object[] prefix, Comparable from,
+                                         boolean fromInclusive, Comparable to,
+                                         boolean toInclusive) {
+        if (from != null && to != null) {
+            int bounds = from instanceof Number && to instanceof Number
+                    ? compare((Number) from, (Number) to) : from.compareTo(to);
+            if (bounds > 0 || (bounds == 0 && !(fromInclusive && toInclusive))) {
+                return Collections.emptyIterator();
+            }
+        }
+
+        Object[] key = postings.ceilingKey(from == null ? prefix : append(prefix, from));
+        if (from != null && !fromInclusive) {
+            key = skipValue(key, prefix, from);
+        }
+        if (key == null) return Collections.emptyIterator();
+
+        // first entry beyond the range, if any
+        Object[] stopKey = null;
+        if (to != null) {
+            stopKey = postings.ceilingKey(append(prefix, to));
+            if (toInclusive) {
+                stopKey = skipValue(stopKey, prefix, to);
+            }
+        }
+
+        final Iterator<Object[]> keys = keys(key, true, stopKey, false, false);
+        return new Iterator<Object[]>() {
+            private Object[] next = nextKey();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Object[] next() {
+                if (next == null) throw new NoSuchElementException();
+                Object[] current = next;
+                next = nextKey();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+            }
+
+            private Object[] nextKey() {
+                if (!keys.hasNext()) return null;
+                Object[] candidate = keys.next();
+                return hasPrefix(candidate, prefix) ? candidate : null;
+            }
+        };
+    }
+
+    // moves past all entries having `value` right after the prefix
+    private Object[] skipValue(Object[] key, Object[] prefix, Comparable value) {
+        if (key == null) return null;
+
+        Iterator<Object[]> keys = keys(key, true, null, false, false);
+        while (keys.hasNext()) {
+            Object[] next = keys.next();
+            if (!hasPrefix(next, prefix) || !sameValue(next[prefix.length], value)) {
+                return next;
+            }
+        }
+        return null;
+    }
+
+    // number of entries sorting before the key
+    private long position(Object[] key) {
+        long index = postings.getKeyIndex(key);
+        return index < 0 ? -(index + 1) : index;
+    }
+
+    // position of the first entry at or after start not having the prefix,
+    // entries of a prefix are adjacent so a binary search finds it
+    private long prefixEnd(Object[] prefix, long start) {
+        long low = start;
+        long high = postings.sizeAsLong();
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (hasPrefix(postings.getKey(middle), prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static boolean hasPrefix(Object[] key, Object[] prefix) {
+        if (key.length <= prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (!sameValue(key[i], (Comparable) prefix[i])) return false;
+        }
+        return true;
+    }
+
+    // sorts before every entry of the value
+    private static Object[] lowerBound(Comparable value) {
+        return new Object[] { value };
+    }
+
+    // sorts after every entry of the value
+    private static Object[] upperBound(Comparable value) {
+        return new Object[] { value, Long.MAX_VALUE };
+    }
+
+    private static NitriteId idOf(Object[] key) {
+        return NitriteId.createId((Long) key[key.length - 1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean sameValue(Object stored, Comparable value) {
+        if (stored == null) return false;
+        if (stored.getClass() == value.getClass()) {
+            return value.compareTo(stored) == 0;
+        }
+        return stored.equals(value);
+    }
+}
@@ -2,10 +2,8 @@ package org.dizitart.no2.internals;
 
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.dizitart.no2.Document;
-import org.dizitart.no2.Index;
-import org.dizitart.no2.IndexType;
-import org.dizitart.no2.NitriteId;
+import lombok.extern.slf4j.Slf4j;
+import org.dizitart.no2.*;
 import org.dizitart.no2.exceptions.IndexingException;
 import org.dizitart.no2.store.NitriteMap;
 import org.dizitart.no2.store.NitriteStore;
@@ -25,18 +23,32 @@ import static org.dizitart.no2.util.IndexUtils.internalName;
 /**
  * @author Anindya Chatterjee.
  */
+@Slf4j
 class IndexMetaService {
+    // index maps holding a whole ConcurrentSkipListSet of ids per value
+    private static final int LEGACY_STORAGE = 0;
+    // index maps holding one composite [value, id] key per entry
+    private static final int POSTING_LIST_STORAGE = 1;
+    private static final String POSTINGS_SUFFIX = "postings";
+
     private final NitriteMap<NitriteId, Document> underlyingMap;
     private final NitriteMap<String, IndexMeta> indexMetadata;
     private final Map<String, Object> fieldLock;
+    // resolved index maps by field, so that the hot paths do not reopen them
+    private final Map<String, IndexMap> indexMaps;
     private final NitriteStore mvStore;
 
-    IndexMetaService(NitriteMap<NitriteId, Document> underlyingMap) {
+    IndexMetaService(NitriteMap<NitriteId, Document> underlyingMap, NitriteContext nitriteContext) {
         this.underlyingMap = underlyingMap;
         this.mvStore = underlyingMap.getStore();
         String indexMetaName = getName();
         indexMetadata = mvStore.openMap(indexMetaName);
         this.fieldLock = new ConcurrentHashMap<>();
+        this.indexMaps = new ConcurrentHashMap<>();
+
+        if (!nitriteContext.isReadOnly()) {
+            migrateLegacyIndexes();
+        }
     }
 
     NitriteMap<NitriteId, Document> getUnderlyingMap() {
@@ -60,26 +72,35 @@ class IndexMetaService {
         return null;
     }
 
-    NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> getIndexMap(String field) {
-        IndexMeta meta = indexMetadata.get(field);
-        if (meta != null && meta.index != null) {
-            return mvStore.openMap(meta.indexMap);
+    IndexMap getIndexMap(String field) {
+        IndexMap indexMap = indexMaps.get(field);
+        if (indexMap != null) return indexMap;
+
+        synchronized (indexMaps) {
+            indexMap = indexMaps.get(field);
+            if (indexMap == null) {
+                IndexMeta meta = indexMetadata.get(field);
+                if (meta != null && meta.index != null) {
+                    NitriteMap<Object[], Boolean> postings = mvStore.openMap(meta.indexMap);
+                    indexMap = new IndexMap(postings);
+                    indexMaps.put(field, indexMap);
+                }
+            }
+            return indexMap;
         }
-        return null;
     }
 
-    void markDirty(String field) {
+    boolean isLegacyIndex(String field) {
         IndexMeta meta = indexMetadata.get(field);
-        if (meta != null && meta.index != null) {
-            meta.isDirty.set(true);
-        }
+        return meta != null && meta.storageVersion == LEGACY_STORAGE;
+    }
+
+    void markDirty(String field) {
+        setDirty(field, true);
     }
 
     void unmarkDirty(String field) {
-        IndexMeta meta = indexMetadata.get(field);
-        if (meta != null && meta.index != null) {
-            meta.isDirty.set(false);
-        }
+        setDirty(field, false);
     }
 
     synchronized boolean isDirtyIndex(String field) {
@@ -95,16 +116,29 @@ class IndexMetaService {
         return Collections.unmodifiableSet(indexSet);
     }
 
+    Collection<Index> listCompoundIndexes() {
+        List<Index> indexList = new ArrayList<>();
+        for (IndexMeta indexMeta : indexMetadata.values()) {
+            if (indexMeta.index.isCompound()) {
+                indexList.add(indexMeta.index);
+            }
+        }
+        return indexList;
+    }
+
     void dropIndex(String field) {
-        IndexMeta meta = indexMetadata.get(field);
-        if (meta != null && meta.index != null) {
-            String indexMapName = meta.indexMap;
-            mvStore.removeMap(mvStore.openMap(indexMapName));
-        } else {
-            throw new IndexingException(errorMessage(
-                    field + " is not indexed", IE_DROP_NON_EXISTING_INDEX));
+        synchronized (indexMaps) {
+            IndexMeta meta = indexMetadata.get(field);
+            if (meta != null && meta.index != null) {
+                String indexMapName = meta.indexMap;
+                indexMaps.remove(field);
+                mvStore.removeMap(mvStore.openMap(indexMapName));
+            } else {
+                throw new IndexingException(errorMessage(
+                        field + " is not indexed", IE_DROP_NON_EXISTING_INDEX));
+            }
+            indexMetadata.remove(field);
         }
-        indexMetadata.remove(field);
     }
 
     void dropAll() {
@@ -114,15 +148,21 @@ class IndexMetaService {
         mvStore.removeMap(indexMetadata);
     }
 
-    Index createIndexMetadata(String field, IndexType indexType) {
-        Index index = new Index(indexType, field, underlyingMap.getName());
+    Index createIndexMetadata(String field, List<String> fields, IndexType indexType) {
+        Index index = fields == null
+                ? new Index(indexType, field, underlyingMap.getName())
+                : new Index(indexType, field, fields, underlyingMap.getName());
 
         IndexMeta indexMeta = new IndexMeta();
         indexMeta.index = index;
         indexMeta.isDirty = new AtomicBoolean(false);
-        indexMeta.indexMap = internalName(index);
+        indexMeta.indexMap = postingMapName(index);
+        indexMeta.storageVersion = POSTING_LIST_STORAGE;
 
-        indexMetadata.put(field, indexMeta);
+        synchronized (indexMaps) {
+            indexMaps.remove(field);
+            indexMetadata.put(field, indexMeta);
+        }
 
         return index;
     }
@@ -136,15 +176,66 @@ class IndexMetaService {
         return lock;
     }
 
+    private synchronized void setDirty(String field, boolean dirty) {
+        IndexMeta meta = indexMetadata.get(field);
+        if (meta != null && meta.index != null) {
+            meta.isDirty.set(dirty);
+            // a store might return a copy of the metadata
+            indexMetadata.put(field, meta);
+        }
+    }
+
     private String getName() {
         return INDEX_META_PREFIX + INTERNAL_NAME_SEPARATOR + underlyingMap.getName();
     }
 
+    private String postingMapName(Index index) {
+        return internalName(index) + INTERNAL_NAME_SEPARATOR + POSTINGS_SUFFIX;
+    }
+
+    private void migrateLegacyIndexes() {
+        for (String field : indexMetadata.keySet()) {
+            IndexMeta meta = indexMetadata.get(field);
+            if (meta != null && meta.index != null
+                    && meta.storageVersion == LEGACY_STORAGE) {
+                migrate(field, meta);
+            }
+        }
+    }
+
+    private void migrate(String field, IndexMeta meta) {
+        log.info("Migrating index on " + field + " of " + underlyingMap.getName()
+                + " to posting list storage");
+
+        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> legacyMap
+                = mvStore.openMap(meta.indexMap);
+        NitriteMap<Object[], Boolean> postings = mvStore.openMap(postingMapName(meta.index));
+        IndexMap indexMap = new IndexMap(postings);
+
+        // a previous migration might have been interrupted half way
+        indexMap.clear();
+        for (Map.Entry<Comparable, ConcurrentSkipListSet<NitriteId>> entry : legacyMap.entrySet()) {
+            for (NitriteId nitriteId : entry.getValue()) {
+                indexMap.add(entry.getKey(), nitriteId);
+            }
+        }
+
+        meta.indexMap = postings.getName();
+        meta.storageVersion = POSTING_LIST_STORAGE;
+        indexMetadata.put(field, meta);
+        indexMaps.remove(field);
+        mvStore.removeMap(legacyMap);
+    }
+
     @EqualsAndHashCode
     @ToString
     private static class IndexMeta implements Serializable {
+        // keeps metadata written before storageVersion was introduced readable
+        private static final long serialVersionUID = 1408827874803168220L;
+
         private Index index;
         private String indexMap;
         private AtomicBoolean isDirty;
+        private int storageVersion;
     }
 }
\ No newline at end of file
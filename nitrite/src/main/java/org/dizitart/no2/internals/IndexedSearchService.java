@@ -1,21 +1,27 @@
 package org.dizitart.no2.internals;
 
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Index;
+import org.dizitart.no2.IndexType;
 import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.exceptions.FilterException;
+import org.dizitart.no2.filters.QueryPlan;
+import org.dizitart.no2.filters.ValueRange;
 import org.dizitart.no2.fulltext.TextIndexingService;
-import org.dizitart.no2.store.NitriteMap;
 
-import java.util.LinkedHashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.*;
 
+import static org.dizitart.no2.Constants.DOC_ID;
 import static org.dizitart.no2.exceptions.ErrorMessage.CAN_NOT_SEARCH_NON_COMPARABLE_ON_INDEXED_FIELD;
 
 /**
  * @author Anindya Chatterjee.
  */
 class IndexedSearchService {
+    // index entries scanned per result beyond which documents are read instead
+    private static final int COVERED_SCAN_FACTOR = 16;
+    private static final Object[] NO_PREFIX = new Object[0];
+
     private IndexMetaService indexMetaService;
     private TextIndexingService textIndexingService;
 
@@ -29,96 +35,173 @@ class IndexedSearchService {
             throw new FilterException(CAN_NOT_SEARCH_NON_COMPARABLE_ON_INDEXED_FIELD);
         }
 
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-
-        Set<NitriteId> resultSet = null;
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         if (indexMap != null) {
-            resultSet = indexMap.get((Comparable) value);
+            return indexMap.get((Comparable) value);
         }
-
-        if (resultSet == null) resultSet = new LinkedHashSet<>();
-        return resultSet;
+        return new LinkedHashSet<>();
     }
 
     Set<NitriteId> findGreaterThan(String field, Comparable comparable) {
-        Set<NitriteId> resultSet = new LinkedHashSet<>();
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         if (indexMap != null) {
-            Comparable higherKey = indexMap.higherKey(comparable);
-            while (higherKey != null) {
-                resultSet.addAll(indexMap.get(higherKey));
-                higherKey = indexMap.higherKey(higherKey);
-            }
+            return indexMap.greaterThan(comparable, false);
         }
-
-        return resultSet;
+        return new LinkedHashSet<>();
     }
 
     Set<NitriteId> findGreaterEqual(String field, Comparable comparable) {
-        Set<NitriteId> resultSet = new LinkedHashSet<>();
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         if (indexMap != null) {
-            Comparable ceilingKey = indexMap.ceilingKey(comparable);
-            while (ceilingKey != null) {
-                resultSet.addAll(indexMap.get(ceilingKey));
-                ceilingKey = indexMap.higherKey(ceilingKey);
-            }
+            return indexMap.greaterThan(comparable, true);
         }
-
-        return resultSet;
+        return new LinkedHashSet<>();
     }
 
     Set<NitriteId> findLesserThan(String field, Comparable comparable) {
-        Set<NitriteId> resultSet = new LinkedHashSet<>();
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         if (indexMap != null) {
-            Comparable lowerKey = indexMap.lowerKey(comparable);
-            while (lowerKey != null) {
-                resultSet.addAll(indexMap.get(lowerKey));
-                lowerKey = indexMap.lowerKey(lowerKey);
-            }
+            return indexMap.lesserThan(comparable, false);
         }
-
-        return resultSet;
+        return new LinkedHashSet<>();
     }
 
     Set<NitriteId> findLesserEqual(String field, Comparable comparable) {
-        Set<NitriteId> resultSet = new LinkedHashSet<>();
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         if (indexMap != null) {
-            Comparable floorKey = indexMap.floorKey(comparable);
-            while (floorKey != null) {
-                resultSet.addAll(indexMap.get(floorKey));
-                floorKey = indexMap.lowerKey(floorKey);
-            }
+            return indexMap.lesserThan(comparable, true);
         }
-
-        return resultSet;
+        return new LinkedHashSet<>();
     }
 
     Set<NitriteId> findIn(String field, List<Object> values) {
-        Set<NitriteId> resultSet = new LinkedHashSet<>();
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
+        if (indexMap != null) {
+            return indexMap.in(values);
+        }
+        return new LinkedHashSet<>();
+    }
 
+    Set<NitriteId> findRange(String field, Object[] prefix,
+                             Comparable from, boolean fromInclusive,
+                             Comparable to, boolean toInclusive) {
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         if (indexMap != null) {
-            for (Comparable comparable : indexMap.keySet()) {
-                if (values.contains(comparable)) {
-                    resultSet.addAll(indexMap.get(comparable));
+            return indexMap.findRange(prefix, from, fromInclusive, to, toInclusive);
+        }
+        return new LinkedHashSet<>();
+    }
+
+    long countRange(String field, Object[] prefix,
+                    Comparable from, boolean fromInclusive,
+                    Comparable to, boolean toInclusive) {
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
+        if (indexMap != null) {
+            return indexMap.countRange(prefix, from, fromInclusive, to, toInclusive);
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the ids in the order of an index on the field, or `null` if the
+     * field does not have an index ordered by its values.
+     */
+    Iterator<NitriteId> sortedIds(String field, boolean descending) {
+        Index index = indexMetaService.findIndex(field);
+        if (index == null || index.getIndexType() == IndexType.Fulltext || index.isCompound()) {
+            return null;
+        }
+
+        // a sort compares numbers of different types by their value
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
+        if (indexMap == null || !indexMap.isNumericOrder()) return null;
+        return indexMap.ids(descending);
+    }
+
+    /**
+     * Finds an index holding the values of each of the fields, either a value
+     * index on the field itself or a compound index containing it.
+     *
+     * @return the index of each field, or `null` if a field is not covered.
+     */
+    Map<String, Index> findCoveringIndexes(Collection<String> fields) {
+        Map<String, Index> coveringIndexes = new LinkedHashMap<>();
+        for (String field : fields) {
+            if (DOC_ID.equals(field)) continue;
+
+            Index index = indexMetaService.findIndex(field);
+            if (index == null || index.getIndexType() == IndexType.Fulltext || index.isCompound()) {
+                index = null;
+                for (Index compoundIndex : indexMetaService.listCompoundIndexes()) {
+                    if (compoundIndex.getFields().contains(field)) {
+                        index = compoundIndex;
+                        break;
+                    }
                 }
             }
+
+            if (index == null) return null;
+            coveringIndexes.put(field, index);
         }
+        return coveringIndexes;
+    }
+
+    /**
+     * Reads the values of the covered fields of the documents from their index
+     * entries. A document is left out if any of its values is not indexed, e.g.
+     * when it is `null`, so that the caller can fall back to the document itself.
+     *
+     * Only the entries within the values the query allows for the first field
+     * of an index are read.
+     *
+     * @return the documents holding only the covered fields, or `null` if reading
+     * the index entries would be more expensive than reading the documents.
+     */
+    Map<NitriteId, Document> findCovered(Map<String, Index> coveringIndexes,
+                                         Set<NitriteId> nitriteIds, QueryPlan queryPlan) {
+        Map<String, Map<NitriteId, Object[]>> indexEntries = new HashMap<>();
+        for (Index index : coveringIndexes.values()) {
+            if (indexEntries.containsKey(index.getField())) continue;
+
+            IndexMap indexMap = indexMetaService.getIndexMap(index.getField());
+            if (indexMap == null) return null;
+
+            String firstField = index.isCompound() ? index.getFields().get(0) : index.getField();
+            ValueRange range = queryPlan == null ? null : queryPlan.getValueRange(firstField);
+            Comparable from = range == null ? null : range.getFrom();
+            boolean fromInclusive = range != null && range.isFromInclusive();
+            Comparable to = range == null ? null : range.getTo();
+            boolean toInclusive = range != null && range.isToInclusive();
+
+            long scanned = range == null ? indexMap.size()
+                    : indexMap.countRange(NO_PREFIX, from, fromInclusive, to, toInclusive);
+            if (scanned > COVERED_SCAN_FACTOR * (long) nitriteIds.size()) return null;
+
+            Map<NitriteId, Object[]> entries = indexMap.entriesOf(nitriteIds,
+                    from, fromInclusive, to, toInclusive);
+            indexEntries.put(index.getField(), entries);
+        }
+
+        Map<NitriteId, Document> documents = new HashMap<>();
+        for (NitriteId nitriteId : nitriteIds) {
+            Document document = new Document();
+            for (Map.Entry<String, Index> entry : coveringIndexes.entrySet()) {
+                Index index = entry.getValue();
+                Object[] key = indexEntries.get(index.getField()).get(nitriteId);
+                if (key == null) {
+                    document = null;
+                    break;
+                }
 
-        return resultSet;
+                int position = index.isCompound() ? index.getFields().indexOf(entry.getKey()) : 0;
+                document.put(entry.getKey(), key[position]);
+            }
+
+            if (document != null) {
+                documents.put(nitriteId, document);
+            }
+        }
+        return documents;
     }
 
     Set<NitriteId> findText(String field, String value) {
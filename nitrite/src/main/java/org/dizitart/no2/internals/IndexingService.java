@@ -5,20 +5,16 @@ import org.dizitart.no2.exceptions.IndexingException;
 import org.dizitart.no2.exceptions.UniqueConstraintException;
 import org.dizitart.no2.fulltext.TextIndexingService;
 import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.util.FieldPath;
 
-import java.util.Collection;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.dizitart.no2.exceptions.ErrorCodes.*;
 import static org.dizitart.no2.exceptions.ErrorMessage.NON_STRING_VALUE_IN_FULL_TEXT_INDEX;
 import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
-import static org.dizitart.no2.util.DocumentUtils.getFields;
 import static org.dizitart.no2.util.ValidationUtils.validateDocumentIndexField;
 
 /**
@@ -30,11 +26,14 @@ class IndexingService {
     private final Map<String, AtomicBoolean> indexBuildRegistry;
     private final ExecutorService rebuildExecutor;
     private final TextIndexingService textIndexingService;
+    // compiled paths of the indexed fields, read from every document
+    private final Map<String, FieldPath> fieldPaths;
 
     IndexingService(IndexMetaService indexMetaService,
                     TextIndexingService textIndexingService,
                     NitriteContext nitriteContext) {
         this.indexBuildRegistry = new ConcurrentHashMap<>();
+        this.fieldPaths = new ConcurrentHashMap<>();
         this.rebuildExecutor = nitriteContext.getWorkerPool();
         this.indexMetaService = indexMetaService;
         this.textIndexingService = textIndexingService;
@@ -42,15 +41,21 @@ class IndexingService {
     }
 
 
-    void createIndex(String field, IndexType indexType, boolean isAsync) {
+    void createIndex(String field, List<String> fields, IndexType indexType, boolean isAsync) {
         Index index;
 
+        if (indexType == IndexType.Fulltext && fields != null) {
+            throw new IndexingException(errorMessage(
+                    "full-text index on compound field " + field + " is not supported",
+                    IE_COMPOUND_FULL_TEXT_INDEX));
+        }
+
         // synchronize on value only
         Object fieldLock = indexMetaService.getFieldLock(field);
         synchronized (fieldLock) {
             if (!indexMetaService.hasIndex(field)) {
                 // if no index createId index
-                index = indexMetaService.createIndexMetadata(field, indexType);
+                index = indexMetaService.createIndexMetadata(field, fields, indexType);
             } else {
                 // if index already there throw
                 throw new IndexingException(errorMessage(
@@ -67,94 +72,76 @@ class IndexingService {
     }
 
     void updateIndexEntry(Document document, NitriteId nitriteId) {
-        Set<String> fields = getFields(document);
-
-        for (String field : fields) {
-            Index index = indexMetaService.findIndex(field);
-            if (index != null) {
-                Object fieldValue = getFieldValue(document, field);
-
-                if (fieldValue == null) continue;
-                validateDocumentIndexField(fieldValue, field);
-
-                // if dirty index and currently indexing is not running, rebuild
-                if (indexMetaService.isDirtyIndex(field) &&
-                        indexBuildRegistry.get(field) != null
-                        && !indexBuildRegistry.get(field).get()) {
-                    // rebuild will also take care of the current document
-                    rebuildIndex(index, true);
-                } else {
-                    IndexType indexType = index.getIndexType();
-                    Object fieldLock = indexMetaService.getFieldLock(field);
-
-                    if (indexType == IndexType.Fulltext && fieldValue instanceof String) {
-                        // update text index
-                        textIndexingService.updateIndex(nitriteId, field, (String) fieldValue);
-                    } else {
-                        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                                = indexMetaService.getIndexMap(field);
-
-                        // createId the nitriteId list associated with the value
-                        ConcurrentSkipListSet<NitriteId> nitriteIdList
-                                = indexMap.get((Comparable) fieldValue);
-
-                        synchronized (fieldLock) {
-                            if (nitriteIdList == null) {
-                                nitriteIdList = new ConcurrentSkipListSet<>();
-                            }
-
-                            if (indexType == IndexType.Unique && nitriteIdList.size() == 1) {
-                                // if key is already exists for unique type, throw error
-                                throw new UniqueConstraintException(errorMessage(
-                                        "unique key constraint violation for " + field,
-                                        UCE_UPDATE_INDEX_CONSTRAINT_VIOLATED));
-                            }
-
-                            // add the nitriteId to the list
-                            nitriteIdList.add(nitriteId);
-                            indexMap.put((Comparable) fieldValue, nitriteIdList);
-                        }
-                    }
-                }
+        for (Index index : indexMetaService.listIndexes()) {
+            Object value = indexValue(document, index);
+            if (value == null) continue;
+
+            if (!rebuildIfDirty(index)) {
+                addEntry(index, value, nitriteId);
             }
         }
     }
 
     void removeIndexEntry(Document document, NitriteId nitriteId) {
-        Set<String> fields = getFields(document);
-
-        for (String field : fields) {
-            Index index = indexMetaService.findIndex(field);
-            if (index != null) {
-                Object fieldValue = getFieldValue(document, field);
-
-                if (fieldValue == null) continue;
-
-                // if dirty index and currently indexing is not running, rebuild
-                if (indexMetaService.isDirtyIndex(field) && !indexBuildRegistry.get(field).get()) {
-                    // rebuild will also take care of the current document
-                    rebuildIndex(index, true);
-                } else {
-                    IndexType indexType = index.getIndexType();
-
-                    if (indexType == IndexType.Fulltext && fieldValue instanceof String) {
-                        textIndexingService.deleteIndex(nitriteId, field, (String) fieldValue);
-                    } else {
-                        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                                = indexMetaService.getIndexMap(field);
-
-                        // createId the nitriteId list associated with the value
-                        if (fieldValue instanceof Comparable) {
-                            ConcurrentSkipListSet<NitriteId> nitriteIdList = indexMap.get((Comparable) fieldValue);
-                            if (nitriteIdList != null) {
-                                nitriteIdList.remove(nitriteId);
-                                indexMap.put((Comparable) fieldValue, nitriteIdList);
-                            }
-                        }
-                    }
+        for (Index index : indexMetaService.listIndexes()) {
+            Object value = indexValue(document, index);
+            if (value == null) continue;
+
+            if (!rebuildIfDirty(index)) {
+                removeEntry(index, value, nitriteId);
+            }
+        }
+    }
+
+    /**
+     * Finds the indexes on any of the fields changed by an update. A field
+     * is changed if it is set by the update itself, or if any of its
+     * parent or embedded fields is.
+     */
+    List<Index> findAffectedIndexes(Collection<String> changedFields) {
+        List<Index> affected = new ArrayList<>();
+        for (Index index : indexMetaService.listIndexes()) {
+            for (String field : index.getFields()) {
+                if (isAffected(field, changedFields)) {
+                    affected.add(index);
+                    break;
                 }
             }
         }
+        return affected;
+    }
+
+    /**
+     * Reads the values of a document in some indexes, before it is updated.
+     */
+    Object[] indexValues(Document document, List<Index> indexes) {
+        Object[] values = new Object[indexes.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = indexValue(document, indexes.get(i));
+        }
+        return values;
+    }
+
+    /**
+     * Moves an updated document in the indexes where its value changed.
+     * An index where the value is the same as before the update is not
+     * touched at all.
+     */
+    void updateIndexEntries(Document document, NitriteId nitriteId,
+                            List<Index> indexes, Object[] oldValues) {
+        for (int i = 0; i < oldValues.length; i++) {
+            Index index = indexes.get(i);
+            Object oldValue = oldValues[i];
+            Object newValue = indexValue(document, index);
+            if (sameValue(oldValue, newValue) || rebuildIfDirty(index)) continue;
+
+            if (oldValue != null) {
+                removeEntry(index, oldValue, nitriteId);
+            }
+            if (newValue != null) {
+                addEntry(index, newValue, nitriteId);
+            }
+        }
     }
 
     Collection<Index> listIndexes() {
@@ -164,9 +151,13 @@ class IndexingService {
     boolean isIndexing(String field) {
         // has index will only return true, if there is an index on
         // the value and indexing is not running on it
-        return indexMetaService.hasIndex(field)
-                && indexBuildRegistry.get(field) != null
-                && indexBuildRegistry.get(field).get();
+        if (!indexMetaService.hasIndex(field)) return false;
+
+        // a legacy index of a readonly database can not be migrated,
+        // so it is never ready to serve a query
+        return indexMetaService.isLegacyIndex(field)
+                || (indexBuildRegistry.get(field) != null
+                && indexBuildRegistry.get(field).get());
     }
 
     void dropIndex(String field) {
@@ -226,10 +217,26 @@ class IndexingService {
             // first put dirty marker
             indexMetaService.markDirty(field);
 
-            if (index.getIndexType() != IndexType.Fulltext) {
+            if (index.isCompound()) {
+                IndexMap indexMap = indexMetaService.getIndexMap(field);
+                indexMap.clear();
+
+                for (Map.Entry<NitriteId, Document> entry : underlyingMap.entrySet()) {
+                    Object[] values = compoundValues(entry.getValue(), index);
+                    if (values == null) continue;
+
+                    if (index.getIndexType() == IndexType.Unique
+                            && indexMap.containsValues(values)) {
+                        throw new UniqueConstraintException(errorMessage(
+                                "unique key constraint violation for " + field,
+                                UCE_BUILD_INDEX_CONSTRAINT_VIOLATED));
+                    }
+
+                    indexMap.add(values, entry.getKey());
+                }
+            } else if (index.getIndexType() != IndexType.Fulltext) {
                 // createId index map
-                NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                        = indexMetaService.getIndexMap(field);
+                IndexMap indexMap = indexMetaService.getIndexMap(field);
 
                 // remove old values
                 indexMap.clear();
@@ -244,23 +251,16 @@ class IndexingService {
                     if (fieldValue == null) continue;
                     validateDocumentIndexField(fieldValue, field);
 
-                    // createId the id list associated with the value
-                    ConcurrentSkipListSet<NitriteId> nitriteIdList = indexMap.get((Comparable) fieldValue);
-                    if (nitriteIdList == null) {
-                        nitriteIdList = new ConcurrentSkipListSet<>();
-                    }
-
                     if (index.getIndexType() == IndexType.Unique
-                            && nitriteIdList.size() == 1) {
+                            && indexMap.containsValue((Comparable) fieldValue)) {
                         // if key is already exists for unique type, throw error
                         throw new UniqueConstraintException(errorMessage(
                                 "unique key constraint violation for " + field,
                                 UCE_BUILD_INDEX_CONSTRAINT_VIOLATED));
                     }
 
-                    // add the id to the list
-                    nitriteIdList.add(entry.getKey());
-                    indexMap.put((Comparable) fieldValue, nitriteIdList);
+                    // add the id to the posting list of the value
+                    indexMap.add((Comparable) fieldValue, entry.getKey());
                 }
             } else {
                 // for update-rebuild or remove-rebuild this block will never come
@@ -287,6 +287,139 @@ class IndexingService {
         }
     }
 
+    // if dirty index and currently indexing is not running, rebuild
+    private boolean rebuildIfDirty(Index index) {
+        String field = index.getField();
+        if (indexMetaService.isDirtyIndex(field) &&
+                indexBuildRegistry.get(field) != null
+                && !indexBuildRegistry.get(field).get()) {
+            // rebuild will also take care of the current document
+            rebuildIndex(index, true);
+            return true;
+        }
+        return false;
+    }
+
+    private void addEntry(Index index, Object value, NitriteId nitriteId) {
+        String field = index.getField();
+        IndexType indexType = index.getIndexType();
+        Object fieldLock = indexMetaService.getFieldLock(field);
+
+        if (index.isCompound()) {
+            IndexMap indexMap = indexMetaService.getIndexMap(field);
+            Object[] values = (Object[]) value;
+
+            synchronized (fieldLock) {
+                if (indexType == IndexType.Unique && indexMap.containsValues(values)) {
+                    throw new UniqueConstraintException(errorMessage(
+                            "unique key constraint violation for " + field,
+                            UCE_UPDATE_INDEX_CONSTRAINT_VIOLATED));
+                }
+
+                indexMap.add(values, nitriteId);
+            }
+            return;
+        }
+
+        validateDocumentIndexField(value, field);
+        if (indexType == IndexType.Fulltext && value instanceof String) {
+            // update text index
+            textIndexingService.updateIndex(nitriteId, field, (String) value);
+        } else {
+            IndexMap indexMap = indexMetaService.getIndexMap(field);
+
+            synchronized (fieldLock) {
+                if (indexType == IndexType.Unique
+                        && indexMap.containsValue((Comparable) value)) {
+                    // if key is already exists for unique type, throw error
+                    throw new UniqueConstraintException(errorMessage(
+                            "unique key constraint violation for " + field,
+                            UCE_UPDATE_INDEX_CONSTRAINT_VIOLATED));
+                }
+
+                // add the nitriteId to the posting list of the value
+                indexMap.add((Comparable) value, nitriteId);
+            }
+        }
+    }
+
+    private void removeEntry(Index index, Object value, NitriteId nitriteId) {
+        String field = index.getField();
+
+        if (index.isCompound()) {
+            IndexMap indexMap = indexMetaService.getIndexMap(field);
+            indexMap.remove((Object[]) value, nitriteId);
+        } else if (index.getIndexType() == IndexType.Fulltext && value instanceof String) {
+            textIndexingService.deleteIndex(nitriteId, field, (String) value);
+        } else if (value instanceof Comparable) {
+            // remove the nitriteId from the posting list of the value
+            IndexMap indexMap = indexMetaService.getIndexMap(field);
+            indexMap.remove((Comparable) value, nitriteId);
+        }
+    }
+
+    // the value of a field, or the values of all fields of a compound index
+    private Object indexValue(Document document, Index index) {
+        if (index.isCompound()) {
+            return compoundValues(document, index);
+        }
+
+        // a document is indexed only on its leaf fields
+        return fieldPath(index.getField()).getLeafValue(document);
+    }
+
+    // a field changes with any of its parents or any of its embedded fields
+    private static boolean isAffected(String field, Collection<String> changedFields) {
+        for (String changed : changedFields) {
+            if (field.equals(changed) || isParent(changed, field) || isParent(field, changed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isParent(String parent, String field) {
+        return field.length() > parent.length()
+                && field.startsWith(parent)
+                && field.charAt(parent.length()) == '.';
+    }
+
+    // compared strictly, so that a value changing its type is reindexed
+    private static boolean sameValue(Object oldValue, Object newValue) {
+        if (oldValue instanceof Object[] && newValue instanceof Object[]) {
+            return Arrays.equals((Object[]) oldValue, (Object[]) newValue);
+        }
+        return oldValue == null ? newValue == null : oldValue.equals(newValue);
+    }
+
+    // a document is indexed in a compound index only if it has all the fields
+    private Object[] compoundValues(Document document, Index index) {
+        List<String> fields = index.getFields();
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            String field = fields.get(i);
+            Object fieldValue = getFieldValue(document, field);
+            if (fieldValue == null) return null;
+
+            validateDocumentIndexField(fieldValue, field);
+            values[i] = fieldValue;
+        }
+        return values;
+    }
+
+    private Object getFieldValue(Document document, String field) {
+        return fieldPath(field).getValue(document);
+    }
+
+    private FieldPath fieldPath(String field) {
+        FieldPath fieldPath = fieldPaths.get(field);
+        if (fieldPath == null) {
+            fieldPath = FieldPath.compile(field);
+            fieldPaths.put(field, fieldPath);
+        }
+        return fieldPath;
+    }
+
     private synchronized AtomicBoolean getBuildFlag(String field) {
         AtomicBoolean flag = indexBuildRegistry.get(field);
         if (flag != null) return flag;
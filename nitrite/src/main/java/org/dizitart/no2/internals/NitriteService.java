@@ -4,16 +4,20 @@ import org.dizitart.no2.*;
 import org.dizitart.no2.event.ChangeInfo;
 import org.dizitart.no2.event.ChangeListener;
 import org.dizitart.no2.event.EventBus;
+import org.dizitart.no2.filters.QueryPlan;
 import org.dizitart.no2.fulltext.EnglishTextTokenizer;
 import org.dizitart.no2.fulltext.TextIndexingService;
 import org.dizitart.no2.fulltext.TextTokenizer;
 import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.util.FieldPath;
 
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import static org.dizitart.no2.Constants.DOC_ID;
 import static org.dizitart.no2.exceptions.ErrorCodes.*;
 import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
 import static org.dizitart.no2.util.ValidationUtils.notNull;
@@ -149,6 +153,114 @@ public class NitriteService {
         return indexedSearchService.findIn(field, values);
     }
 
+    /**
+     * Finds with index, where the value lies between `from` and `to`.
+     *
+     * @param field         the field
+     * @param from          the lower bound
+     * @param fromInclusive if the lower bound is inclusive
+     * @param to            the upper bound
+     * @param toInclusive   if the upper bound is inclusive
+     * @return the result set
+     */
+    public Set<NitriteId> findBetweenWithIndex(String field,
+                                               Comparable from, boolean fromInclusive,
+                                               Comparable to, boolean toInclusive) {
+        notNull(field, errorMessage("field can not be null", VE_FIND_BETWEEN_INDEX_NULL_FIELD));
+        notNull(from, errorMessage("from can not be null", VE_FIND_BETWEEN_INDEX_NULL_VALUE));
+        notNull(to, errorMessage("to can not be null", VE_FIND_BETWEEN_INDEX_NULL_VALUE));
+        return indexedSearchService.findRange(field, new Object[0],
+                from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Finds with a compound index, where the leading fields of the index are
+     * equal to `prefix` and the next field lies between `from` and `to`.
+     * A `null` bound denotes an open end of the range.
+     *
+     * @param field         the field of the compound index
+     * @param prefix        the values of the leading fields
+     * @param from          the lower bound of the next field
+     * @param fromInclusive if the lower bound is inclusive
+     * @param to            the upper bound of the next field
+     * @param toInclusive   if the upper bound is inclusive
+     * @return the result set
+     */
+    public Set<NitriteId> findWithCompoundIndex(String field, Object[] prefix,
+                                                Comparable from, boolean fromInclusive,
+                                                Comparable to, boolean toInclusive) {
+        notNull(field, errorMessage("field can not be null", VE_FIND_COMPOUND_INDEX_NULL_FIELD));
+        notNull(prefix, errorMessage("prefix can not be null", VE_FIND_COMPOUND_INDEX_NULL_PREFIX));
+        return indexedSearchService.findRange(field, prefix, from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Counts the entries of an index, where the leading fields of the index are
+     * equal to `prefix` and the next field lies between `from` and `to`. For a
+     * single field index, `prefix` is empty. It does not read the matching entries,
+     * hence it is cheap enough to estimate the selectivity of a filter.
+     *
+     * @param field         the field of the index
+     * @param prefix        the values of the leading fields
+     * @param from          the lower bound of the next field
+     * @param fromInclusive if the lower bound is inclusive
+     * @param to            the upper bound of the next field
+     * @param toInclusive   if the upper bound is inclusive
+     * @return the number of matching index entries
+     */
+    public long countWithIndex(String field, Object[] prefix,
+                               Comparable from, boolean fromInclusive,
+                               Comparable to, boolean toInclusive) {
+        notNull(field, errorMessage("field can not be null", VE_FIND_COMPOUND_INDEX_NULL_FIELD));
+        notNull(prefix, errorMessage("prefix can not be null", VE_FIND_COMPOUND_INDEX_NULL_PREFIX));
+        return indexedSearchService.countRange(field, prefix, from, fromInclusive, to, toInclusive);
+    }
+
+    /**
+     * Gets all compound indices of the collection.
+     *
+     * @return the collection of compound index information.
+     */
+    public Collection<Index> listCompoundIndexes() {
+        return indexMetaService.listCompoundIndexes();
+    }
+
+    /**
+     * Reads the `fields` of the documents from the indexes covering them,
+     * without loading the documents. A document having an unindexed value
+     * for any of the fields is left out of the result.
+     *
+     * @param fields     the fields to read
+     * @param nitriteIds the ids of the documents
+     * @param queryPlan  the plan which found the documents, `null` for all
+     * @return the documents holding only the `fields` by their ids, or `null`
+     * if the fields are not covered by indexes.
+     */
+    Map<NitriteId, Document> findCovered(Collection<String> fields, Set<NitriteId> nitriteIds,
+                                         QueryPlan queryPlan) {
+        // a projection keeps only the top level fields of a document, which
+        // an index on an embedded field can not tell
+        for (String field : fields) {
+            if (FieldPath.compile(field).isEmbedded()) return null;
+        }
+
+        Map<String, Index> coveringIndexes = indexedSearchService.findCoveringIndexes(fields);
+        if (coveringIndexes == null) return null;
+
+        for (Index index : coveringIndexes.values()) {
+            if (isIndexing(index.getField())) return null;
+        }
+
+        Map<NitriteId, Document> documents
+                = indexedSearchService.findCovered(coveringIndexes, nitriteIds, queryPlan);
+        if (documents != null && fields.contains(DOC_ID)) {
+            for (Map.Entry<NitriteId, Document> entry : documents.entrySet()) {
+                entry.getValue().put(DOC_ID, entry.getKey().getIdValue());
+            }
+        }
+        return documents;
+    }
+
     /**
      * Finds with text filer using full-text index.
      *
@@ -185,13 +297,14 @@ public class NitriteService {
      * Creates an index.
      *
      * @param field     the value
+     * @param fields    the ordered fields of a compound index, or `null`
      * @param indexType the index type
      * @param async     asynchronous operation if set to `true`
      */
-    void createIndex(String field, IndexType indexType, boolean async) {
+    void createIndex(String field, List<String> fields, IndexType indexType, boolean async) {
         notNull(field, errorMessage("field can not be null", VE_CREATE_INDEX_NULL_FIELD));
         notNull(indexType, errorMessage("indexType can not be null", VE_CREATE_INDEX_NULL_INDEX_TYPE));
-        indexingService.createIndex(field, indexType, async);
+        indexingService.createIndex(field, fields, indexType, async);
     }
 
     /**
@@ -317,6 +430,16 @@ public class NitriteService {
         return searchService.find(filter, findOptions);
     }
 
+    /**
+     * Counts the documents matching a filter.
+     *
+     * @param filter the filter
+     * @return the number of matching documents.
+     */
+    long count(Filter filter) {
+        return searchService.count(filter);
+    }
+
     /**
      * Gets a document by its id.
      *
@@ -390,12 +513,12 @@ public class NitriteService {
     }
 
     private void init() {
-        this.indexMetaService = new IndexMetaService(mapStore);
+        this.indexMetaService = new IndexMetaService(mapStore, nitriteContext);
         TextIndexingService textIndexingService = getTextIndexingService();
 
         this.indexingService = new IndexingService(indexMetaService, textIndexingService, nitriteContext);
         this.indexedSearchService = new IndexedSearchService(indexMetaService, textIndexingService);
-        this.searchService = new SearchService(this, mapStore);
+        this.searchService = new SearchService(this, indexedSearchService, mapStore);
         this.dataService = new DataService(indexingService, searchService, mapStore, eventBus, nitriteContext);
     }
 }
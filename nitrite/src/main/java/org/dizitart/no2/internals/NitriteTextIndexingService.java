@@ -1,16 +1,13 @@
 package org.dizitart.no2.internals;
 
-import lombok.val;
 import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.exceptions.IndexingException;
 import org.dizitart.no2.fulltext.TextIndexingService;
 import org.dizitart.no2.fulltext.TextTokenizer;
-import org.dizitart.no2.store.NitriteMap;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentSkipListSet;
 
 import static org.dizitart.no2.exceptions.ErrorCodes.IE_FAILED_TO_WRITE_FTS_DATA;
 import static org.dizitart.no2.exceptions.ErrorCodes.IE_REMOVE_FULL_TEXT_INDEX_FAILED;
@@ -42,15 +39,11 @@ class NitriteTextIndexingService implements TextIndexingService {
     @Override
     public void deleteIndex(NitriteId id, String field, String text) {
         try {
-            NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                    = indexMetaService.getIndexMap(field);
+            IndexMap indexMap = indexMetaService.getIndexMap(field);
             Set<String> words = tokenizerService.tokenize(text);
 
             for (String word : words) {
-                ConcurrentSkipListSet<NitriteId> nitriteIds = indexMap.get(word);
-                if (nitriteIds != null) {
-                    nitriteIds.remove(id);
-                }
+                indexMap.remove(word, id);
             }
         } catch (IOException ioe) {
             throw new IndexingException(errorMessage(
@@ -89,22 +82,11 @@ class NitriteTextIndexingService implements TextIndexingService {
 
     private void createOrUpdate(NitriteId id, String field, String text) {
         try {
-            NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                    = indexMetaService.getIndexMap(field);
+            IndexMap indexMap = indexMetaService.getIndexMap(field);
             Set<String> words = tokenizerService.tokenize(text);
 
-            Object fieldLock = indexMetaService.getFieldLock(field);
             for (String word : words) {
-                ConcurrentSkipListSet<NitriteId> nitriteIds = indexMap.get(word);
-
-                synchronized (fieldLock) {
-                    if (nitriteIds == null) {
-                        nitriteIds = new ConcurrentSkipListSet<>();
-                        indexMap.put(word, nitriteIds);
-                    }
-                }
-
-                nitriteIds.add(id);
+                indexMap.add(word, id);
             }
         } catch (IOException ioe) {
             throw new IndexingException(errorMessage(
@@ -138,32 +120,14 @@ class NitriteTextIndexingService implements TextIndexingService {
             throw new FilterException(INVALID_SEARCH_TERM_TRAILING_STAR);
         }
 
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-        Set<NitriteId> idSet = new LinkedHashSet<>();
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         String term = searchString.substring(0, searchString.length() - 1);
-
-        for (val entry : indexMap.entrySet()) {
-            String key = (String) entry.getKey();
-            if (key.startsWith(term.toUpperCase())) {
-                idSet.addAll(entry.getValue());
-            }
-        }
-        return idSet;
+        return indexMap.startsWith(term.toUpperCase());
     }
 
     private Set<NitriteId> searchContains(String field, String term) {
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-        Set<NitriteId> idSet = new LinkedHashSet<>();
-
-        for (val entry : indexMap.entrySet()) {
-            String key = (String) entry.getKey();
-            if (key.contains(term.toUpperCase())) {
-                idSet.addAll(entry.getValue());
-            }
-        }
-        return idSet;
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
+        return indexMap.contains(term.toUpperCase());
     }
 
     private Set<NitriteId> searchByLeadingWildCard(String field, String searchString) {
@@ -171,36 +135,23 @@ class NitriteTextIndexingService implements TextIndexingService {
             throw new FilterException(INVALID_SEARCH_TERM_LEADING_STAR);
         }
 
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
-        Set<NitriteId> idSet = new LinkedHashSet<>();
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
         String term = searchString.substring(1, searchString.length());
-
-        for (val entry : indexMap.entrySet()) {
-            String key = (String) entry.getKey();
-            if (key.endsWith(term.toUpperCase())) {
-                idSet.addAll(entry.getValue());
-            }
-        }
-        return idSet;
+        return indexMap.endsWith(term.toUpperCase());
     }
 
     private Set<NitriteId> searchExactByIndex(String field, String searchString) throws IOException {
-        NitriteMap<Comparable, ConcurrentSkipListSet<NitriteId>> indexMap
-                = indexMetaService.getIndexMap(field);
+        IndexMap indexMap = indexMetaService.getIndexMap(field);
 
         Set<String> words = tokenizerService.tokenize(searchString);
         Map<NitriteId, Integer> scoreMap = new HashMap<>();
         for (String word : words) {
-            ConcurrentSkipListSet<NitriteId> nitriteIds = indexMap.get(word);
-            if (nitriteIds != null) {
-                for (NitriteId id : nitriteIds) {
-                    Integer score = scoreMap.get(id);
-                    if (score == null) {
-                        scoreMap.put(id, 1);
-                    } else {
-                        scoreMap.put(id, score + 1);
-                    }
+            for (NitriteId id : indexMap.get(word)) {
+                Integer score = scoreMap.get(id);
+                if (score == null) {
+                    scoreMap.put(id, 1);
+                } else {
+                    scoreMap.put(id, score + 1);
                 }
             }
         }
@@ -16,8 +16,7 @@ class ProjectedDocumentIterable implements RecordIterable<Document> {
     private final NitriteMap<NitriteId, Document> underlyingMap;
     private Document projection;
     private Iterator<Document> iterator;
-    private boolean hasMore;
-    private int totalCount;
+    private FindResult findResult;
 
     ProjectedDocumentIterable(Document projection, FindResult findResult) {
         this.projection = projection;
@@ -27,8 +26,7 @@ class ProjectedDocumentIterable implements RecordIterable<Document> {
             resultSet = new TreeSet<>();
         }
         this.underlyingMap = findResult.getUnderlyingMap();
-        this.hasMore = findResult.isHasMore();
-        this.totalCount = findResult.getTotalCount();
+        this.findResult = findResult;
         this.iterator = new ProjectedDocumentIterator(this);
     }
 
@@ -39,7 +37,7 @@ class ProjectedDocumentIterable implements RecordIterable<Document> {
 
     @Override
     public boolean hasMore() {
-        return hasMore;
+        return findResult.isHasMore();
     }
 
     @Override
@@ -49,7 +47,7 @@ class ProjectedDocumentIterable implements RecordIterable<Document> {
 
     @Override
     public int totalCount() {
-        return totalCount;
+        return findResult.getTotalCount();
     }
 
     @Override
@@ -78,10 +76,16 @@ class ProjectedDocumentIterable implements RecordIterable<Document> {
 
     private class ProjectedDocumentIterator extends DocumentIterator {
         private Iterator<NitriteId> iterator;
+        // projected fields read from the indexes, if they cover the projection
+        private Map<NitriteId, Document> covered;
 
         ProjectedDocumentIterator(Resettable<Document> resettable) {
             super(resettable);
             iterator = resultSet.iterator();
+            if (projection != null && findResult.getNitriteService() != null) {
+                covered = findResult.getNitriteService().findCovered(projection.keySet(),
+                        resultSet, findResult.getQueryPlan());
+            }
             nextMatch();
         }
 
@@ -89,7 +93,10 @@ class ProjectedDocumentIterable implements RecordIterable<Document> {
         void nextMatch() {
             while (iterator.hasNext()) {
                 NitriteId next = iterator.next();
-                Document document = underlyingMap.get(next);
+                Document document = covered == null ? null : covered.get(next);
+                if (document == null) {
+                    document = underlyingMap.get(next);
+                }
                 Document projected = project(document);
                 if (projected != null) {
                     nextElement = projected;
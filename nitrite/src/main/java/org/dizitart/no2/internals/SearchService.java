@@ -3,13 +3,15 @@ package org.dizitart.no2.internals;
 import org.dizitart.no2.*;
 import org.dizitart.no2.exceptions.FilterException;
 import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.filters.QueryPlan;
 import org.dizitart.no2.store.NitriteMap;
+import org.dizitart.no2.util.FieldPath;
+import org.dizitart.no2.util.NumberUtils;
 
 import java.util.*;
 
 import static org.dizitart.no2.exceptions.ErrorCodes.VE_SEARCH_SERVICE_NULL_NITRITE_SERVICE;
 import static org.dizitart.no2.exceptions.ErrorMessage.*;
-import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
 import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
 import static org.dizitart.no2.util.ValidationUtils.notNull;
 import static org.dizitart.no2.util.ValidationUtils.validateLimit;
@@ -19,11 +21,14 @@ import static org.dizitart.no2.util.ValidationUtils.validateLimit;
  */
 class SearchService {
     private NitriteService nitriteService;
+    private IndexedSearchService indexedSearchService;
     private NitriteMap<NitriteId, Document> underlyingMap;
 
-    SearchService(NitriteService nitriteService, NitriteMap<NitriteId, Document> mapStore) {
+    SearchService(NitriteService nitriteService, IndexedSearchService indexedSearchService,
+                  NitriteMap<NitriteId, Document> mapStore) {
         notNull(nitriteService, errorMessage("nitriteService can not be null", VE_SEARCH_SERVICE_NULL_NITRITE_SERVICE));
         this.nitriteService = nitriteService;
+        this.indexedSearchService = indexedSearchService;
         underlyingMap = mapStore;
     }
 
@@ -33,16 +38,20 @@ class SearchService {
         findResult.setTotalCount(underlyingMap.size());
         findResult.setIdSet(underlyingMap.keySet());
         findResult.setUnderlyingMap(underlyingMap);
+        findResult.setNitriteService(nitriteService);
+        findResult.setQueryPlan(QueryPlan.create(null, nitriteService, underlyingMap));
 
         return new DocumentCursor(findResult);
     }
 
     Cursor find(Filter filter) {
         filter.setNitriteService(nitriteService);
+        QueryPlan queryPlan;
         Set<NitriteId> result;
 
         try {
-            result = filter.apply(underlyingMap);
+            queryPlan = QueryPlan.create(filter, nitriteService, underlyingMap);
+            result = queryPlan.execute();
         } catch (FilterException fe) {
             throw fe;
         } catch (Throwable t) {
@@ -51,6 +60,8 @@ class SearchService {
 
         FindResult findResult = new FindResult();
         findResult.setUnderlyingMap(underlyingMap);
+        findResult.setNitriteService(nitriteService);
+        findResult.setQueryPlan(queryPlan);
         if (result != null) {
             findResult.setHasMore(false);
             findResult.setTotalCount(result.size());
@@ -63,6 +74,8 @@ class SearchService {
     Cursor find(FindOptions findOptions) {
         FindResult findResult = new FindResult();
         findResult.setUnderlyingMap(underlyingMap);
+        findResult.setNitriteService(nitriteService);
+        findResult.setQueryPlan(QueryPlan.create(null, nitriteService, underlyingMap));
         setUnfilteredResultSet(findOptions, findResult);
 
         return new DocumentCursor(findResult);
@@ -72,11 +85,27 @@ class SearchService {
         filter.setNitriteService(nitriteService);
         FindResult findResult = new FindResult();
         findResult.setUnderlyingMap(underlyingMap);
+        findResult.setNitriteService(nitriteService);
         setFilteredResultSet(filter, findOptions, findResult);
 
         return new DocumentCursor(findResult);
     }
 
+    long count(Filter filter) {
+        if (filter == null) {
+            return underlyingMap.sizeAsLong();
+        }
+
+        filter.setNitriteService(nitriteService);
+        try {
+            return QueryPlan.create(filter, nitriteService, underlyingMap).count();
+        } catch (FilterException fe) {
+            throw fe;
+        } catch (Throwable t) {
+            throw new FilterException(FILTERED_COUNT_OPERATION_FAILED, t);
+        }
+    }
+
     private void setUnfilteredResultSet(FindOptions findOptions, FindResult findResult) {
         validateLimit(findOptions, underlyingMap.sizeAsLong());
 
@@ -84,18 +113,25 @@ class SearchService {
         if (isNullOrEmpty(findOptions.getField())) {
             resultSet = limitIdSet(underlyingMap.keySet(), findOptions);
         } else {
-            resultSet = sortIdSet(underlyingMap.keySet(), findOptions);
+            resultSet = sortIdSet(null, findOptions);
         }
 
         findResult.setIdSet(resultSet);
         findResult.setTotalCount(underlyingMap.size());
-        findResult.setHasMore(underlyingMap.keySet().size() > (findOptions.getSize() + findOptions.getOffset()));
+        findResult.setHasMore(underlyingMap.sizeAsLong() > pageEnd(findOptions));
     }
 
     private void setFilteredResultSet(Filter filter, FindOptions findOptions, FindResult findResult) {
+        if (isNullOrEmpty(findOptions.getField())) {
+            setFilteredPage(filter, findOptions, findResult);
+            return;
+        }
+
         Set<NitriteId> nitriteIdSet;
         try {
-            nitriteIdSet = filter.apply(underlyingMap);
+            QueryPlan queryPlan = QueryPlan.create(filter, nitriteService, underlyingMap);
+            findResult.setQueryPlan(queryPlan);
+            nitriteIdSet = queryPlan.execute();
         } catch (FilterException fe) {
             throw fe;
         } catch (Throwable t) {
@@ -105,59 +141,180 @@ class SearchService {
         if (nitriteIdSet == null || nitriteIdSet.isEmpty()) return;
 
         validateLimit(findOptions, nitriteIdSet.size());
-        Set<NitriteId> resultSet;
+        Set<NitriteId> resultSet = sortIdSet(nitriteIdSet, findOptions);
 
-        if (isNullOrEmpty(findOptions.getField())) {
-            resultSet = limitIdSet(nitriteIdSet, findOptions);
-        } else {
-            resultSet = sortIdSet(nitriteIdSet, findOptions);
+        findResult.setIdSet(resultSet);
+        findResult.setHasMore(nitriteIdSet.size() > pageEnd(findOptions));
+        findResult.setTotalCount(nitriteIdSet.size());
+    }
+
+    // reads only the ids up to the end of the page, the rest of the
+    // matching ids are counted when the total count is asked for
+    private void setFilteredPage(Filter filter, FindOptions findOptions, FindResult findResult) {
+        int offset = findOptions.getOffset();
+        long pageEnd = pageEnd(findOptions);
+        validateLimit(findOptions, offset);
+
+        Set<NitriteId> resultSet = new LinkedHashSet<>();
+        Iterator<NitriteId> iterator;
+        int index = 0;
+        try {
+            QueryPlan queryPlan = QueryPlan.create(filter, nitriteService, underlyingMap);
+            findResult.setQueryPlan(queryPlan);
+
+            iterator = queryPlan.iterator();
+            while (index < pageEnd && iterator.hasNext()) {
+                NitriteId nitriteId = iterator.next();
+                if (index >= offset) {
+                    resultSet.add(nitriteId);
+                }
+                index++;
+            }
+        } catch (FilterException fe) {
+            throw fe;
+        } catch (Throwable t) {
+            throw new FilterException(FILTERED_FIND_WITH_OPTIONS_OPERATION_FAILED, t);
         }
 
+        if (index == 0) return;
+        validateLimit(findOptions, index);
+
         findResult.setIdSet(resultSet);
-        findResult.setHasMore(nitriteIdSet.size() > (findOptions.getSize() + findOptions.getOffset()));
-        findResult.setTotalCount(nitriteIdSet.size());
+        findResult.setRemaining(iterator, index);
+    }
+
+    // the position after the last id of a page; a page of size 0 has
+    // no end and holds all the ids after its offset
+    private static long pageEnd(FindOptions findOptions) {
+        if (findOptions.getSize() == 0) return Long.MAX_VALUE;
+        return (long) findOptions.getOffset() + findOptions.getSize();
     }
 
+    // sorts the matching ids, `null` denotes all ids of the collection
     private Set<NitriteId> sortIdSet(Set<NitriteId> nitriteIdSet, FindOptions findOptions) {
         String sortField = findOptions.getField();
-        NavigableMap<Object, NitriteId> sortedMap = new TreeMap<>();
+        boolean descending = findOptions.getSortOrder() == SortOrder.Descending;
 
-        for (NitriteId id : nitriteIdSet) {
+        if (useIndexOrder(nitriteIdSet, findOptions)) {
+            Iterator<NitriteId> indexOrder = indexedSearchService.sortedIds(sortField, descending);
+            if (indexOrder != null) {
+                return limitIdSet(indexOrder, nitriteIdSet, findOptions);
+            }
+        }
+
+        long limit = pageEnd(findOptions);
+        long matches = nitriteIdSet == null ? underlyingMap.sizeAsLong() : nitriteIdSet.size();
+        boolean fullSort = limit >= matches;
+        Comparator<SortEntry> comparator = new SortEntryComparator(descending);
+
+        // only the top entries of a page need to be kept
+        Collection<SortEntry> entries = fullSort
+                ? new ArrayList<SortEntry>()
+                : new PriorityQueue<>((int) Math.min(limit, 1024), Collections.reverseOrder(comparator));
+
+        FieldPath sortPath = FieldPath.compile(sortField);
+        Iterable<NitriteId> nitriteIds = nitriteIdSet == null ? underlyingMap.keySet() : nitriteIdSet;
+        for (NitriteId id : nitriteIds) {
             Document document = underlyingMap.get(id);
-            Object value = getFieldValue(document, sortField);
+            Object value = sortPath.getValue(document);
 
             if (value != null) {
                 if (value.getClass().isArray() || value instanceof Iterable) {
                     throw new InvalidOperationException(UNABLE_TO_SORT_ON_ARRAY);
                 }
-                sortedMap.put(value, id);
+
+                SortEntry entry = new SortEntry((Comparable) value, id);
+                if (fullSort || entries.size() < limit) {
+                    entries.add(entry);
+                } else {
+                    PriorityQueue<SortEntry> heap = (PriorityQueue<SortEntry>) entries;
+                    if (comparator.compare(entry, heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(entry);
+                    }
+                }
             }
         }
 
-        Collection<NitriteId> sortedValues;
-        if (findOptions.getSortOrder() == SortOrder.Ascending) {
-            sortedValues = sortedMap.values();
-        } else {
-            sortedValues = sortedMap.descendingMap().values();
-        }
+        List<SortEntry> sortedEntries = new ArrayList<>(entries);
+        Collections.sort(sortedEntries, comparator);
 
+        List<NitriteId> sortedValues = new ArrayList<>(sortedEntries.size());
+        for (SortEntry entry : sortedEntries) {
+            sortedValues.add(entry.id);
+        }
         return limitIdSet(sortedValues, findOptions);
     }
 
+    // walking an index reads about limit * collection size / matches entries
+    // until the page is full, whereas sorting loads every matching document
+    private boolean useIndexOrder(Set<NitriteId> nitriteIdSet, FindOptions findOptions) {
+        if (nitriteService.isIndexing(findOptions.getField())) return false;
+        if (nitriteIdSet == null) return true;
+
+        long matches = nitriteIdSet.size();
+        long limit = Math.min(pageEnd(findOptions), matches);
+        return limit * underlyingMap.sizeAsLong() <= matches * matches;
+    }
+
     private Set<NitriteId> limitIdSet(Collection<NitriteId> nitriteIdSet, FindOptions findOptions) {
+        return limitIdSet(nitriteIdSet.iterator(), null, findOptions);
+    }
+
+    // pages the ids of the iterator, skipping those not in `filter` if it is not `null`
+    private Set<NitriteId> limitIdSet(Iterator<NitriteId> iterator, Set<NitriteId> filter,
+                                      FindOptions findOptions) {
         int offset = findOptions.getOffset();
-        int size = findOptions.getSize();
+        long pageEnd = pageEnd(findOptions);
         Set<NitriteId> resultSet = new LinkedHashSet<>();
 
-        int index = 0;
-        for (NitriteId nitriteId : nitriteIdSet) {
+        long index = 0;
+        while (iterator.hasNext()) {
+            NitriteId nitriteId = iterator.next();
+            if (filter != null && !filter.contains(nitriteId)) continue;
+
             if (index >= offset) {
                 resultSet.add(nitriteId);
-                if (index == (offset + size - 1)) break;
+                if (index + 1 >= pageEnd) break;
             }
             index++;
         }
 
         return resultSet;
     }
+
+    private static class SortEntry {
+        private final Comparable value;
+        private final NitriteId id;
+
+        SortEntry(Comparable value, NitriteId id) {
+            this.value = value;
+            this.id = id;
+        }
+    }
+
+    // orders by value and then by id, the same way an index walk does
+    private static class SortEntryComparator implements Comparator<SortEntry> {
+        private final boolean descending;
+
+        SortEntryComparator(boolean descending) {
+            this.descending = descending;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compare(SortEntry first, SortEntry second) {
+            int result;
+            if (first.value instanceof Number && second.value instanceof Number) {
+                result = NumberUtils.compare((Number) first.value, (Number) second.value);
+            } else {
+                result = first.value.compareTo(second.value);
+            }
+
+            if (result == 0) {
+                result = first.id.compareTo(second.id);
+            }
+            return descending ? -result : result;
+        }
+    }
 }
@@ -3,6 +3,7 @@ package org.dizitart.no2.objects;
 import org.dizitart.no2.FindOptions;
 import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.RecordIterable;
+import org.dizitart.no2.filters.QueryPlan;
 
 /**
  * A collection of {@link NitriteId}s of the database records,
@@ -25,4 +26,11 @@ public interface Cursor<T> extends RecordIterable<T> {
      * @return `Iterable` of projected objects.
      */
     <P> RecordIterable<P> project(Class<P> projectionType);
+
+    /**
+     * Gets the query plan used to find the result.
+     *
+     * @return the query plan.
+     */
+    QueryPlan explain();
 }
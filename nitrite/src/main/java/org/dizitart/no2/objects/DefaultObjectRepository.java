@@ -9,6 +9,7 @@ import org.dizitart.no2.exceptions.NotIdentifiableException;
 import org.dizitart.no2.exceptions.ValidationException;
 import org.dizitart.no2.internals.NitriteMapper;
 import org.dizitart.no2.meta.Attributes;
+import org.dizitart.no2.objects.filters.BaseObjectFilter;
 
 import java.lang.reflect.Field;
 import java.util.Collection;
@@ -153,7 +154,7 @@ class DefaultObjectRepository<T> implements ObjectRepository<T> {
     @Override
     public WriteResult remove(ObjectFilter filter) {
         validateCollection();
-        return remove(prepare(filter), new RemoveOptions());
+        return remove(filter, new RemoveOptions());
     }
 
     @Override
@@ -176,6 +177,12 @@ class DefaultObjectRepository<T> implements ObjectRepository<T> {
                 collection.find(prepare(filter)), type);
     }
 
+    @Override
+    public long count(ObjectFilter filter) {
+        validateCollection();
+        return collection.count(prepare(filter));
+    }
+
     @Override
     public Cursor<T> find(FindOptions findOptions) {
         validateCollection();
@@ -315,9 +322,13 @@ class DefaultObjectRepository<T> implements ObjectRepository<T> {
         }
     }
 
-    private ObjectFilter prepare(ObjectFilter objectFilter) {
+    private Filter prepare(ObjectFilter objectFilter) {
         if (objectFilter != null) {
             objectFilter.setNitriteMapper(nitriteMapper);
+            if (objectFilter instanceof BaseObjectFilter) {
+                // let the query planner see the document filters within
+                return ((BaseObjectFilter) objectFilter).asFilter();
+            }
             return objectFilter;
         }
         return null;
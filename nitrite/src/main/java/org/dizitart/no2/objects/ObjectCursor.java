@@ -2,6 +2,7 @@ package org.dizitart.no2.objects;
 
 import org.dizitart.no2.*;
 import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.filters.QueryPlan;
 import org.dizitart.no2.internals.NitriteMapper;
 import org.dizitart.no2.util.Iterables;
 
@@ -38,6 +39,11 @@ class ObjectCursor<T> implements Cursor<T> {
         return new ProjectedObjectIterable<>(nitriteMapper, cursor.project(dummyDoc), projectionType);
     }
 
+    @Override
+    public QueryPlan explain() {
+        return cursor.explain();
+    }
+
     @Override
     public boolean hasMore() {
         return cursor.hasMore();
@@ -283,6 +283,21 @@ public interface ObjectRepository<T> extends PersistentCollection<T> {
      */
     Cursor<T> find(ObjectFilter filter, FindOptions findOptions);
 
+    /**
+     * Counts the objects selected by a filter, without reading them.
+     *
+     * If the `filter` is `null`, it will count all objects in the collection.
+     *
+     * [icon="{@docRoot}/note.png"]
+     * NOTE: Equality and range filters on an indexed value are counted from
+     * the index alone.
+     *
+     * @param filter the filter to apply to select objects from collection.
+     * @return the number of selected objects.
+     * @see org.dizitart.no2.objects.filters.ObjectFilters
+     */
+    long count(ObjectFilter filter);
+
     /**
      * Returns the type associated with the {@link ObjectRepository}.
      *
@@ -25,12 +25,15 @@ class AndObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
-        for (ObjectFilter filter : filters) {
-            filter.setNitriteService(nitriteService);
-            filter.setNitriteMapper(nitriteMapper);
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
+        Filter[] documentFilters = new Filter[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            documentFilters[i] = asFilter(filters[i]);
         }
-        Filter and = Filters.and(filters);
-        and.setNitriteService(nitriteService);
-        return and.apply(documentMap);
+        return Filters.and(documentFilters);
     }
 }
@@ -1,8 +1,14 @@
 package org.dizitart.no2.objects.filters;
 
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.NitriteId;
 import org.dizitart.no2.internals.NitriteMapper;
 import org.dizitart.no2.internals.NitriteService;
 import org.dizitart.no2.objects.ObjectFilter;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Set;
 
 /**
  * An abstract implementation of {@link ObjectFilter}.
@@ -30,4 +36,30 @@ public abstract class BaseObjectFilter implements ObjectFilter {
     public void setNitriteMapper(NitriteMapper nitriteMapper) {
         this.nitriteMapper = nitriteMapper;
     }
+
+    /**
+     * Gets the equivalent document filter of the object filter, so that
+     * the query planner can choose an index for it. A filter without any
+     * equivalent returns itself.
+     *
+     * @return the document filter.
+     */
+    public Filter asFilter() {
+        return this;
+    }
+
+    Filter asFilter(ObjectFilter filter) {
+        filter.setNitriteService(nitriteService);
+        filter.setNitriteMapper(nitriteMapper);
+        if (filter instanceof BaseObjectFilter) {
+            return ((BaseObjectFilter) filter).asFilter();
+        }
+        return filter;
+    }
+
+    Set<NitriteId> applyAsFilter(NitriteMap<NitriteId, Document> documentMap) {
+        Filter filter = asFilter();
+        filter.setNitriteService(nitriteService);
+        return filter.apply(documentMap);
+    }
 }
@@ -0,0 +1,55 @@
+package org.dizitart.no2.objects.filters;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.dizitart.no2.Document;
+import org.dizitart.no2.Filter;
+import org.dizitart.no2.NitriteId;
+import org.dizitart.no2.filters.Filters;
+import org.dizitart.no2.store.NitriteMap;
+
+import java.util.Set;
+
+import static org.dizitart.no2.util.ValidationUtils.validateSearchTerm;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+@Getter
+@ToString
+class BetweenObjectFilter extends BaseObjectFilter {
+    private String field;
+    private Object lowerBound;
+    private boolean lowerInclusive;
+    private Object upperBound;
+    private boolean upperInclusive;
+
+    BetweenObjectFilter(String field, Object lowerBound, boolean lowerInclusive,
+                        Object upperBound, boolean upperInclusive) {
+        this.field = field;
+        this.lowerBound = lowerBound;
+        this.lowerInclusive = lowerInclusive;
+        this.upperBound = upperBound;
+        this.upperInclusive = upperInclusive;
+    }
+
+    @Override
+    public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
+        validateSearchTerm(nitriteMapper, field, lowerBound);
+        validateSearchTerm(nitriteMapper, field, upperBound);
+        return Filters.between(field, asComparable(lowerBound), lowerInclusive,
+                asComparable(upperBound), upperInclusive);
+    }
+
+    private Object asComparable(Object value) {
+        if (nitriteMapper.isValueType(value)) {
+            return nitriteMapper.asValue(value);
+        }
+        return value;
+    }
+}
@@ -28,16 +28,17 @@ class EqualsObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
 
-        Filter eqFilter;
         if (nitriteMapper.isValueType(value)) {
-            eqFilter = Filters.eq(field, nitriteMapper.asValue(value));
+            return Filters.eq(field, nitriteMapper.asValue(value));
         } else {
-            eqFilter = Filters.eq(field, value);
+            return Filters.eq(field, value);
         }
-
-        eqFilter.setNitriteService(nitriteService);
-        return eqFilter.apply(documentMap);
     }
 }
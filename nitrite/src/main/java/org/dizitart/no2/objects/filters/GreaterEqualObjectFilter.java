@@ -28,6 +28,11 @@ class GreaterEqualObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
         Comparable comparable;
         if (nitriteMapper.isValueType(value)) {
@@ -35,9 +40,6 @@ class GreaterEqualObjectFilter extends BaseObjectFilter {
         } else {
             comparable = (Comparable) value;
         }
-
-        Filter gte = Filters.gte(field, comparable);
-        gte.setNitriteService(nitriteService);
-        return gte.apply(documentMap);
+        return Filters.gte(field, comparable);
     }
 }
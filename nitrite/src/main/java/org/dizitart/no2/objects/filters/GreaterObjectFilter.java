@@ -28,6 +28,11 @@ class GreaterObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
         Comparable comparable;
         if (nitriteMapper.isValueType(value)) {
@@ -35,9 +40,6 @@ class GreaterObjectFilter extends BaseObjectFilter {
         } else  {
             comparable = (Comparable) value;
         }
-
-        Filter gt = Filters.gt(field, comparable);
-        gt.setNitriteService(nitriteService);
-        return gt.apply(documentMap);
+        return Filters.gt(field, comparable);
     }
 }
@@ -35,6 +35,11 @@ class InObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateInFilterValue(field, values);
 
         Object[] valueArray = new Object[values.length];
@@ -49,9 +54,6 @@ class InObjectFilter extends BaseObjectFilter {
                 valueArray[i] = values[i];
             }
         }
-
-        Filter in = Filters.in(field, valueArray);
-        in.setNitriteService(nitriteService);
-        return in.apply(documentMap);
+        return Filters.in(field, valueArray);
     }
 }
@@ -28,6 +28,11 @@ class LessThanObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
         Comparable comparable;
         if (nitriteMapper.isValueType(value)) {
@@ -35,9 +40,6 @@ class LessThanObjectFilter extends BaseObjectFilter {
         } else {
             comparable = (Comparable) value;
         }
-
-        Filter lt = Filters.lt(field, comparable);
-        lt.setNitriteService(nitriteService);
-        return lt.apply(documentMap);
+        return Filters.lt(field, comparable);
     }
 }
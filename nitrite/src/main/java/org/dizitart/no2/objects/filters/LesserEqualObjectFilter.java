@@ -28,6 +28,11 @@ class LesserEqualObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
         Comparable comparable;
         if (nitriteMapper.isValueType(value)) {
@@ -35,9 +40,6 @@ class LesserEqualObjectFilter extends BaseObjectFilter {
         } else {
             comparable = (Comparable) value;
         }
-
-        Filter lte = Filters.lte(field, comparable);
-        lte.setNitriteService(nitriteService);
-        return lte.apply(documentMap);
+        return Filters.lte(field, comparable);
     }
 }
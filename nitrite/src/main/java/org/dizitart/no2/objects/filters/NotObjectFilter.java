@@ -25,11 +25,11 @@ class NotObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
-        filter.setNitriteService(nitriteService);
-        filter.setNitriteMapper(nitriteMapper);
+        return applyAsFilter(documentMap);
+    }
 
-        Filter not = Filters.not(filter);
-        not.setNitriteService(nitriteService);
-        return not.apply(documentMap);
+    @Override
+    public Filter asFilter() {
+        return Filters.not(asFilter(filter));
     }
 }
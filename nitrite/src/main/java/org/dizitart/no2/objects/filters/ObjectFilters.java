@@ -183,6 +183,52 @@ public class ObjectFilters {
         return new LesserEqualObjectFilter(field, value);
     }
 
+    /**
+     * Creates a between filter which matches those objects where the value
+     * of the field lies between the specified values, both inclusive.
+     *
+     * [[app-listing]]
+     * [source,java]
+     * .Example
+     * --
+     * // matches all objects where 'age' field has value from 30 to 40
+     * repository.find(between("age", 30, 40));
+     * --
+     *
+     * @param field      the value
+     * @param lowerBound the lower bound
+     * @param upperBound the upper bound
+     * @return the between filter
+     */
+    public static ObjectFilter between(String field, Object lowerBound, Object upperBound) {
+        return new BetweenObjectFilter(field, lowerBound, true, upperBound, true);
+    }
+
+    /**
+     * Creates a between filter which matches those objects where the value
+     * of the field lies between the specified values.
+     *
+     * [[app-listing]]
+     * [source,java]
+     * .Example
+     * --
+     * // matches all objects where 'age' field has value from 30 to less than 40
+     * repository.find(between("age", 30, true, 40, false));
+     * --
+     *
+     * @param field          the value
+     * @param lowerBound     the lower bound
+     * @param lowerInclusive if the lower bound is inclusive
+     * @param upperBound     the upper bound
+     * @param upperInclusive if the upper bound is inclusive
+     * @return the between filter
+     */
+    public static ObjectFilter between(String field, Object lowerBound, boolean lowerInclusive,
+                                       Object upperBound, boolean upperInclusive) {
+        return new BetweenObjectFilter(field, lowerBound, lowerInclusive,
+                upperBound, upperInclusive);
+    }
+
     /**
      * Creates a text filter which performs a text search on the content of the fields
      * indexed with a full-text index.
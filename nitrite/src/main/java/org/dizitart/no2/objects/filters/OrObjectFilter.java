@@ -25,12 +25,15 @@ class OrObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
-        for (ObjectFilter filter : filters) {
-            filter.setNitriteService(nitriteService);
-            filter.setNitriteMapper(nitriteMapper);
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
+        Filter[] documentFilters = new Filter[filters.length];
+        for (int i = 0; i < filters.length; i++) {
+            documentFilters[i] = asFilter(filters[i]);
         }
-        Filter or = Filters.or(filters);
-        or.setNitriteService(nitriteService);
-        return or.apply(documentMap);
+        return Filters.or(documentFilters);
     }
 }
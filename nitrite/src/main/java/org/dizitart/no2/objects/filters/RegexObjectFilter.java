@@ -28,9 +28,12 @@ class RegexObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
-        Filter regex = Filters.regex(field, value);
-        regex.setNitriteService(nitriteService);
-        return regex.apply(documentMap);
+        return Filters.regex(field, value);
     }
 }
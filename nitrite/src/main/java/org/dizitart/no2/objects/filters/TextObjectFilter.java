@@ -28,9 +28,12 @@ class TextObjectFilter extends BaseObjectFilter {
 
     @Override
     public Set<NitriteId> apply(NitriteMap<NitriteId, Document> documentMap) {
+        return applyAsFilter(documentMap);
+    }
+
+    @Override
+    public Filter asFilter() {
         validateSearchTerm(nitriteMapper, field, value);
-        Filter text = Filters.text(field, value);
-        text.setNitriteService(nitriteService);
-        return text.apply(documentMap);
+        return Filters.text(field, value);
     }
 }
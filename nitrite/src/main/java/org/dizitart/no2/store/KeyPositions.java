@@ -0,0 +1,172 @@
+package org.dizitart.no2.store;
+
+import java.util.Comparator;
+
+/**
+ * The keys of an {@link OffHeapMap} in a balanced search tree whose nodes
+ * count the keys of their subtree, so that the position of a key and the
+ * key at a position are both found in logarithmic time. The tree is a
+ * treap, balanced by the random priority of each node.
+ *
+ * It is not thread safe, a map updates and reads it under the lock of
+ * its arena.
+ *
+ * @author Anindya Chatterjee.
+ */
+class KeyPositions<Key> {
+    private final Comparator<? super Key> comparator;
+    private Node<Key> root;
+    private int seed = 0x2545F491;
+
+    KeyPositions(Comparator<? super Key> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds a key which is not in the tree yet.
+     */
+    void add(Key key) {
+        root = insert(root, key, nextPriority());
+    }
+
+    /**
+     * Removes a key of the tree.
+     */
+    void remove(Key key) {
+        root = delete(root, key);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    /**
+     * Gets the number of keys less than `key`.
+     */
+    long indexOf(Key key) {
+        long index = 0;
+        Node<Key> node = root;
+        while (node != null) {
+            int compare = comparator.compare(key, node.key);
+            if (compare < 0) {
+                node = node.left;
+            } else if (compare == 0) {
+                return index + size(node.left);
+            } else {
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Gets the key at a position, or `null` if there is none.
+     */
+    Key get(long index) {
+        Node<Key> node = root;
+        while (node != null) {
+            long leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.key;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        return null;
+    }
+
+    private Node<Key> insert(Node<Key> node, Key key, int priority) {
+        if (node == null) return new Node<>(key, priority);
+
+        if (comparator.compare(key, node.key) < 0) {
+            node.left = insert(node.left, key, priority);
+            if (node.left.priority > node.priority) return rotateRight(node);
+        } else {
+            node.right = insert(node.right, key, priority);
+            if (node.right.priority > node.priority) return rotateLeft(node);
+        }
+        update(node);
+        return node;
+    }
+
+    private Node<Key> delete(Node<Key> node, Key key) {
+        if (node == null) return null;
+
+        int compare = comparator.compare(key, node.key);
+        if (compare < 0) {
+            node.left = delete(node.left, key);
+        } else if (compare > 0) {
+            node.right = delete(node.right, key);
+        } else {
+            return merge(node.left, node.right);
+        }
+        update(node);
+        return node;
+    }
+
+    // joins two trees, all keys of `left` being less than those of `right`
+    private Node<Key> merge(Node<Key> left, Node<Key> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    private Node<Key> rotateRight(Node<Key> node) {
+        Node<Key> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<Key> rotateLeft(Node<Key> node) {
+        Node<Key> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Node<Key> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static long size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    // xorshift, the priorities only need to be spread evenly
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static class Node<Key> {
+        private final Key key;
+        private final int priority;
+        private Node<Key> left;
+        private Node<Key> right;
+        private long size = 1;
+
+        Node(Key key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+}
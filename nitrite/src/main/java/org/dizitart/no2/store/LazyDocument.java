@@ -0,0 +1,277 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.KeyValuePair;
+import org.dizitart.no2.NitriteId;
+import org.h2.mvstore.DataUtils;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.dizitart.no2.Constants.DOC_ID;
+
+/**
+ * A {@link Document} read from a {@link NitriteMap}, whose fields are
+ * decoded from their stored form only when they are asked for.
+ *
+ * A lookup of a single field, like a filter evaluating a document during
+ * a collection scan, decodes the value of that field alone and skips the
+ * others by their length. Any other access decodes all fields into the
+ * document once, after which the stored form is discarded and the
+ * document behaves as any other {@link Document}.
+ *
+ * [icon="{@docRoot}/note.png"]
+ * NOTE: A {@link NitriteMap} decodes its documents fully before handing
+ * them out through {@link NitriteMap#get(Object)}, as the methods a
+ * {@link Map} gained in java 8 read the entries directly. The documents
+ * of {@link NitriteMap#entrySet()} and {@link NitriteMap#entryIterator}
+ * are decoded lazily, for the scans of the database.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ */
+class LazyDocument extends Document {
+    private static final long serialVersionUID = 1518007263L;
+
+    private final transient NitriteDataType dataType;
+    // the field count and the fields, null once decoded
+    private transient volatile byte[] data;
+    private final transient int fieldCount;
+    private final transient int storedSize;
+
+    LazyDocument(NitriteDataType dataType, byte[] data) {
+        this.dataType = dataType;
+        this.data = data;
+        this.fieldCount = DataUtils.readVarInt(ByteBuffer.wrap(data));
+        this.storedSize = data.length;
+    }
+
+    /**
+     * Decodes all fields of the document, if not decoded already.
+     *
+     * @param value a value of a {@link NitriteMap}
+     * @return the value.
+     */
+    static <V> V materialize(V value) {
+        if (value instanceof LazyDocument) {
+            ((LazyDocument) value).materialize();
+        }
+        return value;
+    }
+
+    /**
+     * Gets the stored form of the fields, if not decoded yet.
+     *
+     * @return the stored form or `null`.
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Specifies if all fields of the document are decoded.
+     *
+     * @return `true` if decoded; otherwise `false`.
+     */
+    boolean isMaterialized() {
+        return data == null;
+    }
+
+    /**
+     * Gets the size of the stored form of the fields.
+     *
+     * @return the size in bytes.
+     */
+    int getStoredSize() {
+        return storedSize;
+    }
+
+    @Override
+    public Object get(String key) {
+        byte[] bytes = data;
+        if (bytes == null) return super.get(key);
+        ByteBuffer buff = find(bytes, key);
+        return buff == null ? null : dataType.readValue(buff);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (key instanceof String) return get((String) key);
+        materialize();
+        return super.get(key);
+    }
+
+    @Override
+    public <T> T get(String key, Class<T> type) {
+        if (data == null) return super.get(key, type);
+        return type.cast(get(key));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        byte[] bytes = data;
+        if (bytes == null || !(key instanceof String)) {
+            materialize();
+            return super.containsKey(key);
+        }
+        return find(bytes, (String) key) != null;
+    }
+
+    @Override
+    public int size() {
+        return data == null ? super.size() : fieldCount;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public NitriteId getId() {
+        materialize();
+        return super.getId();
+    }
+
+    @Override
+    public Document put(String key, Object value) {
+        materialize();
+        return super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> m) {
+        materialize();
+        super.putAll(m);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        materialize();
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        data = null;
+        super.clear();
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        materialize();
+        return super.containsValue(value);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        materialize();
+        return super.keySet();
+    }
+
+    @Override
+    public Collection<Object> values() {
+        materialize();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        materialize();
+        return super.entrySet();
+    }
+
+    @Override
+    public Iterator<KeyValuePair> iterator() {
+        materialize();
+        return super.iterator();
+    }
+
+    @Override
+    public Object clone() {
+        materialize();
+        return super.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        materialize();
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        materialize();
+        return super.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        materialize();
+        return super.toString();
+    }
+
+    void materialize() {
+        if (data == null) return;
+
+        synchronized (this) {
+            byte[] bytes = data;
+            if (bytes == null) return;
+
+            ByteBuffer buff = ByteBuffer.wrap(bytes);
+            int count = DataUtils.readVarInt(buff);
+            for (int i = 0; i < count; i++) {
+                String name = DataUtils.readString(buff, DataUtils.readVarInt(buff));
+                buff.getInt();
+                Object value = dataType.readValue(buff);
+                if (DOC_ID.equals(name)) {
+                    super.putAll(Collections.singletonMap(name, value));
+                } else {
+                    super.put(name, value);
+                }
+            }
+            // lazy readers switch to the decoded fields from here on
+            data = null;
+        }
+    }
+
+    // a plain document is serialized instead, as the stored form is transient
+    private Object writeReplace() {
+        materialize();
+        return new Document(this);
+    }
+
+    // positions a buffer at the value of a field, skipping the other values
+    private static ByteBuffer find(byte[] bytes, String key) {
+        ByteBuffer buff = ByteBuffer.wrap(bytes);
+        int count = DataUtils.readVarInt(buff);
+        for (int i = 0; i < count; i++) {
+            boolean matched = readName(buff, DataUtils.readVarInt(buff), key);
+            int length = buff.getInt();
+            if (matched) return buff;
+            buff.position(buff.position() + length);
+        }
+        return null;
+    }
+
+    // compares a field name with the key while reading it, in the
+    // encoding of WriteBuffer.putStringData
+    private static boolean readName(ByteBuffer buff, int length, String key) {
+        boolean matched = length == key.length();
+        for (int i = 0; i < length; i++) {
+            int x = buff.get() & 0xff;
+            char c;
+            if (x < 0x80) {
+                c = (char) x;
+            } else if (x >= 0xe0) {
+                c = (char) (((x & 0xf) << 12) + ((buff.get() & 0x3f) << 6) + (buff.get() & 0x3f));
+            } else {
+                c = (char) (((x & 0x1f) << 6) + (buff.get() & 0x3f));
+            }
+            if (matched && c != key.charAt(i)) {
+                matched = false;
+            }
+        }
+        return matched;
+    }
+}
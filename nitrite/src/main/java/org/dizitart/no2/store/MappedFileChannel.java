@@ -0,0 +1,259 @@
+package org.dizitart.no2.store;
+
+import org.h2.store.fs.FileBase;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A {@link FileChannel} which reads and writes the mapped range of a file
+ * through a {@link MappedByteBuffer}, and the rest of it through the file
+ * channel it wraps.
+ *
+ * The mapping is immutable and published through a volatile field, so a
+ * positional read does not take the lock of the channel and concurrent
+ * readers each read through their own duplicate of it. Once the file has
+ * grown past the mapping by a large step, a new mapping of the whole file
+ * is published, until then the tail is read through the channel. A
+ * replaced mapping is neither forced, as it shares its pages with the new
+ * one, nor released, as a reader may still use it; it is left to the
+ * collector.
+ *
+ * A mapping is only released on close, or when the platform refuses to
+ * truncate a mapped file. Reading unmapped memory crashes the jvm, so the
+ * readers share a read lock while they use a mapping and a release waits
+ * for them under the write lock.
+ *
+ * The channel is the only writer of the file, as the store holds a lock
+ * on it, so the size of the file is tracked instead of being asked for on
+ * each read. The mapped range beyond a truncated size is not used anymore.
+ *
+ * @author Anindya Chatterjee.
+ */
+class MappedFileChannel extends FileBase {
+    private static final long MAX_MAPPED_SIZE = Integer.MAX_VALUE;
+    // the least growth of the file which is mapped again
+    private static final long MIN_REMAP_STEP = 4 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final boolean readOnly;
+    private volatile Mapping mapping;
+    private volatile long fileSize;
+    private long position;
+    // shared by the readers of a mapping, exclusive to its release
+    private final ReadWriteLock releaseLock = new ReentrantReadWriteLock();
+
+    MappedFileChannel(FileChannel channel, boolean readOnly) throws IOException {
+        this.channel = channel;
+        this.readOnly = readOnly;
+        this.fileSize = channel.size();
+        this.mapping = map(fileSize);
+    }
+
+    @Override
+    public long size() throws IOException {
+        return fileSize;
+    }
+
+    @Override
+    public synchronized long position() throws IOException {
+        return position;
+    }
+
+    @Override
+    public synchronized FileChannel position(long newPosition) throws IOException {
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized int read(ByteBuffer dst) throws IOException {
+        int read = read(dst, position);
+        if (read > 0) {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+        long size = fileSize;
+        if (position >= size) return -1;
+
+        Mapping current = mapping;
+        if (position + dst.remaining() > current.size && size - current.size >= remapStep(current)) {
+            // outside of the read lock, as a release holds the channel lock
+            remap();
+        }
+
+        releaseLock.readLock().lock();
+        try {
+            // a mapping read under the lock is not released until it is unlocked
+            current = mapping;
+            long mappedEnd = Math.min(current.size, size);
+            if (position >= mappedEnd) {
+                return channel.read(dst, position);
+            }
+
+            int length = (int) Math.min(dst.remaining(), mappedEnd - position);
+            ByteBuffer source = current.buffer.duplicate();
+            source.position((int) position);
+            source.limit((int) position + length);
+            dst.put(source);
+            return length;
+        } finally {
+            releaseLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public synchronized int write(ByteBuffer src) throws IOException {
+        int written = write(src, position);
+        position += written;
+        return written;
+    }
+
+    @Override
+    public synchronized int write(ByteBuffer src, long position) throws IOException {
+        int length = src.remaining();
+        long offset = position;
+        Mapping current = mapping;
+        long mappedEnd = Math.min(current.size, fileSize);
+        if (offset < mappedEnd) {
+            int inMapped = (int) Math.min(length, mappedEnd - offset);
+            ByteBuffer part = src.duplicate();
+            part.limit(part.position() + inMapped);
+            ByteBuffer target = current.buffer.duplicate();
+            target.position((int) offset);
+            target.put(part);
+            src.position(src.position() + inMapped);
+            offset += inMapped;
+        }
+        while (src.hasRemaining()) {
+            offset += channel.write(src, offset);
+        }
+        fileSize = Math.max(fileSize, offset);
+        return length;
+    }
+
+    @Override
+    public synchronized FileChannel truncate(long newSize) throws IOException {
+        if (newSize >= fileSize) return this;
+
+        // readers stop at the new size before the file is cut
+        fileSize = newSize;
+        position = Math.min(position, newSize);
+        try {
+            channel.truncate(newSize);
+        } catch (IOException e) {
+            // some platforms refuse to truncate a file which is mapped
+            if (mapping.buffer == null) throw e;
+            releaseMapping();
+            channel.truncate(newSize);
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized void force(boolean metaData) throws IOException {
+        Mapping current = mapping;
+        if (current.buffer != null && !readOnly) {
+            current.buffer.force();
+        }
+        channel.force(metaData);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+        return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected synchronized void implCloseChannel() throws IOException {
+        Mapping current = mapping;
+        if (current.buffer != null && !readOnly) {
+            current.buffer.force();
+        }
+        releaseMapping();
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return MappedFilePath.SCHEME + ":" + channel;
+    }
+
+    // maps the whole file again, unless another reader already did
+    private synchronized void remap() throws IOException {
+        Mapping current = mapping;
+        if (fileSize - current.size >= remapStep(current)) {
+            mapping = map(fileSize);
+        }
+    }
+
+    /**
+     * Unpublishes the mapping and releases it once its readers are done.
+     * The next read beyond the tracked size of the file maps it again.
+     */
+    void releaseMapping() {
+        releaseLock.writeLock().lock();
+        try {
+            Mapping current = mapping;
+            mapping = Mapping.EMPTY;
+            if (current.buffer != null) {
+                release(current.buffer);
+            }
+        } finally {
+            releaseLock.writeLock().unlock();
+        }
+    }
+
+    private Mapping map(long size) throws IOException {
+        size = Math.min(size, MAX_MAPPED_SIZE);
+        if (size <= 0) return Mapping.EMPTY;
+        return new Mapping(channel.map(readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE, 0, size), size);
+    }
+
+    // the mapping grows by at least a quarter of its size, so that a
+    // growing file is mapped only a logarithmic number of times
+    private static long remapStep(Mapping mapping) {
+        if (mapping.size >= MAX_MAPPED_SIZE) return Long.MAX_VALUE;
+        return Math.max(MIN_REMAP_STEP, mapping.size / 4);
+    }
+
+    // unmaps the buffer right away instead of waiting for it to be
+    // collected, otherwise some platforms refuse to truncate the file;
+    // if the buffer can not be cleaned, it is left to the collector
+    private static void release(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Exception ignore) {
+            // not supported by this jvm
+        }
+    }
+
+    private static class Mapping {
+        private static final Mapping EMPTY = new Mapping(null, 0);
+
+        private final MappedByteBuffer buffer;
+        private final long size;
+
+        Mapping(MappedByteBuffer buffer, long size) {
+            this.buffer = buffer;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.dizitart.no2.store;
+
+import org.h2.store.fs.FilePath;
+import org.h2.store.fs.FilePathWrapper;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+/**
+ * A {@link FilePath} which opens the file of a {@link org.h2.mvstore.MVStore}
+ * through a memory-mapped channel. A file name prefixed with
+ * `nitriteMapped:` is resolved by this file path, once it is registered.
+ *
+ * The pages of the file are read straight from the mapped memory, without
+ * a system call per read. Writes into the mapped range of the file go to
+ * the mapped memory as well, writes beyond it are appended through the
+ * file channel. A read-only file is mapped read-only.
+ *
+ * [icon="{@docRoot}/note.png"]
+ * NOTE: A single mapping covers at most the first 2 GB of a file, the
+ * rest of a larger file is read through the file channel.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ * @see org.dizitart.no2.NitriteBuilder#memoryMapped()
+ */
+public class MappedFilePath extends FilePathWrapper {
+    /**
+     * The scheme of a memory-mapped file name.
+     */
+    public static final String SCHEME = "nitriteMapped";
+
+    private static final MappedFilePath INSTANCE = new MappedFilePath();
+    private static volatile boolean registered;
+
+    /**
+     * Registers the file path for the `nitriteMapped:` scheme, if
+     * not registered already.
+     */
+    public static void register() {
+        if (!registered) {
+            synchronized (MappedFilePath.class) {
+                if (!registered) {
+                    FilePath.register(INSTANCE);
+                    registered = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the memory-mapped file name of a file.
+     *
+     * @param fileName the name of the file
+     * @return the file name prefixed with the scheme.
+     */
+    public static String mappedFileName(String fileName) {
+        return SCHEME + ":" + fileName;
+    }
+
+    @Override
+    public FileChannel open(String mode) throws IOException {
+        // the file channels of h2 can not be mapped, so the channel of
+        // the file is opened directly
+        FileChannel channel = new RandomAccessFile(getBase().toString(), mode).getChannel();
+        return new MappedFileChannel(channel, "r".equals(mode));
+    }
+
+    @Override
+    public String getScheme() {
+        return SCHEME;
+    }
+}
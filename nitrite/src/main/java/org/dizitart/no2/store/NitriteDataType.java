@@ -0,0 +1,200 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.h2.mvstore.DataUtils;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.ObjectDataType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.dizitart.no2.Constants.DOC_ID;
+
+/**
+ * The data type of the keys and values of a {@link NitriteMap}.
+ *
+ * A {@link NitriteId} is written as a tag byte followed by its long
+ * value, instead of being serialized as a java object, and is compared
+ * without being deserialized first.
+ *
+ * A {@link Document} is written as a tag byte, its length, the number of
+ * its fields and each field name followed by the length of its value and
+ * the value, so that a reader can skip a document or a field without
+ * decoding it. An {@link ArrayList} is written as a tag byte, its size and
+ * its elements. The values are written by this data type again, so numbers
+ * and strings take their variable length form and embedded documents and
+ * lists are written the same way, without any class descriptor or
+ * reflection. Only a value of any other type falls back to java
+ * serialization.
+ *
+ * A document read from a page is a {@link LazyDocument}, which keeps its
+ * stored form until its fields are asked for. A document which was not
+ * decoded is written back by copying its stored form.
+ *
+ * Every other object is written the way an {@link ObjectDataType} writes
+ * it, so that a page written by an earlier version, where the ids and the
+ * documents are serialized java objects, is still readable and is
+ * rewritten in the compact form on its next write.
+ *
+ * [icon="{@docRoot}/note.png"]
+ * NOTE: A store written with this data type can not be read by a
+ * version of nitrite which does not know the compact forms.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ */
+class NitriteDataType extends ObjectDataType {
+    // the tags up to 119 are used by ObjectDataType
+    static final byte TAG_NITRITE_ID = 120;
+    static final byte TAG_DOCUMENT = 121;
+    static final byte TAG_LIST = 122;
+
+    // a NitriteId and its header, as estimated by the memory of a Long
+    private static final int NITRITE_ID_MEMORY = 40;
+    // a hash map and a list, and an entry or a slot of each
+    private static final int MAP_MEMORY = 64;
+    private static final int ENTRY_MEMORY = 48;
+    private static final int LIST_MEMORY = 40;
+    private static final int SLOT_MEMORY = 8;
+
+    @Override
+    public void write(WriteBuffer buff, Object obj) {
+        if (obj instanceof NitriteId) {
+            buff.put(TAG_NITRITE_ID).putLong(((NitriteId) obj).getValue());
+        } else if (obj instanceof LazyDocument) {
+            byte[] data = ((LazyDocument) obj).getData();
+            if (data != null) {
+                buff.put(TAG_DOCUMENT).putInt(data.length).put(data);
+            } else {
+                writeDocument(buff, (Document) obj);
+            }
+        } else if (obj != null && obj.getClass() == Document.class) {
+            writeDocument(buff, (Document) obj);
+        } else if (obj != null && obj.getClass() == ArrayList.class) {
+            writeList(buff, (ArrayList<?>) obj);
+        } else {
+            super.write(buff, obj);
+        }
+    }
+
+    @Override
+    public Object read(ByteBuffer buff) {
+        if (buff.get(buff.position()) == TAG_DOCUMENT) {
+            // decoded when its fields are asked for
+            buff.get();
+            byte[] data = new byte[buff.getInt()];
+            buff.get(data);
+            return new LazyDocument(this, data);
+        }
+        return readValue(buff);
+    }
+
+    /**
+     * Reads a value, decoding an embedded document right away.
+     *
+     * @param buff the buffer to read from
+     * @return the value.
+     */
+    Object readValue(ByteBuffer buff) {
+        switch (buff.get(buff.position())) {
+            case TAG_NITRITE_ID:
+                buff.get();
+                return NitriteId.createId(buff.getLong());
+            case TAG_DOCUMENT:
+                buff.get();
+                return readDocument(buff);
+            case TAG_LIST:
+                buff.get();
+                return readList(buff);
+            default:
+                return super.read(buff);
+        }
+    }
+
+    @Override
+    public int compare(Object a, Object b) {
+        if (a instanceof NitriteId && b instanceof NitriteId) {
+            return ((NitriteId) a).compareTo((NitriteId) b);
+        }
+        return super.compare(a, b);
+    }
+
+    @Override
+    public int getMemory(Object obj) {
+        if (obj instanceof NitriteId) {
+            return NITRITE_ID_MEMORY;
+        } else if (obj instanceof LazyDocument && !((LazyDocument) obj).isMaterialized()) {
+            return MAP_MEMORY + ((LazyDocument) obj).getStoredSize();
+        } else if (obj instanceof Document) {
+            // estimated from its fields, as a serialized object would
+            // be serialized to find its size
+            int memory = MAP_MEMORY;
+            for (Map.Entry<String, Object> entry : ((Document) obj).entrySet()) {
+                memory += ENTRY_MEMORY + super.getMemory(entry.getKey())
+                        + getMemory(entry.getValue());
+            }
+            return memory;
+        } else if (obj != null && obj.getClass() == ArrayList.class) {
+            int memory = LIST_MEMORY;
+            for (Object element : (ArrayList<?>) obj) {
+                memory += SLOT_MEMORY + getMemory(element);
+            }
+            return memory;
+        }
+        return super.getMemory(obj);
+    }
+
+    private void writeDocument(WriteBuffer buff, Document document) {
+        buff.put(TAG_DOCUMENT);
+        int start = buff.position();
+        buff.putInt(0).putVarInt(document.size());
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            String name = entry.getKey();
+            buff.putVarInt(name.length()).putStringData(name, name.length());
+
+            int valueStart = buff.position();
+            buff.putInt(0);
+            write(buff, entry.getValue());
+            buff.putInt(valueStart, buff.position() - valueStart - 4);
+        }
+        buff.putInt(start, buff.position() - start - 4);
+    }
+
+    private Document readDocument(ByteBuffer buff) {
+        buff.getInt();
+        int size = DataUtils.readVarInt(buff);
+        Document document = new Document();
+        for (int i = 0; i < size; i++) {
+            String name = DataUtils.readString(buff, DataUtils.readVarInt(buff));
+            buff.getInt();
+            Object value = readValue(buff);
+            if (DOC_ID.equals(name)) {
+                // restored as stored, Document.put would validate the value
+                // of an _id, which an embedded document might not comply with
+                document.putAll(Collections.singletonMap(name, value));
+            } else {
+                document.put(name, value);
+            }
+        }
+        return document;
+    }
+
+    private void writeList(WriteBuffer buff, ArrayList<?> list) {
+        buff.put(TAG_LIST).putVarInt(list.size());
+        for (Object element : list) {
+            write(buff, element);
+        }
+    }
+
+    private ArrayList<Object> readList(ByteBuffer buff) {
+        int size = DataUtils.readVarInt(buff);
+        ArrayList<Object> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readValue(buff));
+        }
+        return list;
+    }
+}
@@ -1,14 +1,15 @@
 package org.dizitart.no2.store;
 
+import org.dizitart.no2.exceptions.InvalidOperationException;
 import org.dizitart.no2.meta.Attributes;
+import org.h2.mvstore.Cursor;
 import org.h2.mvstore.MVMap;
 
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 import static org.dizitart.no2.Constants.META_MAP_NAME;
+import static org.dizitart.no2.exceptions.ErrorMessage.REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED;
+import static org.dizitart.no2.store.LazyDocument.materialize;
 import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
 
 /**
@@ -19,9 +20,9 @@ import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
  */
 class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
     private MVMap<Key, Value> mvMap;
-    private NitriteStore nitriteStore;
+    private NitriteMVStore nitriteStore;
 
-    NitriteMVMap(MVMap<Key, Value> mvMap, NitriteStore nitriteStore) {
+    NitriteMVMap(MVMap<Key, Value> mvMap, NitriteMVStore nitriteStore) {
         this.mvMap = mvMap;
         this.nitriteStore = nitriteStore;
     }
@@ -33,7 +34,7 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
 
     @Override
     public Value get(Key key) {
-        return mvMap.get(key);
+        return materialize(mvMap.get(key));
     }
 
     @Override
@@ -60,7 +61,7 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
     @Override
     public Value remove(Key key) {
         updateAttributes();
-        return mvMap.remove(key);
+        return materialize(mvMap.remove(key));
     }
 
     @Override
@@ -87,7 +88,7 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
     @Override
     public Value putIfAbsent(Key nitriteId, Value document) {
         updateAttributes();
-        return mvMap.putIfAbsent(nitriteId, document);
+        return materialize(mvMap.putIfAbsent(nitriteId, document));
     }
 
     @Override
@@ -115,6 +116,26 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
         return mvMap.floorKey(key);
     }
 
+    @Override
+    public long getKeyIndex(Key key) {
+        return mvMap.getKeyIndex(key);
+    }
+
+    @Override
+    public Key getKey(long index) {
+        return mvMap.getKey(index);
+    }
+
+    @Override
+    public Iterator<Map.Entry<Key, Value>> entryIterator(Key from, boolean fromInclusive,
+                                                         Key to, boolean toInclusive,
+                                                         boolean descending) {
+        if (descending) {
+            return new DescendingRangeIterator(from, fromInclusive, to, toInclusive);
+        }
+        return new AscendingRangeIterator(from, fromInclusive, to, toInclusive);
+    }
+
     @Override
     public boolean isEmpty() {
         return mvMap.isEmpty();
@@ -129,6 +150,7 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
     public Attributes getAttributes() {
         NitriteMap<String, Attributes> metaMap = nitriteStore.metaMap();
         if (metaMap != null && !getName().contentEquals(META_MAP_NAME)) {
+            nitriteStore.writeAttributes(getName());
             return metaMap.get(getName());
         }
         return null;
@@ -138,6 +160,7 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
     public void setAttributes(Attributes attributes) {
         NitriteMap<String, Attributes> metaMap = nitriteStore.metaMap();
         if (metaMap != null && !getName().contentEquals(META_MAP_NAME)) {
+            nitriteStore.discardModification(getName());
             metaMap.put(getName(), attributes);
         }
     }
@@ -150,15 +173,111 @@ class NitriteMVMap<Key, Value> implements NitriteMap<Key, Value> {
         if (isNullOrEmpty(getName())
                 || META_MAP_NAME.equals(getName())) return;
 
-        NitriteMap<String, Attributes> metaMap = nitriteStore.metaMap();
-        if (metaMap != null) {
-            Attributes attributes = metaMap.get(getName());
-            if (attributes == null) {
-                attributes = new Attributes(getName());
+        // written to the meta map once per commit
+        nitriteStore.markModified(getName());
+    }
+
+    private abstract class RangeIterator implements Iterator<Map.Entry<Key, Value>> {
+        final Key from;
+        final boolean fromInclusive;
+        final Key to;
+        final boolean toInclusive;
+        private Map.Entry<Key, Value> nextEntry;
+        private boolean fetched;
+
+        RangeIterator(Key from, boolean fromInclusive, Key to, boolean toInclusive) {
+            this.from = from;
+            this.fromInclusive = fromInclusive;
+            this.to = to;
+            this.toInclusive = toInclusive;
+        }
+
+        // the next entry in range, or null once the range is exhausted
+        abstract Map.Entry<Key, Value> fetch();
+
+        @Override
+        public boolean hasNext() {
+            if (!fetched) {
+                nextEntry = fetch();
+                fetched = true;
+            }
+            return nextEntry != null;
+        }
+
+        @Override
+        public Map.Entry<Key, Value> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            fetched = false;
+            return nextEntry;
+        }
+
+        @Override
+        public void remove() {
+            throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+        }
+
+        boolean afterFrom(Key key) {
+            if (from == null) return true;
+            int result = mvMap.getKeyType().compare(key, from);
+            return result > 0 || (result == 0 && fromInclusive);
+        }
+
+        boolean beforeTo(Key key) {
+            if (to == null) return true;
+            int result = mvMap.getKeyType().compare(key, to);
+            return result < 0 || (result == 0 && toInclusive);
+        }
+    }
+
+    // reads the leaf pages in order with the native cursor of the map
+    private class AscendingRangeIterator extends RangeIterator {
+        private Cursor<Key, Value> cursor;
+
+        AscendingRangeIterator(Key from, boolean fromInclusive, Key to, boolean toInclusive) {
+            super(from, fromInclusive, to, toInclusive);
+            this.cursor = mvMap.cursor(from);
+        }
+
+        @Override
+        Map.Entry<Key, Value> fetch() {
+            while (cursor != null && cursor.hasNext()) {
+                Key key = cursor.next();
+                if (!afterFrom(key)) continue;
+
+                if (beforeTo(key)) {
+                    return new AbstractMap.SimpleImmutableEntry<>(key, cursor.getValue());
+                }
+                cursor = null;
+            }
+            return null;
+        }
+    }
+
+    // the cursor of the map only moves forward, so it steps back one key at a time
+    private class DescendingRangeIterator extends RangeIterator {
+        private Key key;
+
+        DescendingRangeIterator(Key from, boolean fromInclusive, Key to, boolean toInclusive) {
+            super(from, fromInclusive, to, toInclusive);
+            if (to == null) {
+                key = mvMap.lastKey();
             } else {
-                attributes.setLastModifiedTime(System.currentTimeMillis());
+                key = toInclusive ? mvMap.floorKey(to) : mvMap.lowerKey(to);
             }
-            metaMap.put(getName(), attributes);
+        }
+
+        @Override
+        Map.Entry<Key, Value> fetch() {
+            if (key == null || !afterFrom(key)) {
+                key = null;
+                return null;
+            }
+
+            Key current = key;
+            key = mvMap.lowerKey(current);
+            return new AbstractMap.SimpleImmutableEntry<>(current, mvMap.get(current));
         }
     }
 }
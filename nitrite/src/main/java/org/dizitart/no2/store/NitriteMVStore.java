@@ -2,6 +2,7 @@ package org.dizitart.no2.store;
 
 import org.dizitart.no2.meta.Attributes;
 import org.h2.mvstore.MVMap;
+import org.h2.mvstore.FileStore;
 import org.h2.mvstore.MVStore;
 
 import java.util.Set;
@@ -16,6 +17,7 @@ import static org.dizitart.no2.Constants.META_MAP_NAME;
  */
 public final class NitriteMVStore implements NitriteStore {
     private MVStore mvStore;
+    private final PendingAttributes pendingAttributes = new PendingAttributes(this);
 
     /**
      * Instantiates a new {@link NitriteMVStore}.
@@ -33,7 +35,7 @@ public final class NitriteMVStore implements NitriteStore {
 
     @Override
     public boolean hasUnsavedChanges() {
-        return mvStore.hasUnsavedChanges();
+        return !pendingAttributes.isEmpty() || mvStore.hasUnsavedChanges();
     }
 
     @Override
@@ -46,18 +48,49 @@ public final class NitriteMVStore implements NitriteStore {
         mvStore.compactMoveChunks();
     }
 
+    @Override
+    public boolean compact(int targetFillRate, int write) {
+        if (mvStore.getFileStore() == null) return false;
+
+        // both spend the whole write budget, so the chunks are only moved
+        // once there is nothing left to rewrite
+        return mvStore.compact(targetFillRate, write)
+                || mvStore.compactMoveChunks(targetFillRate, write);
+    }
+
+    @Override
+    public int getFillRate() {
+        FileStore fileStore = mvStore.getFileStore();
+        return fileStore == null ? 100 : fileStore.getFillRate();
+    }
+
     @Override
     public void commit() {
+        pendingAttributes.writeAll();
         mvStore.commit();
     }
 
+    @Override
+    public void writeAttributes() {
+        pendingAttributes.writeAll();
+    }
+
+    @Override
+    public void sync() {
+        mvStore.sync();
+    }
+
     @Override
     public void close() {
+        if (!mvStore.isClosed() && !mvStore.isReadOnly()) {
+            pendingAttributes.writeAll();
+        }
         mvStore.close();
     }
 
     @Override
     public void closeImmediately() {
+        pendingAttributes.clear();
         mvStore.closeImmediately();
     }
 
@@ -68,7 +101,9 @@ public final class NitriteMVStore implements NitriteStore {
 
     @Override
     public <Key, Value> NitriteMap<Key, Value> openMap(String mapName) {
-        MVMap<Key, Value> mvMap = mvStore.openMap(mapName);
+        MVMap<Key, Value> mvMap = mvStore.openMap(mapName, new MVMap.Builder<Key, Value>()
+                .keyType(new NitriteDataType())
+                .valueType(new NitriteDataType()));
         return new NitriteMVMap<>(mvMap, this);
     }
 
@@ -76,6 +111,7 @@ public final class NitriteMVStore implements NitriteStore {
     public <Key, Value> void removeMap(NitriteMap<Key, Value> map) {
         NitriteMVMap<Key, Value> nitriteMVMap = (NitriteMVMap<Key, Value>) map;
         MVMap<Key, Value> mvMap = nitriteMVMap.getUnderlyingMVMap();
+        pendingAttributes.discard(mvMap.getName());
         mvStore.removeMap(mvMap);
     }
 
@@ -84,4 +120,27 @@ public final class NitriteMVStore implements NitriteStore {
         MVMap<String, Attributes> mvMap = mvStore.openMap(META_MAP_NAME);
         return new NitriteMVMap<>(mvMap, this);
     }
+
+    /**
+     * Records a modification of a map. Its {@link Attributes} are only
+     * updated on the next commit or {@link #writeAttributes()}, so that
+     * a write to a map does not cost a second write to the meta map.
+     */
+    void markModified(String mapName) {
+        pendingAttributes.markModified(mapName);
+    }
+
+    /**
+     * Discards the pending modification of a map.
+     */
+    void discardModification(String mapName) {
+        pendingAttributes.discard(mapName);
+    }
+
+    /**
+     * Writes the pending modification of a map, if any, to the meta map.
+     */
+    void writeAttributes(String mapName) {
+        pendingAttributes.write(mapName);
+    }
 }
@@ -3,6 +3,7 @@ package org.dizitart.no2.store;
 import org.dizitart.no2.meta.MetadataAware;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -151,6 +152,42 @@ public interface NitriteMap<Key, Value> extends MetadataAware {
      */
     Key floorKey(Key key);
 
+    /**
+     * Get the index of the given key in the map. If the key is not
+     * found, the negative insertion point minus one is returned.
+     *
+     * @param key the key
+     * @return the index of the key.
+     */
+    long getKeyIndex(Key key);
+
+    /**
+     * Get the key at the given index.
+     *
+     * @param index the index
+     * @return the key, or null if the index is out of range.
+     */
+    Key getKey(long index);
+
+    /**
+     * Iterates the entries whose keys lie between `from` and `to`, in the
+     * order of the keys or in the reverse order if `descending` is `true`.
+     * A `null` bound leaves that side of the range open.
+     *
+     * An ascending iteration is a single scan of the leaf pages, as
+     * opposed to looking up each key with {@link #higherKey(Object)}.
+     *
+     * @param from          the lower bound
+     * @param fromInclusive if the lower bound is inclusive
+     * @param to            the upper bound
+     * @param toInclusive   if the upper bound is inclusive
+     * @param descending    if the entries are iterated in reverse order
+     * @return the iterator of the entries in range.
+     */
+    Iterator<Map.Entry<Key, Value>> entryIterator(Key from, boolean fromInclusive,
+                                                  Key to, boolean toInclusive,
+                                                  boolean descending);
+
     /**
      * Indicates whether the map is empty.
      *
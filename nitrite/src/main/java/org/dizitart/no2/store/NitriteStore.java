@@ -38,12 +38,49 @@ public interface NitriteStore {
      */
     void compactMoveChunks();
 
+    /**
+     * Compacts the store in a small step. The chunks whose share of live
+     * data is below the target fill rate are rewritten or, if there are
+     * none, the chunks are moved next to each other, writing about `write`
+     * bytes at most.
+     *
+     * A step of a persistent store commits it, so it is only run on a
+     * store with auto commit enabled.
+     *
+     * @param targetFillRate the fill rate in percent to compact towards
+     * @param write          the maximum number of bytes to write
+     * @return `true` if any data was rewritten or moved; `false` otherwise.
+     */
+    boolean compact(int targetFillRate, int write);
+
+    /**
+     * Gets the share of the storage space in percent, which holds
+     * live data.
+     *
+     * @return the fill rate.
+     */
+    int getFillRate();
+
     /**
      * Commits the changes. For persistent stores, it also writes
      * changes to disk. It does nothing if there are no unsaved changes.
      */
     void commit();
 
+    /**
+     * Writes the attributes of the maps modified since the last commit to
+     * the meta map, without committing them. A store which commits on its
+     * own then persists them along with the changes of the maps.
+     */
+    void writeAttributes();
+
+    /**
+     * Forces the committed changes to the storage, so that they survive
+     * a crash of the process or of the machine. It does nothing for an
+     * in-memory store.
+     */
+    void sync();
+
     /**
      * Closes the file and the store. Unsaved changes are written to disk first.
      */
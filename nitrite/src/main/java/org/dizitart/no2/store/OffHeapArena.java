@@ -0,0 +1,219 @@
+package org.dizitart.no2.store;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Allocates the serialized values of an {@link OffHeapStore} from slabs
+ * of direct memory, so that they stay out of the java heap.
+ *
+ * Values are appended to the current slab and a freed value only
+ * decrements the live bytes of its slab. A slab is given back once
+ * none of its values is alive anymore. Values larger than a slab get
+ * a slab of their own.
+ *
+ * A slab keeping a few live values would stay reserved as long as they
+ * live, so once the slabs reserve much more than the live values need,
+ * the maps {@link #move(long)} the values out of the mostly free slabs.
+ *
+ * An allocated value is addressed by a `long` holding the index of
+ * its slab in the upper and its offset in the lower 32 bits. Its
+ * length is stored in the 4 bytes preceding it.
+ *
+ * @author Anindya Chatterjee.
+ */
+class OffHeapArena {
+    private static final int LENGTH_SIZE = 4;
+
+    private final int slabSize;
+    private final List<Slab> slabs;
+    private final List<Integer> freeSlots;
+    private int current = -1;
+    private long allocated;
+    private long reserved;
+
+    OffHeapArena(int slabSize) {
+        this.slabSize = slabSize;
+        this.slabs = new ArrayList<>();
+        this.freeSlots = new ArrayList<>();
+    }
+
+    /**
+     * Copies the remaining bytes of the `value` into direct memory.
+     *
+     * @param value the serialized value
+     * @return the address of the value.
+     */
+    synchronized long allocate(ByteBuffer value) {
+        int size = LENGTH_SIZE + value.remaining();
+        int index;
+        if (size > slabSize) {
+            index = addSlab(size);
+        } else {
+            if (current < 0 || slabs.get(current).free() < size) {
+                Slab previous = current < 0 ? null : slabs.get(current);
+                current = addSlab(slabSize);
+                if (previous != null && previous.live == 0) {
+                    releaseSlab(previous.index);
+                }
+            }
+            index = current;
+        }
+
+        Slab slab = slabs.get(index);
+        int offset = slab.position;
+        slab.buffer.putInt(offset, value.remaining());
+        ByteBuffer target = slab.buffer.duplicate();
+        target.position(offset + LENGTH_SIZE);
+        target.put(value);
+        slab.position += size;
+        slab.live += size;
+        allocated += size;
+        return ((long) index << 32) | offset;
+    }
+
+    /**
+     * Copies a value out of direct memory.
+     *
+     * @param address the address of the value
+     * @return the serialized value.
+     */
+    synchronized ByteBuffer read(long address) {
+        Slab slab = slabs.get((int) (address >>> 32));
+        int offset = (int) address;
+        int length = slab.buffer.getInt(offset);
+
+        ByteBuffer source = slab.buffer.duplicate();
+        source.position(offset + LENGTH_SIZE);
+        source.limit(offset + LENGTH_SIZE + length);
+        ByteBuffer value = ByteBuffer.allocate(length);
+        value.put(source);
+        value.flip();
+        return value;
+    }
+
+    /**
+     * Frees a value, releasing its slab if it was the last live one.
+     *
+     * @param address the address of the value
+     */
+    synchronized void free(long address) {
+        int index = (int) (address >>> 32);
+        Slab slab = slabs.get(index);
+        int size = LENGTH_SIZE + slab.buffer.getInt((int) address);
+        slab.live -= size;
+        allocated -= size;
+        if (slab.live == 0 && index != current) {
+            releaseSlab(index);
+        }
+    }
+
+    /**
+     * Releases all slabs.
+     */
+    synchronized void clear() {
+        slabs.clear();
+        freeSlots.clear();
+        current = -1;
+        allocated = 0;
+        reserved = 0;
+    }
+
+    /**
+     * Copies a value to the current slab and frees it where it was.
+     *
+     * @param address the address of the value
+     * @return the new address of the value.
+     */
+    synchronized long move(long address) {
+        Slab slab = slabs.get((int) (address >>> 32));
+        int offset = (int) address;
+        ByteBuffer value = slab.buffer.duplicate();
+        value.position(offset + LENGTH_SIZE);
+        value.limit(offset + LENGTH_SIZE + slab.buffer.getInt(offset));
+
+        long moved = allocate(value);
+        free(address);
+        return moved;
+    }
+
+    /**
+     * Checks if a value is in a slab which is less than half alive, and
+     * not the current slab, so that moving its values gives it back.
+     *
+     * @param address the address of the value
+     * @return `true` if the slab should be emptied.
+     */
+    synchronized boolean isSparse(long address) {
+        int index = (int) (address >>> 32);
+        Slab slab = slabs.get(index);
+        return index != current && slab.live * 2L < slab.buffer.capacity();
+    }
+
+    /**
+     * Checks if the slabs reserve more than three times the memory of the
+     * live values. After the sparse slabs are emptied they reserve at
+     * most about twice as much, so a compaction is followed by at least
+     * as many bytes of writes as there are live values before the next.
+     *
+     * @return `true` if the values should be compacted.
+     */
+    synchronized boolean isFragmented() {
+        return reserved > 4L * slabSize && reserved > 3 * allocated;
+    }
+
+    /**
+     * Gets the bytes held by live values.
+     *
+     * @return the allocated bytes.
+     */
+    synchronized long allocatedBytes() {
+        return allocated;
+    }
+
+    /**
+     * Gets the direct memory reserved by all slabs.
+     *
+     * @return the reserved bytes.
+     */
+    synchronized long reservedBytes() {
+        return reserved;
+    }
+
+    private int addSlab(int size) {
+        int index;
+        if (freeSlots.isEmpty()) {
+            index = slabs.size();
+            slabs.add(null);
+        } else {
+            index = freeSlots.remove(freeSlots.size() - 1);
+        }
+        slabs.set(index, new Slab(index, ByteBuffer.allocateDirect(size)));
+        reserved += size;
+        return index;
+    }
+
+    private void releaseSlab(int index) {
+        // the direct memory is given back once the buffer is collected
+        reserved -= slabs.get(index).buffer.capacity();
+        slabs.set(index, null);
+        freeSlots.add(index);
+    }
+
+    private static class Slab {
+        private final int index;
+        private final ByteBuffer buffer;
+        private int position;
+        private int live;
+
+        Slab(int index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+
+        int free() {
+            return buffer.capacity() - position;
+        }
+    }
+}
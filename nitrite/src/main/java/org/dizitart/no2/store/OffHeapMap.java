@@ -0,0 +1,418 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.meta.Attributes;
+import org.h2.mvstore.WriteBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.dizitart.no2.Constants.META_MAP_NAME;
+import static org.dizitart.no2.exceptions.ErrorCodes.NIOE_OFF_HEAP_SERIALIZATION_FAILED;
+import static org.dizitart.no2.exceptions.ErrorMessage.REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED;
+import static org.dizitart.no2.exceptions.ErrorMessage.STORE_IS_CLOSED;
+import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
+import static org.dizitart.no2.store.LazyDocument.materialize;
+
+/**
+ * A {@link NitriteMap} of an {@link OffHeapStore}. Its keys are kept
+ * on heap in a sorted map, ordered the same way a {@link NitriteMVMap}
+ * orders them, whereas its values are serialized into the direct
+ * memory of the store's {@link OffHeapArena}.
+ *
+ * Every read deserializes a new copy of the value, so a value read
+ * from the map must be put back after it is modified.
+ *
+ * The keys are also kept in a {@link KeyPositions} tree, so that the
+ * position of a key, i.e. {@link #getKeyIndex(Object)} and
+ * {@link #getKey(long)}, is found without counting the keys before it.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ */
+class OffHeapMap<Key, Value> implements NitriteMap<Key, Value> {
+    private final String name;
+    private final OffHeapStore offHeapStore;
+    private final OffHeapArena arena;
+    private final NitriteDataType dataType;
+    private final ConcurrentSkipListMap<Key, Long> addresses;
+    // guarded by the arena, as the addresses are written
+    private final KeyPositions<Key> positions;
+    private final AtomicLong size;
+    private volatile boolean closed;
+
+    OffHeapMap(String name, OffHeapStore offHeapStore,
+               OffHeapArena arena, final NitriteDataType dataType) {
+        this.name = name;
+        this.offHeapStore = offHeapStore;
+        this.arena = arena;
+        this.dataType = dataType;
+        Comparator<Key> comparator = new Comparator<Key>() {
+            @Override
+            public int compare(Key first, Key second) {
+                return dataType.compare(first, second);
+            }
+        };
+        this.addresses = new ConcurrentSkipListMap<>(comparator);
+        this.positions = new KeyPositions<>(comparator);
+        this.size = new AtomicLong();
+    }
+
+    @Override
+    public boolean containsKey(Key key) {
+        checkOpened();
+        return addresses.containsKey(key);
+    }
+
+    @Override
+    public Value get(Key key) {
+        return materialize(read(key));
+    }
+
+    @Override
+    public NitriteStore getStore() {
+        return offHeapStore;
+    }
+
+    @Override
+    public void clear() {
+        checkOpened();
+        updateAttributes();
+        synchronized (arena) {
+            freeAll();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Collection<Value> values() {
+        return new AbstractCollection<Value>() {
+            @Override
+            public Iterator<Value> iterator() {
+                final Iterator<Map.Entry<Key, Value>> entries = entryIterator(addresses);
+                return new Iterator<Value>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Value next() {
+                        return entries.next().getValue();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return OffHeapMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Value remove(Key key) {
+        checkOpened();
+        updateAttributes();
+        ByteBuffer buffer;
+        synchronized (arena) {
+            Long address = addresses.remove(key);
+            if (address == null) return null;
+            positions.remove(key);
+            buffer = arena.read(address);
+            arena.free(address);
+            size.decrementAndGet();
+            compactIfFragmented();
+        }
+        return materialize(deserialize(buffer));
+    }
+
+    @Override
+    public Set<Key> keySet() {
+        checkOpened();
+        return Collections.unmodifiableSet(addresses.keySet());
+    }
+
+    @Override
+    public void put(Key key, Value value) {
+        checkOpened();
+        updateAttributes();
+        ByteBuffer buffer = serialize(value);
+        synchronized (arena) {
+            Long previous = addresses.put(key, arena.allocate(buffer));
+            if (previous != null) {
+                arena.free(previous);
+                compactIfFragmented();
+            } else {
+                positions.add(key);
+                size.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(sizeAsLong(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long sizeAsLong() {
+        return size.get();
+    }
+
+    @Override
+    public Value putIfAbsent(Key key, Value value) {
+        checkOpened();
+        updateAttributes();
+        ByteBuffer buffer = serialize(value);
+        ByteBuffer existing;
+        synchronized (arena) {
+            Long address = addresses.get(key);
+            if (address == null) {
+                addresses.put(key, arena.allocate(buffer));
+                positions.add(key);
+                size.incrementAndGet();
+                return null;
+            }
+            existing = arena.read(address);
+        }
+        return materialize(deserialize(existing));
+    }
+
+    @Override
+    public Set<Map.Entry<Key, Value>> entrySet() {
+        checkOpened();
+        return new AbstractSet<Map.Entry<Key, Value>>() {
+            @Override
+            public Iterator<Map.Entry<Key, Value>> iterator() {
+                return entryIterator(addresses);
+            }
+
+            @Override
+            public int size() {
+                return OffHeapMap.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Key higherKey(Key key) {
+        return addresses.higherKey(key);
+    }
+
+    @Override
+    public Key ceilingKey(Key key) {
+        return addresses.ceilingKey(key);
+    }
+
+    @Override
+    public Key lowerKey(Key key) {
+        return addresses.lowerKey(key);
+    }
+
+    @Override
+    public Key floorKey(Key key) {
+        return addresses.floorKey(key);
+    }
+
+    @Override
+    public long getKeyIndex(Key key) {
+        synchronized (arena) {
+            long index = positions.indexOf(key);
+            return addresses.containsKey(key) ? index : -(index + 1);
+        }
+    }
+
+    @Override
+    public Key getKey(long index) {
+        if (index < 0) return null;
+
+        synchronized (arena) {
+            return positions.get(index);
+        }
+    }
+
+    @Override
+    public Iterator<Map.Entry<Key, Value>> entryIterator(Key from, boolean fromInclusive,
+                                                         Key to, boolean toInclusive,
+                                                         boolean descending) {
+        checkOpened();
+        if (from != null && to != null && dataType.compare(from, to) > 0) {
+            return Collections.<Map.Entry<Key, Value>>emptyList().iterator();
+        }
+
+        ConcurrentNavigableMap<Key, Long> range = addresses;
+        if (from != null) {
+            range = range.tailMap(from, fromInclusive);
+        }
+        if (to != null) {
+            range = range.headMap(to, toInclusive);
+        }
+        return entryIterator(descending ? range.descendingMap() : range);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return addresses.isEmpty();
+    }
+
+    @Override
+    public List<Key> keyList() {
+        return new ArrayList<>(addresses.keySet());
+    }
+
+    @Override
+    public Attributes getAttributes() {
+        NitriteMap<String, Attributes> metaMap = offHeapStore.metaMap();
+        if (metaMap != null && !getName().contentEquals(META_MAP_NAME)) {
+            offHeapStore.writeAttributes(getName());
+            return metaMap.get(getName());
+        }
+        return null;
+    }
+
+    @Override
+    public void setAttributes(Attributes attributes) {
+        NitriteMap<String, Attributes> metaMap = offHeapStore.metaMap();
+        if (metaMap != null && !getName().contentEquals(META_MAP_NAME)) {
+            offHeapStore.discardModification(getName());
+            metaMap.put(getName(), attributes);
+        }
+    }
+
+    /**
+     * Frees the values of the map and closes it for further use.
+     */
+    void close() {
+        synchronized (arena) {
+            if (!closed) {
+                freeAll();
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * Moves the values of the map out of the slabs which are mostly free,
+     * so that the slabs are given back.
+     */
+    void compact() {
+        synchronized (arena) {
+            for (Map.Entry<Key, Long> entry : addresses.entrySet()) {
+                Long address = entry.getValue();
+                if (arena.isSparse(address)) {
+                    addresses.put(entry.getKey(), arena.move(address));
+                }
+            }
+        }
+    }
+
+    private void compactIfFragmented() {
+        if (arena.isFragmented()) {
+            offHeapStore.compactValues();
+        }
+    }
+
+    private void freeAll() {
+        for (Long address : addresses.values()) {
+            arena.free(address);
+        }
+        addresses.clear();
+        positions.clear();
+        size.set(0);
+    }
+
+    private void checkOpened() {
+        if (closed) {
+            throw new NitriteIOException(STORE_IS_CLOSED);
+        }
+    }
+
+    private void updateAttributes() {
+        if (META_MAP_NAME.equals(getName())) return;
+
+        // written to the meta map once per commit
+        offHeapStore.markModified(getName());
+    }
+
+    // a document read for an entry is decoded lazily, as in a NitriteMVMap
+    private Value read(Key key) {
+        checkOpened();
+        ByteBuffer buffer;
+        // the address is read and followed atomically, as a concurrent
+        // write might free the value
+        synchronized (arena) {
+            Long address = addresses.get(key);
+            if (address == null) return null;
+            buffer = arena.read(address);
+        }
+        return deserialize(buffer);
+    }
+
+    private ByteBuffer serialize(Value value) {
+        WriteBuffer writeBuffer = new WriteBuffer();
+        try {
+            dataType.write(writeBuffer, value);
+        } catch (IllegalArgumentException iae) {
+            throw new NitriteIOException(errorMessage("failed to serialize " + value
+                    + " into off-heap store", NIOE_OFF_HEAP_SERIALIZATION_FAILED), iae);
+        }
+        ByteBuffer buffer = writeBuffer.getBuffer();
+        buffer.flip();
+        return buffer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Value deserialize(ByteBuffer buffer) {
+        return (Value) dataType.read(buffer);
+    }
+
+    // reads the value of each key when it is reached, skipping the
+    // keys removed in the meantime
+    private Iterator<Map.Entry<Key, Value>> entryIterator(final NavigableMap<Key, Long> range) {
+        final Iterator<Key> keys = range.keySet().iterator();
+        return new Iterator<Map.Entry<Key, Value>>() {
+            private Map.Entry<Key, Value> nextEntry;
+
+            @Override
+            public boolean hasNext() {
+                while (nextEntry == null && keys.hasNext()) {
+                    Key key = keys.next();
+                    Value value = read(key);
+                    if (value != null) {
+                        nextEntry = new AbstractMap.SimpleImmutableEntry<>(key, value);
+                    }
+                }
+                return nextEntry != null;
+            }
+
+            @Override
+            public Map.Entry<Key, Value> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<Key, Value> entry = nextEntry;
+                nextEntry = null;
+                return entry;
+            }
+
+            @Override
+            public void remove() {
+                throw new InvalidOperationException(REMOVE_ON_DOCUMENT_ITERATOR_NOT_SUPPORTED);
+            }
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.exceptions.ValidationException;
+import org.dizitart.no2.meta.Attributes;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.dizitart.no2.Constants.META_MAP_NAME;
+import static org.dizitart.no2.exceptions.ErrorCodes.VE_OFF_HEAP_INVALID_SLAB_SIZE;
+import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
+
+/**
+ * An in-memory {@link NitriteStore} implementation, which keeps the
+ * serialized values of its maps in direct memory, outside the java heap.
+ * Only the keys of the maps are kept on heap.
+ *
+ * A large in-memory database does not need a large heap this way, and
+ * its documents do not add to the garbage collection pauses. In return
+ * every read deserializes the value.
+ *
+ * The direct memory is allocated in slabs of a fixed size, which are
+ * given back once none of their values is alive anymore. Once most of
+ * the reserved memory is taken by freed values, e.g. after many updates,
+ * the live values of the mostly free slabs are moved, so that those
+ * slabs are given back too. Direct memory is limited by the
+ * `-XX:MaxDirectMemorySize` option of the JVM.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ * @see OffHeapStoreFactory
+ */
+public final class OffHeapStore implements NitriteStore {
+    /**
+     * The default size of a slab of direct memory - 1 MB.
+     */
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private final OffHeapArena arena;
+    private final NitriteDataType dataType;
+    private final Map<String, OffHeapMap> maps;
+    private final PendingAttributes pendingAttributes;
+    private volatile boolean closed;
+
+    /**
+     * Instantiates a new {@link OffHeapStore} with the default slab size.
+     */
+    public OffHeapStore() {
+        this(DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Instantiates a new {@link OffHeapStore}.
+     *
+     * @param slabSize the size of a slab of direct memory in bytes
+     * @throws ValidationException if the `slabSize` is not positive.
+     */
+    public OffHeapStore(int slabSize) {
+        if (slabSize <= 0) {
+            throw new ValidationException(errorMessage(
+                    "slab size must be greater than 0", VE_OFF_HEAP_INVALID_SLAB_SIZE));
+        }
+        this.arena = new OffHeapArena(slabSize);
+        this.dataType = new NitriteDataType();
+        this.maps = new ConcurrentHashMap<>();
+        this.pendingAttributes = new PendingAttributes(this);
+    }
+
+    @Override
+    public Set<String> getMapNames() {
+        return new HashSet<>(maps.keySet());
+    }
+
+    @Override
+    public boolean hasUnsavedChanges() {
+        return !pendingAttributes.isEmpty();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void compactMoveChunks() {
+        compactValues();
+    }
+
+    @Override
+    public boolean compact(int targetFillRate, int write) {
+        if (getFillRate() >= targetFillRate) return false;
+        compactValues();
+        return true;
+    }
+
+    @Override
+    public int getFillRate() {
+        long reserved = arena.reservedBytes();
+        return reserved == 0 ? 100 : (int) (arena.allocatedBytes() * 100 / reserved);
+    }
+
+    @Override
+    public void commit() {
+        pendingAttributes.writeAll();
+    }
+
+    @Override
+    public void writeAttributes() {
+        pendingAttributes.writeAll();
+    }
+
+    @Override
+    public void sync() {
+        // nothing to force, the store is not persistent
+    }
+
+    @Override
+    public void close() {
+        closeImmediately();
+    }
+
+    @Override
+    public synchronized void closeImmediately() {
+        if (closed) return;
+
+        closed = true;
+        pendingAttributes.clear();
+        for (OffHeapMap map : maps.values()) {
+            map.close();
+        }
+        maps.clear();
+        arena.clear();
+    }
+
+    @Override
+    public boolean hasMap(String mapName) {
+        return maps.containsKey(mapName);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <Key, Value> NitriteMap<Key, Value> openMap(String mapName) {
+        OffHeapMap map = maps.get(mapName);
+        if (map == null) {
+            synchronized (this) {
+                map = maps.get(mapName);
+                if (map == null) {
+                    map = new OffHeapMap<Key, Value>(mapName, this, arena, dataType);
+                    if (!closed) {
+                        maps.put(mapName, map);
+                    } else {
+                        map.close();
+                    }
+                }
+            }
+        }
+        return (NitriteMap<Key, Value>) map;
+    }
+
+    @Override
+    public synchronized <Key, Value> void removeMap(NitriteMap<Key, Value> nitriteMap) {
+        OffHeapMap map = maps.remove(nitriteMap.getName());
+        if (map != null) {
+            pendingAttributes.discard(map.getName());
+            map.close();
+        }
+    }
+
+    @Override
+    public NitriteMap<String, Attributes> metaMap() {
+        return openMap(META_MAP_NAME);
+    }
+
+    /**
+     * Gets the direct memory held by the values of all maps.
+     *
+     * @return the size in bytes.
+     */
+    public long getAllocatedBytes() {
+        return arena.allocatedBytes();
+    }
+
+    /**
+     * Gets the direct memory reserved by the slabs of the store,
+     * including the space of the values freed in the meantime.
+     *
+     * @return the size in bytes.
+     */
+    public long getReservedBytes() {
+        return arena.reservedBytes();
+    }
+
+    // the maps are compacted under the lock of the arena only, as a
+    // write compacts them while it holds that lock
+    void compactValues() {
+        synchronized (arena) {
+            for (OffHeapMap map : maps.values()) {
+                map.compact();
+            }
+        }
+    }
+
+    void markModified(String mapName) {
+        pendingAttributes.markModified(mapName);
+    }
+
+    void discardModification(String mapName) {
+        pendingAttributes.discard(mapName);
+    }
+
+    void writeAttributes(String mapName) {
+        pendingAttributes.write(mapName);
+    }
+}
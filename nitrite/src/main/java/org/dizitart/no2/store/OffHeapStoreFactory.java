@@ -0,0 +1,65 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.NitriteContext;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+
+import static org.dizitart.no2.exceptions.ErrorMessage.OFF_HEAP_STORE_NOT_FILE_BASED;
+import static org.dizitart.no2.exceptions.ErrorMessage.UNABLE_TO_CREATE_IN_MEMORY_READONLY_DB;
+import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
+
+/**
+ * A {@link StoreFactory} creating an in-memory {@link OffHeapStore}.
+ *
+ * === Example:
+ *
+ * [[app-listing]]
+ * [source,java]
+ * .Database with off-heap in-memory store
+ * --
+ *  Nitrite db = Nitrite.builder()
+ *         .storeFactory(new OffHeapStoreFactory())
+ *         .openOrCreate();
+ * --
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ */
+public class OffHeapStoreFactory implements StoreFactory {
+    private final int slabSize;
+
+    /**
+     * Instantiates a new {@link OffHeapStoreFactory} with the
+     * default slab size.
+     */
+    public OffHeapStoreFactory() {
+        this(OffHeapStore.DEFAULT_SLAB_SIZE);
+    }
+
+    /**
+     * Instantiates a new {@link OffHeapStoreFactory}.
+     *
+     * @param slabSize the size of a slab of direct memory in bytes
+     */
+    public OffHeapStoreFactory(int slabSize) {
+        this.slabSize = slabSize;
+    }
+
+    /**
+     * Creates a new {@link OffHeapStore}.
+     *
+     * @param context the settings of the database
+     * @return the store.
+     * @throws InvalidOperationException if a file path is set or the
+     * database is readonly.
+     */
+    @Override
+    public NitriteStore openStore(NitriteContext context) {
+        if (!isNullOrEmpty(context.getFilePath())) {
+            throw new InvalidOperationException(OFF_HEAP_STORE_NOT_FILE_BASED);
+        }
+        if (context.isReadOnly()) {
+            throw new InvalidOperationException(UNABLE_TO_CREATE_IN_MEMORY_READONLY_DB);
+        }
+        return new OffHeapStore(slabSize);
+    }
+}
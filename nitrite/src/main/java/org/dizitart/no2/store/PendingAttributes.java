@@ -0,0 +1,73 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.meta.Attributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last modification time of the maps of a {@link NitriteStore}
+ * in memory, so that a write to a map does not cost a second write to
+ * the meta map. The {@link Attributes} of the modified maps are only
+ * updated when the store writes them, i.e. on commit and, with auto
+ * commit, on the commit interval of the store.
+ *
+ * @author Anindya Chatterjee.
+ */
+class PendingAttributes {
+    private final NitriteStore nitriteStore;
+    // last modification time of the maps, not yet written to the meta map
+    private final Map<String, Long> modifiedMaps;
+
+    PendingAttributes(NitriteStore nitriteStore) {
+        this.nitriteStore = nitriteStore;
+        this.modifiedMaps = new ConcurrentHashMap<>();
+    }
+
+    boolean isEmpty() {
+        return modifiedMaps.isEmpty();
+    }
+
+    void markModified(String mapName) {
+        modifiedMaps.put(mapName, System.currentTimeMillis());
+    }
+
+    void discard(String mapName) {
+        // a map already removed has no name
+        if (mapName != null) {
+            modifiedMaps.remove(mapName);
+        }
+    }
+
+    void clear() {
+        modifiedMaps.clear();
+    }
+
+    void write(String mapName) {
+        if (modifiedMaps.containsKey(mapName)) {
+            write(nitriteStore.metaMap(), mapName);
+        }
+    }
+
+    void writeAll() {
+        if (modifiedMaps.isEmpty()) return;
+
+        NitriteMap<String, Attributes> metaMap = nitriteStore.metaMap();
+        for (String mapName : modifiedMaps.keySet()) {
+            write(metaMap, mapName);
+        }
+    }
+
+    private void write(NitriteMap<String, Attributes> metaMap, String mapName) {
+        Long modifiedTime = modifiedMaps.remove(mapName);
+        if (modifiedTime == null) return;
+
+        Attributes attributes = metaMap.get(mapName);
+        if (attributes == null) {
+            attributes = new Attributes(mapName);
+        } else {
+            attributes.setLastModifiedTime(modifiedTime);
+        }
+        metaMap.put(mapName, attributes);
+    }
+}
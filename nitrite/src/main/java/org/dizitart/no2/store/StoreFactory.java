@@ -0,0 +1,27 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.NitriteContext;
+
+/**
+ * Opens the {@link NitriteStore} of a database. A custom storage engine
+ * can be plugged into nitrite by setting its factory with
+ * {@link org.dizitart.no2.NitriteBuilder#storeFactory(StoreFactory)}.
+ *
+ * The store is opened with the settings of the builder available in the
+ * {@link NitriteContext}, e.g. the file path or the readonly flag. If a
+ * user id and password are given, nitrite keeps the user credentials in
+ * a map of the store.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ * @see OffHeapStoreFactory
+ */
+public interface StoreFactory {
+    /**
+     * Opens or creates the store of a database.
+     *
+     * @param context the settings of the database
+     * @return the store.
+     */
+    NitriteStore openStore(NitriteContext context);
+}
@@ -147,10 +147,7 @@ class LocalCollection {
 
     private List<Document> modifiedSince(long lastSequence, long newSequence) {
         Iterable<Document> findResult = collection.find(
-                Filters.and(
-                        Filters.gte(DOC_MODIFIED, lastSequence),
-                        Filters.lte(DOC_MODIFIED, newSequence)
-                ));
+                Filters.between(DOC_MODIFIED, lastSequence, newSequence));
 
         List<Document> result = new ArrayList<>();
         for (Document document : findResult) {
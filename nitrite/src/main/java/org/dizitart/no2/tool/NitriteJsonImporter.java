@@ -117,8 +117,11 @@ class NitriteJsonImporter {
                     if (collection != null && index != null
                             && index.getField() != null
                             && !collection.hasIndex(index.getField())) {
-                        collection.createIndex(index.getField(),
-                                IndexOptions.indexOptions(index.getIndexType()));
+                        IndexOptions indexOptions = IndexOptions.indexOptions(index.getIndexType());
+                        if (index.isCompound()) {
+                            indexOptions.setFields(index.getFields());
+                        }
+                        collection.createIndex(index.getField(), indexOptions);
                     }
                 }
             }
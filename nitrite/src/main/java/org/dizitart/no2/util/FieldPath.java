@@ -0,0 +1,175 @@
+package org.dizitart.no2.util;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.exceptions.ValidationException;
+
+import java.lang.reflect.Array;
+import java.util.List;
+
+import static org.dizitart.no2.exceptions.ErrorCodes.*;
+import static org.dizitart.no2.exceptions.ErrorMessage.INVALID_EMBEDDED_FIELD;
+import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
+import static org.dizitart.no2.util.DocumentUtils.FIELD_SEPARATOR;
+
+/**
+ * A field name compiled into the steps of its lookup in a {@link Document}.
+ *
+ * An embedded field like `address.city`, or `tags.0` for an element of a
+ * list, is split and its list indexes are parsed only once, when the path
+ * is compiled. Reading the value of the field from a document then walks
+ * the steps without any allocation, so a filter, a sort or an index reads
+ * the same field of every document of a scan through a single path.
+ *
+ * A path reads the same value and fails the same way as
+ * {@link DocumentUtils#getFieldValue(Document, String)}.
+ *
+ * @since 1.0
+ * @author Anindya Chatterjee.
+ */
+public final class FieldPath {
+    private final String field;
+    private final String[] keys;
+    // the rest of the path after each key and its value as a list index
+    private final String[] remainingKeys;
+    private final int[] indexes;
+
+    private FieldPath(String field) {
+        this.field = field;
+        String[] split = field.split("\\" + FIELD_SEPARATOR, -1);
+        this.keys = split;
+        this.remainingKeys = new String[split.length];
+        this.indexes = new int[split.length];
+
+        int offset = 0;
+        for (int i = 0; i < split.length - 1; i++) {
+            offset += split[i].length() + FIELD_SEPARATOR.length();
+            remainingKeys[i] = field.substring(offset);
+            indexes[i] = asInteger(remainingKeys[i]);
+        }
+    }
+
+    /**
+     * Compiles a field name into a {@link FieldPath}.
+     *
+     * @param field the field name
+     * @return the compiled path.
+     */
+    public static FieldPath compile(String field) {
+        return new FieldPath(field);
+    }
+
+    /**
+     * Gets the field name of the path.
+     *
+     * @return the field name.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Checks if the path reads an embedded field.
+     *
+     * @return `true` if embedded; otherwise `false`.
+     */
+    public boolean isEmbedded() {
+        return keys.length > 1;
+    }
+
+    /**
+     * Gets the value of the field in a document.
+     *
+     * @param document the document
+     * @return the value of the field.
+     */
+    public Object getValue(Document document) {
+        if (keys.length == 1) {
+            return document.get(field);
+        }
+
+        Document current = document;
+        int last = keys.length - 1;
+        for (int i = 0; i < last; i++) {
+            String key = keys[i];
+            if (key.isEmpty()) {
+                throw new ValidationException(INVALID_EMBEDDED_FIELD);
+            }
+
+            Object object = current.get(key);
+            if (object == null) return null;
+
+            if (object instanceof Document) {
+                current = (Document) object;
+            } else if (object instanceof List) {
+                List collection = (List) object;
+                int index = validIndex(i, collection.size(), VE_NEGATIVE_LIST_INDEX_FIELD,
+                        VE_INVALID_LIST_INDEX_FIELD);
+                return collection.get(index);
+            } else if (object.getClass().isArray()) {
+                int index = validIndex(i, Array.getLength(object), VE_NEGATIVE_ARRAY_INDEX_FIELD,
+                        VE_INVALID_ARRAY_INDEX_FIELD);
+                return Array.get(object, index);
+            } else {
+                throw new ValidationException(errorMessage("invalid remaining field "
+                        + remainingKeys[i], VE_INVALID_REMAINING_FIELD));
+            }
+        }
+        return current.get(keys[last]);
+    }
+
+    /**
+     * Gets the value of the field in a document, if the field is a leaf
+     * field of the document, as listed by {@link DocumentUtils#getFields(Document)}.
+     *
+     * Unlike {@link #getValue(Document)}, it only walks through embedded
+     * documents and never fails, as a path which the document does not
+     * have is not a field of the document.
+     *
+     * @param document the document
+     * @return the value of the field, or `null` if it is not a leaf field.
+     */
+    public Object getLeafValue(Document document) {
+        Document current = document;
+        int last = keys.length - 1;
+        for (int i = 0; i < last; i++) {
+            Object object = current.get(keys[i]);
+            if (!(object instanceof Document)) return null;
+            current = (Document) object;
+        }
+
+        Object value = current.get(keys[last]);
+        if (value instanceof Document || value instanceof Iterable) {
+            return null;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return field;
+    }
+
+    // the rest of the path after a list or an array is a single index
+    private int validIndex(int step, int size, int negativeCode, int invalidCode) {
+        int index = indexes[step];
+        String remainingKey = remainingKeys[step];
+        if (index == -1) {
+            throw new ValidationException(errorMessage(
+                    "invalid index " + remainingKey + " for collection", negativeCode));
+        }
+        if (index >= size) {
+            throw new ValidationException(errorMessage("index = " + remainingKey +
+                    " is not less than the size of the collection '" + keys[step] +
+                    "' = " + size, invalidCode));
+        }
+        return index;
+    }
+
+    private static int asInteger(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
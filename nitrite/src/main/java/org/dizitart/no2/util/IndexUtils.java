@@ -5,10 +5,13 @@ import org.dizitart.no2.Index;
 
 import java.util.*;
 
+import static org.dizitart.no2.Constants.COMPOUND_FIELD_SEPARATOR;
 import static org.dizitart.no2.Constants.INDEX_PREFIX;
 import static org.dizitart.no2.Constants.INTERNAL_NAME_SEPARATOR;
+import static org.dizitart.no2.exceptions.ErrorCodes.VE_INDEX_EMPTY_COMPOUND_FIELD;
 import static org.dizitart.no2.exceptions.ErrorCodes.VE_INDEX_NULL_INDEX;
 import static org.dizitart.no2.exceptions.ErrorMessage.errorMessage;
+import static org.dizitart.no2.util.ValidationUtils.notEmpty;
 import static org.dizitart.no2.util.ValidationUtils.notNull;
 
 /**
@@ -37,6 +40,43 @@ public class IndexUtils {
                 index.getIndexType();
     }
 
+    /**
+     * Gets the field name of a compound index spanning over `fields`
+     * in the specified order. The name can be used with all index
+     * related operations of a collection.
+     *
+     * The fields of a compound index are taken from its {@link org.dizitart.no2.IndexOptions}
+     * and never parsed back from its name, so a plain field whose name
+     * contains the separator is still indexed as a single field.
+     *
+     * [[app-listing]]
+     * [source,java]
+     * .Example
+     * --
+     * // creates a compound index on tenant and createdAt
+     * collection.createIndex(compoundField("tenant", "createdAt"),
+     *         compoundIndexOptions(IndexType.NonUnique, "tenant", "createdAt"));
+     *
+     * // answered by the compound index
+     * collection.find(and(eq("tenant", "t1"), gt("createdAt", date)));
+     * --
+     *
+     * @param fields the fields to index
+     * @return the field name of the compound index.
+     */
+    public static String compoundField(String... fields) {
+        StringBuilder builder = new StringBuilder();
+        for (String field : fields) {
+            notNull(field, errorMessage("field can not be null", VE_INDEX_EMPTY_COMPOUND_FIELD));
+            notEmpty(field, errorMessage("field can not be empty", VE_INDEX_EMPTY_COMPOUND_FIELD));
+            if (builder.length() > 0) {
+                builder.append(COMPOUND_FIELD_SEPARATOR);
+            }
+            builder.append(field);
+        }
+        return builder.toString();
+    }
+
     /**
      * Sorts a map against it values. It is used to sort a score map during
      * full-text index search.
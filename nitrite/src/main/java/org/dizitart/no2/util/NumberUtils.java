@@ -33,6 +33,27 @@ public class NumberUtils {
             return toBigDecimal(x).compareTo(toBigDecimal(y));
     }
 
+    /**
+     * Normalizes a value for hash based lookups, so that two numbers
+     * which {@link #compare(Number, Number)} finds equal are also equal
+     * and share the same hash code, irrespective of their types.
+     *
+     * @param value the value
+     * @return the normalized number, or the `value` itself if it is
+     * not a number.
+     */
+    public static Object normalize(Object value) {
+        if (!(value instanceof Number)) return value;
+
+        Number number = (Number) value;
+        if (isSpecial(number)) {
+            return number.doubleValue();
+        }
+        BigDecimal decimal = toBigDecimal(number);
+        // stripTrailingZeros does not strip a zero with a scale
+        return decimal.signum() == 0 ? BigDecimal.ZERO : decimal.stripTrailingZeros();
+    }
+
     private static boolean isSpecial(Number number) {
         boolean specialDouble = number instanceof Double
                 && (Double.isNaN((Double) number) || Double.isInfinite((Double) number));
@@ -0,0 +1,130 @@
+package org.dizitart.no2;
+
+import org.dizitart.no2.exceptions.ValidationException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.dizitart.no2.DbTestOperations.getRandomTempDbFile;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.filters.Filters.lt;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class BackgroundCompactionTest {
+    private String filePath = getRandomTempDbFile();
+    private Nitrite db;
+
+    @After
+    public void tearDown() throws IOException {
+        if (db != null && !db.isClosed()) {
+            db.close();
+        }
+        Files.deleteIfExists(Paths.get(filePath));
+    }
+
+    @Test
+    public void testBackgroundCompaction() {
+        db = Nitrite.builder()
+                .filePath(filePath)
+                .backgroundCompaction(90, 512)
+                .openOrCreate();
+        NitriteContext context = db.getContext();
+        assertTrue(context.isBackgroundCompactionEnabled());
+        assertFalse(context.isAutoCompactEnabled());
+        assertEquals(context.getCompactionTargetFillRate(), 90);
+        assertEquals(context.getCompactionWriteLimit(), 512);
+
+        NitriteCollection collection = db.getCollection("test");
+        for (int i = 0; i < 10000; i++) {
+            collection.insert(createDocument("number", i).put("text", "some text " + i));
+            if (i % 1000 == 0) {
+                db.commit();
+            }
+        }
+        collection.remove(lt("number", 9000));
+        db.commit();
+
+        final int fillRate = db.getCompactionInfo().getFillRate();
+        await().atMost(10, TimeUnit.SECONDS).until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                CompactionInfo info = db.getCompactionInfo();
+                return info.getCompactions() > 0 && info.getFillRate() > fillRate;
+            }
+        });
+
+        CompactionInfo info = db.getCompactionInfo();
+        assertTrue(info.isEnabled());
+        assertEquals(info.getTargetFillRate(), 90);
+        assertTrue(info.getRuns() >= info.getCompactions());
+        assertTrue(info.getLastRunTime() > 0);
+        db.close();
+
+        db = Nitrite.builder().filePath(filePath).openOrCreate();
+        assertEquals(db.getCollection("test").size(), 1000);
+        assertFalse(db.getCompactionInfo().isEnabled());
+    }
+
+    @Test
+    public void testUncommittedChanges() throws InterruptedException {
+        db = Nitrite.builder()
+                .filePath(filePath)
+                .disableAutoCommit()
+                .backgroundCompaction(100, 0)
+                .openOrCreate();
+        assertEquals(db.getContext().getCompactionWriteLimit(), 1024);
+        // a compaction step would commit the pending changes
+        assertFalse(db.getContext().isBackgroundCompactionEnabled());
+        assertTrue(db.getContext().isAutoCompactEnabled());
+
+        NitriteCollection collection = db.getCollection("test");
+        collection.insert(createDocument("number", 1));
+        db.commit();
+        collection.insert(createDocument("number", 2));
+
+        Thread.sleep(2 * BackgroundCompaction.RUN_INTERVAL);
+        assertFalse(db.getCompactionInfo().isEnabled());
+        assertTrue(db.hasUnsavedChanges());
+    }
+
+    @Test
+    public void testUncommittedChangesAfterCrash() throws InterruptedException {
+        db = Nitrite.builder()
+                .filePath(filePath)
+                .disableAutoCommit()
+                .backgroundCompaction(100, 0)
+                .openOrCreate();
+
+        NitriteCollection collection = db.getCollection("test");
+        for (int i = 0; i < 10000; i++) {
+            collection.insert(createDocument("number", i).put("text", "some text " + i));
+            if (i % 1000 == 0) {
+                db.commit();
+            }
+        }
+        collection.remove(lt("number", 9000));
+        db.commit();
+        collection.insert(createDocument("number", 10000));
+
+        Thread.sleep(2 * BackgroundCompaction.RUN_INTERVAL);
+        db.closeImmediately();
+
+        // the change was never committed, so it is lost with the crash
+        db = Nitrite.builder().filePath(filePath).openOrCreate();
+        assertEquals(db.getCollection("test").size(), 1000);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testInvalidFillRate() {
+        Nitrite.builder().backgroundCompaction(0, 1024);
+    }
+}
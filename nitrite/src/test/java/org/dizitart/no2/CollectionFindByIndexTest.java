@@ -5,14 +5,18 @@ import org.junit.Test;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 
+import static org.dizitart.no2.Document.createDocument;
 import static org.dizitart.no2.FindOptions.sort;
 import static org.dizitart.no2.filters.Filters.*;
+import static org.dizitart.no2.util.IndexUtils.compoundField;
 import static org.dizitart.no2.util.Iterables.isSorted;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -345,5 +349,321 @@ public class CollectionFindByIndexTest extends BaseCollectionTest {
         assertEquals(cursor.size(), 2);
     }
 
+    @Test
+    public void testFindByCompoundIndex() throws ParseException {
+        insert();
+        String field = compoundField("lastName", "birthDay");
+        collection.createIndex(field, IndexOptions.compoundIndexOptions(IndexType.NonUnique,
+                "lastName", "birthDay"));
+        assertTrue(collection.hasIndex(field));
+
+        Cursor cursor = collection.find(and(eq("lastName", "ln2"),
+                gt("birthDay", simpleDateFormat.parse("2012-07-01T16:02:48.440Z"))));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn3");
+
+        cursor = collection.find(and(eq("lastName", "ln2"),
+                gte("birthDay", simpleDateFormat.parse("2010-06-12T16:02:48.440Z")),
+                lt("birthDay", simpleDateFormat.parse("2014-04-17T16:02:48.440Z"))));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn2");
+
+        cursor = collection.find(and(eq("lastName", "ln2"),
+                lte("birthDay", simpleDateFormat.parse("2014-04-17T16:02:48.440Z"))));
+        assertEquals(cursor.size(), 2);
+
+        cursor = collection.find(and(eq("lastName", "ln2"), eq("firstName", "fn2"),
+                gt("birthDay", simpleDateFormat.parse("2000-01-01T00:00:00.000Z"))));
+        assertEquals(cursor.size(), 1);
+
+        cursor = collection.find(and(eq("lastName", "ln1"),
+                eq("birthDay", simpleDateFormat.parse("2012-07-01T16:02:48.440Z"))));
+        assertEquals(cursor.size(), 1);
+
+        collection.update(eq("firstName", "fn1"), Document.createDocument("lastName", "ln2"));
+        cursor = collection.find(and(eq("lastName", "ln2"),
+                gt("birthDay", simpleDateFormat.parse("2011-01-01T00:00:00.000Z"))));
+        assertEquals(cursor.size(), 2);
+
+        collection.remove(eq("firstName", "fn3"));
+        cursor = collection.find(and(eq("lastName", "ln2"),
+                gt("birthDay", simpleDateFormat.parse("2011-01-01T00:00:00.000Z"))));
+        assertEquals(cursor.size(), 1);
+    }
+
+    @Test
+    public void testQueryPlan() throws ParseException {
+        insert();
+        collection.createIndex("firstName", IndexOptions.indexOptions(IndexType.Unique));
+        collection.createIndex("lastName", IndexOptions.indexOptions(IndexType.NonUnique));
+
+        // the unique index is the most selective one
+        Cursor cursor = collection.find(and(eq("lastName", "ln2"), eq("firstName", "fn3"),
+                gt("birthDay", simpleDateFormat.parse("2012-07-01T16:02:48.440Z"))));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn3");
+        assertTrue(cursor.explain().isIndexed());
+        assertEquals(cursor.explain().getEstimatedCount(), 1);
+        String plan = cursor.explain().toString();
+        assertTrue(plan.startsWith("INTERSECTION"));
+        assertTrue(plan.contains("INDEX SCAN EqualsFilter(field=firstName, value=fn3)"));
+        assertTrue(plan.contains("RESIDUAL EqualsFilter(field=lastName, value=ln2)"));
+
+        cursor = collection.find(or(eq("firstName", "fn1"), eq("lastName", "ln2")));
+        assertEquals(cursor.size(), 3);
+        assertTrue(cursor.explain().isIndexed());
+        assertTrue(cursor.explain().toString().startsWith("UNION"));
+
+        cursor = collection.find(or(eq("firstName", "fn1"), eq("body", "absent")));
+        assertEquals(cursor.size(), 1);
+        assertFalse(cursor.explain().isIndexed());
+        assertTrue(cursor.explain().toString().startsWith("COLLECTION SCAN"));
+
+        cursor = collection.find(and(not(eq("lastName", "ln1")), gte("firstName", "fn2")));
+        assertEquals(cursor.size(), 2);
+        assertTrue(cursor.explain().isIndexed());
+
+        collection.createIndex("body", IndexOptions.indexOptions(IndexType.Fulltext));
+        cursor = collection.find(and(text("body", "quick"), not(eq("lastName", "ln1"))));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn2");
+        assertTrue(cursor.explain().toString().contains("TEXT INDEX SCAN"));
+
+        cursor = collection.find(or(text("body", "quick"), eq("data", new byte[] {9, 4, 8})));
+        assertEquals(cursor.size(), 3);
+
+        cursor = collection.find(not(text("body", "quick")));
+        assertEquals(cursor.size(), 1);
+        assertTrue(cursor.explain().toString().startsWith("DIFFERENCE"));
+
+        cursor = collection.find();
+        assertEquals(cursor.explain().getEstimatedCount(), 3);
+        assertFalse(cursor.explain().isIndexed());
+    }
+
+    @Test
+    public void testSortByIndex() {
+        insert();
+        collection.insert(createDocument("firstName", "fn4").put("lastName", "ln0"));
+
+        // documents sharing a sort value must all be returned
+        Cursor cursor = collection.find(sort("lastName", SortOrder.Ascending));
+        assertEquals(cursor.size(), 4);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn4");
+
+        cursor = collection.find(sort("lastName", SortOrder.Descending).thenLimit(1, 2));
+        assertEquals(cursor.size(), 2);
+        List<String> lastNames = new ArrayList<>();
+        for (Document document : cursor) {
+            lastNames.add(document.get("lastName", String.class));
+        }
+        assertEquals(lastNames.get(0), "ln2");
+        assertEquals(lastNames.get(1), "ln1");
+        assertTrue(cursor.hasMore());
+
+        collection.createIndex("lastName", IndexOptions.indexOptions(IndexType.NonUnique));
+        cursor = collection.find(sort("lastName", SortOrder.Ascending));
+        assertEquals(cursor.size(), 4);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn4");
+
+        cursor = collection.find(sort("lastName", SortOrder.Descending).thenLimit(0, 2));
+        assertEquals(cursor.size(), 2);
+        for (Document document : cursor) {
+            assertEquals(document.get("lastName"), "ln2");
+        }
+        assertEquals(cursor.totalCount(), 4);
+
+        cursor = collection.find(gt("firstName", "fn1"),
+                sort("lastName", SortOrder.Descending).thenLimit(0, 3));
+        assertEquals(cursor.size(), 3);
+        Iterator<Document> iterator = cursor.iterator();
+        assertEquals(iterator.next().get("lastName"), "ln2");
+        assertEquals(iterator.next().get("lastName"), "ln2");
+        assertEquals(iterator.next().get("lastName"), "ln0");
+    }
+
+    @Test
+    public void testSortWithUnboundedLimit() {
+        insert();
+        Cursor cursor = collection.find(sort("lastName", SortOrder.Ascending)
+                .thenLimit(1, Integer.MAX_VALUE));
+        assertEquals(cursor.size(), 2);
+        assertFalse(cursor.hasMore());
+
+        cursor = collection.find(gt("firstName", "fn1"), sort("lastName", SortOrder.Ascending)
+                .thenLimit(1, Integer.MAX_VALUE));
+        assertEquals(cursor.size(), 1);
+        assertFalse(cursor.hasMore());
 
+        collection.createIndex("lastName", IndexOptions.indexOptions(IndexType.NonUnique));
+        cursor = collection.find(sort("lastName", SortOrder.Descending)
+                .thenLimit(1, Integer.MAX_VALUE));
+        assertEquals(cursor.size(), 2);
+        assertEquals(cursor.firstOrDefault().get("lastName"), "ln2");
+    }
+
+    @Test
+    public void testSortMixedNumbersByIndex() {
+        collection.insert(createDocument("rank", 5).put("name", "a"));
+        collection.insert(createDocument("rank", 2L).put("name", "b"));
+        collection.insert(createDocument("rank", 3.5).put("name", "c"));
+        collection.insert(createDocument("rank", 4).put("name", "d"));
+        collection.insert(createDocument("rank", 1).put("name", "e"));
+
+        List<String> expected = sortedNames(SortOrder.Ascending);
+        assertEquals(expected, Arrays.asList("e", "b", "c", "d", "a"));
+        List<String> expectedDescending = sortedNames(SortOrder.Descending);
+        assertEquals(expectedDescending, Arrays.asList("a", "d", "c", "b", "e"));
+
+        // an index orders the numbers by type, the sort must not follow it
+        collection.createIndex("rank", IndexOptions.indexOptions(IndexType.NonUnique));
+        assertEquals(sortedNames(SortOrder.Ascending), expected);
+        assertEquals(sortedNames(SortOrder.Descending), expectedDescending);
+    }
+
+    private List<String> sortedNames(SortOrder sortOrder) {
+        List<String> names = new ArrayList<>();
+        for (Document document : collection.find(sort("rank", sortOrder).thenLimit(0, 10))) {
+            names.add(document.get("name", String.class));
+        }
+        return names;
+    }
+
+    @Test
+    public void testCoveredProjection() {
+        insert();
+        collection.insert(createDocument("firstName", "fn4"));
+        Document projection = createDocument("firstName", null).put("lastName", null);
+        List<Document> expected = collection.find(sort("firstName", SortOrder.Ascending))
+                .project(projection).toList();
+
+        collection.createIndex("firstName", IndexOptions.indexOptions(IndexType.Unique));
+        collection.createIndex("lastName", IndexOptions.indexOptions(IndexType.NonUnique));
+        List<Document> covered = collection.find(sort("firstName", SortOrder.Ascending))
+                .project(projection).toList();
+        assertEquals(covered, expected);
+        assertEquals(covered.size(), 4);
+        assertEquals(covered.get(3).size(), 1);
+
+        collection.dropAllIndices();
+        collection.createIndex(compoundField("lastName", "firstName"),
+                IndexOptions.compoundIndexOptions(IndexType.Unique, "lastName", "firstName"));
+        covered = collection.find(sort("firstName", SortOrder.Ascending))
+                .project(projection).toList();
+        assertEquals(covered, expected);
+
+        RecordIterable<Document> byExample = collection.find()
+                .project(createDocument("lastName", "ln2").put("firstName", null));
+        assertEquals(byExample.size(), 4);
+        // fn4 does not have a lastName, hence is not filtered by the example
+        assertEquals(byExample.toList().size(), 3);
+    }
+
+    @Test
+    public void testCoveredProjectionMatchesDocuments() {
+        for (int i = 0; i < 200; i++) {
+            collection.insert(createDocument("a", i).put("b", "b" + (i % 10))
+                    .put("addr", createDocument("city", "c" + i)));
+        }
+        Document embedded = createDocument("a", null).put("addr.city", null);
+        Document projection = createDocument("a", null).put("b", null);
+        List<Document> expectedEmbedded = collection.find(eq("a", 9)).project(embedded).toList();
+        List<Document> expectedRange = collection.find(gte("a", 190),
+                sort("a", SortOrder.Ascending)).project(projection).toList();
+        List<Document> expectedEquals = collection.find(eq("a", 42)).project(projection).toList();
+        assertEquals(expectedEmbedded.size(), 1);
+        assertEquals(expectedRange.size(), 10);
+
+        collection.createIndex("a", IndexOptions.indexOptions(IndexType.Unique));
+        collection.createIndex("b", IndexOptions.indexOptions(IndexType.NonUnique));
+        collection.createIndex("addr.city", IndexOptions.indexOptions(IndexType.Unique));
+
+        // adding an index never changes the result of a query
+        assertEquals(collection.find(eq("a", 9)).project(embedded).toList(), expectedEmbedded);
+        assertEquals(collection.find(gte("a", 190), sort("a", SortOrder.Ascending))
+                .project(projection).toList(), expectedRange);
+        assertEquals(collection.find(eq("a", 42)).project(projection).toList(), expectedEquals);
+        assertEquals(collection.find(and(gte("a", 100), lt("a", 103)))
+                .project(projection).toList().size(), 3);
+    }
+
+    @Test
+    public void testCount() throws ParseException {
+        insert();
+        Date birthDay = simpleDateFormat.parse("2012-07-01T16:02:48.440Z");
+        assertEquals(collection.count(ALL), 3);
+        assertEquals(collection.count(eq("lastName", "ln2")), 2);
+        assertEquals(collection.count(gte("birthDay", birthDay)), 2);
+
+        collection.createIndex("lastName", IndexOptions.indexOptions(IndexType.NonUnique));
+        collection.createIndex("birthDay", IndexOptions.indexOptions(IndexType.Unique));
+        collection.createIndex("body", IndexOptions.indexOptions(IndexType.Fulltext));
+        assertEquals(collection.count(eq("lastName", "ln2")), 2);
+        assertEquals(collection.count(gt("lastName", "ln1")), 2);
+        assertEquals(collection.count(lt("birthDay", birthDay)), 1);
+        assertEquals(collection.count(not(eq("lastName", "ln2"))), 1);
+        assertEquals(collection.count(and(eq("lastName", "ln2"), gte("birthDay", birthDay))), 1);
+        assertEquals(collection.count(or(eq("lastName", "ln1"), lt("birthDay", birthDay))), 2);
+        assertEquals(collection.count(text("body", "quick")), 2);
+        assertEquals(collection.count(in("lastName", "ln1", "ln1")), 1);
+
+        Document document = collection.find(eq("firstName", "fn1")).firstOrDefault();
+        assertEquals(collection.count(eq("_id", document.getId().getIdValue())), 1);
+        assertEquals(collection.count(gt("_id", document.getId().getIdValue())),
+                collection.find(gt("_id", document.getId().getIdValue())).size());
+    }
+
+    @Test
+    public void testBetween() throws ParseException {
+        insert();
+        Date from = simpleDateFormat.parse("2010-06-12T16:02:48.440Z");
+        Date to = simpleDateFormat.parse("2012-07-01T16:02:48.440Z");
+        assertEquals(collection.find(between("birthDay", from, to)).size(), 2);
+        assertEquals(collection.find(between("birthDay", from, false, to, true)).size(), 1);
+        assertEquals(collection.find(between("birthDay", to, from)).size(), 0);
+
+        collection.createIndex("birthDay", IndexOptions.indexOptions(IndexType.Unique));
+        Cursor cursor = collection.find(between("birthDay", from, to));
+        assertEquals(cursor.size(), 2);
+        assertTrue(cursor.explain().toString().startsWith("INDEX SCAN BetweenFilter"));
+        assertEquals(cursor.explain().getEstimatedCount(), 2);
+        assertEquals(collection.find(between("birthDay", from, true, to, false)).size(), 1);
+        assertEquals(collection.find(between("birthDay", from, false, to, false)).size(), 0);
+        assertEquals(collection.count(between("birthDay", to, false, new Date(), true)), 1);
+
+        // a lower and an upper bound are merged into a single index scan
+        cursor = collection.find(and(gte("birthDay", from), eq("lastName", "ln2"),
+                lt("birthDay", to)));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault().get("firstName"), "fn2");
+        assertTrue(cursor.explain().toString().contains("INDEX SCAN BetweenFilter"));
+        assertFalse(cursor.explain().toString().contains("GreaterEqualFilter"));
+
+        Document document = collection.find(eq("firstName", "fn1")).firstOrDefault();
+        long id = document.getId().getIdValue();
+        assertEquals(collection.find(between("_id", id, id)).size(), 1);
+        assertEquals(collection.count(between("_id", id, false, id, true)), 0);
+        assertEquals(collection.count(and(gte("_id", id), lte("_id", id))), 1);
+    }
+
+    @Test
+    public void testInFilter() {
+        insert();
+        assertEquals(collection.find(in("firstName", "fn1", "fn3", "fn1", "fn4")).size(), 2);
+
+        // numbers of different types are matched by value
+        collection.insert(createDocument("score", 1), createDocument("score", 2L),
+                createDocument("score", 3.0d));
+        assertEquals(collection.find(in("score", 1L, 2, 3)).size(), 3);
+        assertEquals(collection.find(in("score", 1.5, 4)).size(), 0);
+
+        collection.createIndex("firstName", IndexOptions.indexOptions(IndexType.NonUnique));
+        Cursor cursor = collection.find(in("firstName", "fn1", "fn3", "fn1", "fn4"));
+        assertEquals(cursor.size(), 2);
+        assertTrue(cursor.explain().toString().startsWith("INDEX SCAN InFilter"));
+        for (Document document : cursor) {
+            assertTrue(document.get("firstName").equals("fn1")
+                    || document.get("firstName").equals("fn3"));
+        }
+    }
 }
@@ -44,6 +44,12 @@ public class CollectionFindNegativeTest extends BaseCollectionTest {
         collection.find(limit(10, 1));
     }
 
+    @Test(expected = ValidationException.class)
+    public void testFindFilteredInvalidOffset() {
+        insert();
+        collection.find(eq("lastName", "ln2"), limit(3, 1));
+    }
+
     @Test(expected = InvalidOperationException.class)
     public void testFindInvalidSort() {
         insert();
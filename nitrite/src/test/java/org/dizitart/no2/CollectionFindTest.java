@@ -135,6 +135,58 @@ public class CollectionFindTest extends BaseCollectionTest {
         assertFalse(cursor.hasMore());
     }
 
+    @Test
+    public void testFindWithFilterAndLimit() {
+        insert();
+        for (int i = 0; i < 100; i++) {
+            collection.insert(createDocument("firstName", "fn" + (i + 4)).put("lastName", "ln3"));
+        }
+
+        Cursor cursor = collection.find(eq("lastName", "ln3"), limit(0, 10));
+        assertEquals(cursor.size(), 10);
+        assertTrue(cursor.hasMore());
+        assertEquals(cursor.totalCount(), 100);
+        assertTrue(cursor.hasMore());
+        assertEquals(cursor.toList().size(), 10);
+
+        cursor = collection.find(eq("lastName", "ln3"), limit(95, 10));
+        assertEquals(cursor.size(), 5);
+        assertFalse(cursor.hasMore());
+        assertEquals(cursor.totalCount(), 100);
+
+        cursor = collection.find(eq("lastName", "ln2"), limit(1, 10));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.totalCount(), 2);
+        assertFalse(cursor.hasMore());
+
+        cursor = collection.find(eq("lastName", "ln9"), limit(0, 10));
+        assertEquals(cursor.size(), 0);
+        assertEquals(cursor.totalCount(), 0);
+        assertFalse(cursor.hasMore());
+    }
+
+    @Test
+    public void testFindWithFilterAndUnboundedLimit() {
+        insert();
+        for (int i = 0; i < 100; i++) {
+            collection.insert(createDocument("firstName", "fn" + (i + 4)).put("lastName", "ln3"));
+        }
+
+        // the end of the page does not fit in an int
+        Cursor cursor = collection.find(eq("lastName", "ln3"), limit(1, Integer.MAX_VALUE));
+        assertEquals(cursor.size(), 99);
+        assertEquals(cursor.totalCount(), 100);
+        assertFalse(cursor.hasMore());
+
+        // a page of size 0 holds all the matches after the offset
+        cursor = collection.find(eq("lastName", "ln3"), limit(0, 0));
+        assertEquals(cursor.size(), 100);
+        assertEquals(cursor.totalCount(), 100);
+
+        cursor = collection.find(eq("lastName", "ln3"), limit(90, 0));
+        assertEquals(cursor.size(), 10);
+    }
+
     @Test
     public void testFindSortAscending() {
         insert();
@@ -2,8 +2,10 @@ package org.dizitart.no2;
 
 import org.dizitart.no2.exceptions.IndexingException;
 import org.dizitart.no2.exceptions.UniqueConstraintException;
+import org.dizitart.no2.exceptions.ValidationException;
 import org.junit.Test;
 
+import static org.dizitart.no2.util.IndexUtils.compoundField;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -47,4 +49,22 @@ public class CollectionIndexNegativeTest extends BaseCollectionTest {
     public void testRebuildIndexInvalid() {
         collection.rebuildIndex("unknown", true);
     }
+
+    @Test(expected = IndexingException.class)
+    public void testCreateFullTextCompoundIndex() {
+        collection.createIndex(compoundField("lastName", "body"),
+                IndexOptions.compoundIndexOptions(IndexType.Fulltext, "lastName", "body"));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testCreateIndexOnInvalidCompoundField() {
+        collection.createIndex(compoundField("lastName", ""),
+                IndexOptions.compoundIndexOptions(IndexType.NonUnique, "lastName", ""));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testCreateCompoundIndexOnSingleField() {
+        collection.createIndex("lastName",
+                IndexOptions.compoundIndexOptions(IndexType.NonUnique, "lastName"));
+    }
 }
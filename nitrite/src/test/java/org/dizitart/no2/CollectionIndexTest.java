@@ -1,6 +1,7 @@
 package org.dizitart.no2;
 
 import org.dizitart.no2.exceptions.IndexingException;
+import org.dizitart.no2.exceptions.UniqueConstraintException;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -8,8 +9,11 @@ import java.util.Collection;
 import java.util.concurrent.Callable;
 
 import static org.awaitility.Awaitility.await;
+import static org.dizitart.no2.IndexOptions.compoundIndexOptions;
 import static org.dizitart.no2.IndexOptions.indexOptions;
 import static org.dizitart.no2.filters.Filters.eq;
+import static org.dizitart.no2.filters.Filters.gt;
+import static org.dizitart.no2.util.IndexUtils.compoundField;
 import static org.dizitart.no2.filters.Filters.text;
 import static org.junit.Assert.*;
 import static org.dizitart.no2.Document.createDocument;
@@ -61,6 +65,22 @@ public class CollectionIndexTest extends BaseCollectionTest {
         assertFalse(collection.hasIndex("firstName"));
     }
 
+    @Test
+    public void testRecreateDroppedIndex() {
+        collection.createIndex("lastName", indexOptions(IndexType.NonUnique));
+        insert();
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 2);
+
+        // a dropped index must not be answered from its old index map
+        collection.dropIndex("lastName");
+        collection.update(eq("firstName", "fn1"), createDocument("lastName", "ln2"));
+        collection.createIndex("lastName", indexOptions(IndexType.NonUnique));
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 3);
+
+        collection.insert(createDocument("firstName", "fn4").put("lastName", "ln2"));
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 4);
+    }
+
     @Test
     public void testDropAllIndexes() {
         collection.dropAllIndices();
@@ -177,4 +197,97 @@ public class CollectionIndexTest extends BaseCollectionTest {
 
         collection.insert(document);
     }
+
+    @Test
+    public void testNonUniqueIndexPostings() {
+        collection.createIndex("lastName", indexOptions(IndexType.NonUnique));
+        insert();
+
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 2);
+        assertEquals(collection.find(gt("lastName", "ln1")).size(), 2);
+
+        WriteResult result = collection.update(eq("firstName", "fn3"),
+                createDocument("lastName", "ln1"));
+        assertEquals(result.getAffectedCount(), 1);
+        assertEquals(collection.find(eq("lastName", "ln1")).size(), 2);
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 1);
+
+        collection.remove(eq("firstName", "fn2"));
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 0);
+        assertEquals(collection.find(gt("lastName", "ln1")).size(), 0);
+
+        collection.rebuildIndex("lastName", false);
+        assertEquals(collection.find(eq("lastName", "ln1")).size(), 2);
+    }
+
+    @Test
+    public void testCompoundIndex() {
+        String field = compoundField("lastName", "firstName");
+        collection.createIndex(field, compoundIndexOptions(IndexType.Unique,
+                "lastName", "firstName"));
+        assertTrue(collection.hasIndex(field));
+        insert();
+
+        Index index = collection.listIndices().iterator().next();
+        assertTrue(index.isCompound());
+        assertEquals(index.getFields().size(), 2);
+        assertEquals(index.getFields().get(0), "lastName");
+
+        boolean error = false;
+        try {
+            collection.insert(createDocument("firstName", "fn2").put("lastName", "ln2"));
+        } catch (UniqueConstraintException uce) {
+            error = true;
+        } finally {
+            assertTrue(error);
+        }
+
+        // different tuple is allowed in unique compound index
+        collection.insert(createDocument("firstName", "fn2").put("lastName", "ln3"));
+
+        collection.dropIndex(field);
+        assertFalse(collection.hasIndex(field));
+    }
+
+    @Test
+    public void testIndexOnFieldWithCompoundSeparator() {
+        // a field name is never parsed into the fields of a compound index
+        collection.createIndex("lastName+firstName", indexOptions(IndexType.Unique));
+        collection.insert(createDocument("lastName+firstName", "ln1 fn1"));
+        collection.insert(createDocument("lastName", "ln1").put("firstName", "fn1"));
+
+        Index index = collection.listIndices().iterator().next();
+        assertFalse(index.isCompound());
+        assertEquals(index.getFields().size(), 1);
+        assertEquals(index.getFields().get(0), "lastName+firstName");
+
+        Cursor cursor = collection.find(eq("lastName+firstName", "ln1 fn1"));
+        assertTrue(cursor.explain().isIndexed());
+        assertEquals(cursor.size(), 1);
+    }
+
+    @Test
+    public void testEmbeddedFieldIndex() {
+        collection.createIndex("address.city", indexOptions(IndexType.NonUnique));
+        collection.createIndex("lastName", indexOptions(IndexType.NonUnique));
+        insert();
+
+        Document document = createDocument("firstName", "fn4")
+                .put("lastName", "ln4")
+                .put("address", createDocument("city", "Kolkata").put("zip", 700001));
+        for (int i = 0; i < 50; i++) {
+            document.put("field" + i, i);
+        }
+        collection.insert(document);
+        // a document without the embedded field is not indexed on it
+        collection.insert(createDocument("firstName", "fn5").put("address", "unknown"));
+        assertEquals(collection.find(eq("address.city", "Kolkata")).size(), 1);
+        assertEquals(collection.find(eq("lastName", "ln4")).size(), 1);
+
+        collection.remove(eq("firstName", "fn4"));
+        collection.remove(eq("firstName", "fn5"));
+        assertEquals(collection.find(eq("address.city", "Kolkata")).size(), 0);
+        assertEquals(collection.find(eq("lastName", "ln4")).size(), 0);
+        assertEquals(collection.find(eq("lastName", "ln2")).size(), 2);
+    }
 }
@@ -3,8 +3,10 @@ package org.dizitart.no2;
 import org.junit.Test;
 
 import static org.dizitart.no2.Document.createDocument;
-import static org.dizitart.no2.filters.Filters.eq;
-import static org.dizitart.no2.filters.Filters.not;
+import static org.dizitart.no2.IndexOptions.compoundIndexOptions;
+import static org.dizitart.no2.IndexOptions.indexOptions;
+import static org.dizitart.no2.filters.Filters.*;
+import static org.dizitart.no2.util.IndexUtils.compoundField;
 import static org.junit.Assert.assertEquals;
 
 public class CollectionUpdateTest extends BaseCollectionTest {
@@ -150,4 +152,41 @@ public class CollectionUpdateTest extends BaseCollectionTest {
                 createDocument("lastName", "new-last-name"));
         assertEquals(updateResult.getAffectedCount(), 0);
     }
+
+    @Test
+    public void testUpdateIndexedFields() {
+        collection.createIndex("firstName", indexOptions(IndexType.Unique));
+        collection.createIndex("lastName", indexOptions(IndexType.NonUnique));
+        collection.createIndex("body", indexOptions(IndexType.Fulltext));
+        collection.createIndex("address.city", indexOptions(IndexType.NonUnique));
+        collection.createIndex(compoundField("lastName", "address.zip"),
+                compoundIndexOptions(IndexType.NonUnique, "lastName", "address.zip"));
+        insert();
+        collection.update(eq("firstName", "fn1"), createDocument("address",
+                createDocument("city", "Kolkata").put("zip", 700001)));
+        assertEquals(collection.find(eq("address.city", "Kolkata")).size(), 1);
+
+        // the unique index is not touched by an update of other fields
+        WriteResult updateResult = collection.update(eq("firstName", "fn1"),
+                createDocument("firstName", "fn1").put("lastName", "ln3"));
+        assertEquals(updateResult.getAffectedCount(), 1);
+        assertEquals(collection.find(eq("lastName", "ln1")).size(), 0);
+        assertEquals(collection.find(eq("lastName", "ln3")).size(), 1);
+        assertEquals(collection.find(and(eq("lastName", "ln3"),
+                eq("address.zip", 700001))).size(), 1);
+
+        // an update of a parent field changes its embedded fields
+        collection.update(eq("firstName", "fn1"), createDocument("address",
+                createDocument("city", "Pune").put("zip", 411001)));
+        assertEquals(collection.find(eq("address.city", "Kolkata")).size(), 0);
+        assertEquals(collection.find(eq("address.city", "Pune")).size(), 1);
+        assertEquals(collection.find(and(eq("lastName", "ln3"),
+                eq("address.zip", 700001))).size(), 0);
+        assertEquals(collection.find(and(eq("lastName", "ln3"),
+                eq("address.zip", 411001))).size(), 1);
+
+        collection.update(eq("firstName", "fn2"), createDocument("body", "lazy cat"));
+        assertEquals(collection.find(text("body", "lazy")).size(), 2);
+        assertEquals(collection.find(text("body", "nitrite")).size(), 0);
+    }
 }
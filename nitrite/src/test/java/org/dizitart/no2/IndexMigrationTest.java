@@ -0,0 +1,173 @@
+package org.dizitart.no2;
+
+import org.dizitart.no2.exceptions.UniqueConstraintException;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.dizitart.no2.Constants.INDEX_META_PREFIX;
+import static org.dizitart.no2.Constants.INTERNAL_NAME_SEPARATOR;
+import static org.dizitart.no2.DbTestOperations.getRandomTempDbFile;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.filters.Filters.eq;
+import static org.dizitart.no2.filters.Filters.gt;
+import static org.dizitart.no2.util.IndexUtils.internalName;
+import static org.junit.Assert.*;
+
+/**
+ * Opens databases whose indexes were written by an earlier version, which
+ * kept a set of ids per value, and checks that they are migrated to the
+ * posting list storage.
+ *
+ * @author Anindya Chatterjee.
+ */
+public class IndexMigrationTest {
+    private static final String COLLECTION = "test";
+
+    private String fileName;
+    // the ids of the documents by the value of each field
+    private Map<String, Map<Object, ConcurrentSkipListSet<NitriteId>>> postings;
+
+    @Before
+    public void setUp() {
+        fileName = getRandomTempDbFile();
+        postings = new HashMap<>();
+
+        Nitrite db = Nitrite.builder().filePath(fileName).openOrCreate();
+        NitriteCollection collection = db.getCollection(COLLECTION);
+        for (int i = 0; i < 10; i++) {
+            Document document = createDocument("name", "n" + i).put("age", i % 3);
+            collection.insert(document);
+            addPosting("name", document.get("name"), document.getId());
+            addPosting("age", document.get("age"), document.getId());
+        }
+        db.close();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(fileName));
+    }
+
+    @Test
+    public void testMigrateLegacyIndexes() throws Exception {
+        writeLegacyIndex("name", IndexType.Unique);
+        writeLegacyIndex("age", IndexType.NonUnique);
+
+        Nitrite db = Nitrite.builder().filePath(fileName).openOrCreate();
+        NitriteCollection collection = db.getCollection(COLLECTION);
+        assertTrue(collection.hasIndex("name"));
+        assertTrue(collection.hasIndex("age"));
+        assertFalse(collection.isIndexing("name"));
+        assertFalse(collection.isIndexing("age"));
+
+        Cursor cursor = collection.find(eq("name", "n4"));
+        assertTrue(cursor.explain().isIndexed());
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault().get("age"), 1);
+        assertEquals(collection.find(eq("age", 1)).size(), 3);
+        assertEquals(collection.find(gt("age", 0)).size(), 6);
+
+        // the unique constraint survives the migration
+        boolean error = false;
+        try {
+            collection.insert(createDocument("name", "n4"));
+        } catch (UniqueConstraintException uce) {
+            error = true;
+        }
+        assertTrue(error);
+
+        // and the migrated index is maintained
+        collection.insert(createDocument("name", "n10").put("age", 1));
+        collection.remove(eq("name", "n1"));
+        assertEquals(collection.find(eq("name", "n10")).size(), 1);
+        assertEquals(collection.find(eq("name", "n1")).size(), 0);
+        assertEquals(collection.find(eq("age", 1)).size(), 3);
+        db.close();
+
+        MVStore mvStore = MVStore.open(fileName);
+        try {
+            // the legacy index maps are removed
+            assertFalse(mvStore.hasMap(internalName(
+                    new Index(IndexType.Unique, "name", COLLECTION))));
+            assertFalse(mvStore.hasMap(internalName(
+                    new Index(IndexType.NonUnique, "age", COLLECTION))));
+        } finally {
+            mvStore.close();
+        }
+
+        // a migrated database opens as it is
+        db = Nitrite.builder().filePath(fileName).openOrCreate();
+        collection = db.getCollection(COLLECTION);
+        assertEquals(collection.find(eq("name", "n10")).size(), 1);
+        assertEquals(collection.find(eq("age", 2)).size(), 3);
+        db.close();
+    }
+
+    private void addPosting(String field, Object value, NitriteId nitriteId) {
+        Map<Object, ConcurrentSkipListSet<NitriteId>> fieldPostings = postings.get(field);
+        if (fieldPostings == null) {
+            fieldPostings = new HashMap<>();
+            postings.put(field, fieldPostings);
+        }
+
+        ConcurrentSkipListSet<NitriteId> ids = fieldPostings.get(value);
+        if (ids == null) {
+            ids = new ConcurrentSkipListSet<>();
+            fieldPostings.put(value, ids);
+        }
+        ids.add(nitriteId);
+    }
+
+    // writes an index the way an earlier version did, without a storage version
+    private void writeLegacyIndex(String field, IndexType indexType) throws Exception {
+        Index index = new Index(indexType, field, COLLECTION);
+
+        MVStore mvStore = MVStore.open(fileName);
+        try {
+            MVMap<Object, ConcurrentSkipListSet<NitriteId>> indexMap
+                    = mvStore.openMap(internalName(index));
+            for (Map.Entry<Object, ConcurrentSkipListSet<NitriteId>> entry
+                    : postings.get(field).entrySet()) {
+                indexMap.put(entry.getKey(), entry.getValue());
+            }
+
+            MVMap<String, Object> indexMetadata = mvStore.openMap(
+                    INDEX_META_PREFIX + INTERNAL_NAME_SEPARATOR + COLLECTION);
+            indexMetadata.put(field, legacyIndexMeta(index));
+            mvStore.commit();
+        } finally {
+            mvStore.close();
+        }
+    }
+
+    private Object legacyIndexMeta(Index index) throws Exception {
+        Class<?> type = Class.forName("org.dizitart.no2.internals.IndexMetaService$IndexMeta");
+        Constructor<?> constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Object indexMeta = constructor.newInstance();
+
+        setField(indexMeta, "index", index);
+        setField(indexMeta, "indexMap", internalName(index));
+        setField(indexMeta, "isDirty", new AtomicBoolean(false));
+        return indexMeta;
+    }
+
+    private static void setField(Object object, String name, Object value) throws Exception {
+        Field field = object.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(object, value);
+    }
+}
@@ -11,6 +11,9 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 
 import static org.dizitart.no2.DbTestOperations.getRandomTempDbFile;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.IndexOptions.indexOptions;
+import static org.dizitart.no2.filters.Filters.*;
 import static org.dizitart.no2.util.StringUtils.isNullOrEmpty;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -48,6 +51,7 @@ public class NitriteBuilderTest {
         assertFalse(context.isReadOnly());
         assertFalse(context.isInMemory());
         assertFalse(isNullOrEmpty(context.getFilePath()));
+        assertFalse(context.isParallelQueryEnabled());
 
         db.close();
 
@@ -61,4 +65,65 @@ public class NitriteBuilderTest {
 
         Files.delete(Paths.get(filePath));
     }
+
+    @Test
+    public void testStoreSettings() throws IOException {
+        String filePath = getRandomTempDbFile();
+        Nitrite db = Nitrite.builder()
+                .filePath(filePath)
+                .cacheSize(4)
+                .pageSplitSize(8 * 1024)
+                .commitInterval(500)
+                .retentionTime(1000)
+                .versionsToKeep(1)
+                .openOrCreate();
+        NitriteContext context = db.getContext();
+        assertEquals(context.getCacheSize(), 4);
+        assertEquals(context.getPageSplitSize(), 8 * 1024);
+        assertEquals(context.getCommitInterval(), 500);
+        assertEquals(context.getRetentionTime(), 1000);
+        assertEquals(context.getVersionsToKeep(), 1);
+        db.close();
+
+        // the defaults of the store are reported
+        db = Nitrite.builder()
+                .filePath(filePath)
+                .disableAutoCommit()
+                .openOrCreate();
+        context = db.getContext();
+        assertEquals(context.getCacheSize(), 16);
+        assertEquals(context.getPageSplitSize(), 16 * 1024);
+        assertEquals(context.getCommitInterval(), 0);
+        assertEquals(context.getRetentionTime(), -1);
+        assertEquals(context.getVersionsToKeep(), 2);
+        db.close();
+
+        Files.delete(Paths.get(filePath));
+    }
+
+    @Test
+    public void testParallelQuery() {
+        Nitrite db = Nitrite.builder()
+                .enableParallelQuery()
+                .openOrCreate();
+        assertTrue(db.getContext().isParallelQueryEnabled());
+
+        NitriteCollection collection = db.getCollection("test");
+        collection.createIndex("body", indexOptions(IndexType.Fulltext));
+        for (int i = 0; i < 100; i++) {
+            collection.insert(createDocument("number", i)
+                    .put("body", i % 2 == 0 ? "alpha number" : "beta number"));
+        }
+
+        Cursor cursor = collection.find(or(text("body", "alpha"), gt("number", 90)));
+        assertEquals(cursor.size(), 55);
+        assertTrue(cursor.explain().toString().startsWith("PARALLEL UNION"));
+
+        cursor = collection.find(and(text("body", "beta"), not(text("body", "alpha")),
+                lt("number", 10)));
+        assertEquals(cursor.size(), 5);
+        assertTrue(cursor.explain().toString().startsWith("PARALLEL INTERSECTION"));
+
+        db.close();
+    }
 }
@@ -1,8 +1,10 @@
 package org.dizitart.no2;
 
+import org.dizitart.no2.exceptions.InvalidIdException;
 import org.dizitart.no2.util.ReflectionUtils;
 import org.junit.Test;
 
+import java.io.*;
 import java.lang.reflect.Field;
 import java.util.List;
 
@@ -88,4 +90,37 @@ public class NitriteIdTest {
 
         assertFalse(one.compareTo(two) == 0);
     }
+
+    @Test(expected = InvalidIdException.class)
+    public void testNullValue() {
+        NitriteId.createId((Long) null);
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        // the serialized form keeps the boxed value of earlier versions
+        ObjectStreamField field = ObjectStreamClass.lookup(NitriteId.class).getField("idValue");
+        assertEquals(field.getType(), Long.class);
+
+        NitriteId nitriteId = NitriteId.newId();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+            stream.writeObject(nitriteId);
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            assertEquals(stream.readObject(), nitriteId);
+        }
+    }
+
+    @Test
+    public void testDocumentId() {
+        Document document = Document.createDocument("a", 1);
+        NitriteId nitriteId = document.getId();
+        assertSame(document.getId(), nitriteId);
+        assertEquals(document.get(Constants.DOC_ID), nitriteId.getIdValue());
+
+        document.remove(Constants.DOC_ID);
+        assertNotEquals(document.getId(), nitriteId);
+    }
 }
@@ -1,18 +1,25 @@
 package org.dizitart.no2;
 
 import org.dizitart.no2.objects.ObjectRepository;
+import org.dizitart.no2.store.NitriteStore;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.dizitart.no2.Constants.INTERNAL_NAME_SEPARATOR;
 import static org.dizitart.no2.Document.createDocument;
@@ -165,6 +172,30 @@ public class NitriteTest {
         assertTrue(testCollection.isClosed());
     }
 
+    @Test
+    public void testAttributesSurviveCrashWithAutoCommit() throws InterruptedException {
+        db.commit();
+        Thread.sleep(2);
+        long modifiedAfter = System.currentTimeMillis();
+        collection.insert(createDocument("firstName", "fn4"));
+
+        // the attributes are written on the commit interval of the store
+        long deadline = System.currentTimeMillis() + 10000;
+        while (db.hasUnsavedChanges() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertFalse(db.hasUnsavedChanges());
+        db.closeImmediately();
+
+        db = new NitriteBuilder()
+                .filePath(fileName)
+                .compressed()
+                .openOrCreate("test-user", "test-password");
+        collection = db.getCollection("test");
+        assertEquals(collection.size(), 4);
+        assertTrue(collection.getAttributes().getLastModifiedTime() >= modifiedAfter);
+    }
+
     @Test
     public void testCloseImmediatelyReadonlyDatabase() {
         db.close();
@@ -221,4 +252,106 @@ public class NitriteTest {
         assertNotNull(repository);
         assertEquals(repository.getType(), NitriteTest.class);
     }
+
+    @Test
+    public void testCommitAsync() throws Exception {
+        collection.insert(createDocument("firstName", "fn4"));
+        assertTrue(db.hasUnsavedChanges());
+
+        Future<Void> future = db.commitAsync();
+        assertNull(future.get(5, TimeUnit.SECONDS));
+        assertTrue(future.isDone());
+        assertFalse(db.hasUnsavedChanges());
+    }
+
+    @Test
+    public void testGroupCommit() throws Exception {
+        String filePath = getRandomTempDbFile();
+        Nitrite groupDb = Nitrite.builder()
+                .filePath(filePath)
+                .disableAutoCommit()
+                .groupCommitWindow(1000)
+                .openOrCreate();
+        assertEquals(groupDb.getContext().getGroupCommitWindow(), 1000);
+        final NitriteCollection groupCollection = groupDb.getCollection("test");
+
+        // requests within the window share one commit
+        groupCollection.insert(createDocument("number", 1));
+        Future<Void> first = groupDb.commitAsync();
+        groupCollection.insert(createDocument("number", 2));
+        Future<Void> second = groupDb.commitAsync();
+        assertSame(first, second);
+        second.get(5, TimeUnit.SECONDS);
+        assertFalse(groupDb.hasUnsavedChanges());
+
+        groupCollection.insert(createDocument("number", 3));
+        Future<Void> third = groupDb.commitAsync();
+        assertNotSame(third, first);
+        third.get(5, TimeUnit.SECONDS);
+
+        // changes are durable without closing the database
+        groupDb.closeImmediately();
+        groupDb = Nitrite.builder()
+                .filePath(filePath)
+                .openOrCreate();
+        assertEquals(groupDb.getCollection("test").size(), 3);
+        groupDb.close();
+        Files.delete(Paths.get(filePath));
+    }
+
+    @Test
+    public void testCommitAsyncOnClose() throws Exception {
+        String filePath = getRandomTempDbFile();
+        Nitrite groupDb = Nitrite.builder()
+                .filePath(filePath)
+                .groupCommitWindow(60 * 1000)
+                .openOrCreate();
+        groupDb.getCollection("test").insert(createDocument("number", 1));
+        Future<Void> future = groupDb.commitAsync();
+
+        // close does not wait for the window
+        groupDb.close();
+        assertTrue(future.isDone());
+        future.get();
+        assertTrue(groupDb.commitAsync().isDone());
+        Files.delete(Paths.get(filePath));
+    }
+
+    @Test
+    public void testFlushWaitsForRunningCommit() throws Exception {
+        final CountDownLatch committing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        NitriteStore store = (NitriteStore) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { NitriteStore.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("commit".equals(method.getName())) {
+                            committing.countDown();
+                            release.await();
+                        }
+                        return null;
+                    }
+                });
+        NitriteContext context = new NitriteContext();
+        final GroupCommit groupCommit = new GroupCommit(store, context);
+        Future<Void> future = groupCommit.request();
+        // the worker pool has taken the batch and is committing it
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+
+        Thread flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                groupCommit.flush();
+            }
+        });
+        flusher.start();
+        flusher.join(200);
+        assertTrue(flusher.isAlive());
+
+        release.countDown();
+        flusher.join(5000);
+        assertFalse(flusher.isAlive());
+        assertTrue(future.isDone());
+        context.shutdown();
+    }
 }
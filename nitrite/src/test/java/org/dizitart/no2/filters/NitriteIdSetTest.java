@@ -0,0 +1,94 @@
+package org.dizitart.no2.filters;
+
+import org.dizitart.no2.NitriteId;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.dizitart.no2.NitriteId.createId;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class NitriteIdSetTest {
+
+    @Test
+    public void testAddRemove() {
+        NitriteIdSet idSet = new NitriteIdSet(2);
+        assertTrue(idSet.add(createId(5L)));
+        assertTrue(idSet.add(createId(1L)));
+        assertTrue(idSet.add(createId(9L)));
+        assertTrue(idSet.add(createId(3L)));
+        assertFalse(idSet.add(createId(3L)));
+        assertEquals(values(idSet), Arrays.asList(1L, 3L, 5L, 9L));
+
+        assertTrue(idSet.contains(createId(5L)));
+        assertFalse(idSet.contains(createId(4L)));
+        assertFalse(idSet.contains("5"));
+
+        assertTrue(idSet.remove(createId(5L)));
+        assertFalse(idSet.remove(createId(5L)));
+        Iterator<NitriteId> iterator = idSet.iterator();
+        iterator.next();
+        iterator.remove();
+        assertEquals(iterator.next(), createId(3L));
+        assertEquals(values(idSet), Arrays.asList(3L, 9L));
+
+        idSet.clear();
+        assertTrue(idSet.isEmpty());
+    }
+
+    @Test
+    public void testOf() {
+        Set<NitriteId> ids = new LinkedHashSet<>();
+        ids.add(createId(7L));
+        ids.add(createId(-2L));
+        ids.add(createId(4L));
+        NitriteIdSet idSet = NitriteIdSet.of(ids);
+        assertEquals(values(idSet), Arrays.asList(-2L, 4L, 7L));
+        assertEquals(idSet, ids);
+        assertSame(NitriteIdSet.of(idSet), idSet);
+    }
+
+    @Test
+    public void testSetAlgebra() {
+        NitriteIdSet first = idSet(1, 2, 3, 5, 8, 13);
+        assertTrue(first.retainAll(idSet(2, 3, 4, 13, 21)));
+        assertEquals(values(first), Arrays.asList(2L, 3L, 13L));
+
+        first = idSet(1, 2, 3, 5, 8, 13);
+        assertTrue(first.removeAll(idSet(0, 3, 8, 21)));
+        assertEquals(values(first), Arrays.asList(1L, 2L, 5L, 13L));
+
+        first = idSet(1, 5, 9);
+        assertTrue(first.addAll(idSet(2, 5, 10)));
+        assertEquals(values(first), Arrays.asList(1L, 2L, 5L, 9L, 10L));
+        assertFalse(first.addAll(idSet(1, 10)));
+        assertTrue(first.addAll(idSet(20, 30)));
+        assertEquals(first.size(), 7);
+
+        // any other collection is probed element by element
+        first = idSet(1, 2, 3);
+        assertTrue(first.retainAll(new HashSet<>(Arrays.asList(createId(2L), createId(3L)))));
+        assertEquals(values(first), Arrays.asList(2L, 3L));
+        assertTrue(first.removeAll(Collections.singleton(createId(3L))));
+        assertEquals(values(first), Collections.singletonList(2L));
+    }
+
+    private static NitriteIdSet idSet(long... values) {
+        NitriteIdSet idSet = new NitriteIdSet();
+        for (long value : values) {
+            idSet.add(createId(value));
+        }
+        return idSet;
+    }
+
+    private static List<Long> values(Set<NitriteId> ids) {
+        List<Long> values = new ArrayList<>();
+        for (NitriteId id : ids) {
+            values.add(id.getValue());
+        }
+        return values;
+    }
+}
@@ -70,6 +70,41 @@ public class RepositorySearchTest extends BaseObjectRepositoryTest {
                 .firstOrDefault());
     }
 
+    @Test
+    public void testQueryPlan() {
+        Employee employee = employeeRepository.find().firstOrDefault();
+        Cursor<Employee> cursor = employeeRepository.find(and(eq("empId", employee.getEmpId()),
+                lte("joinDate", employee.getJoinDate())));
+        assertEquals(cursor.size(), 1);
+        assertEquals(cursor.firstOrDefault(), employee);
+
+        assertTrue(cursor.explain().isIndexed());
+        assertEquals(cursor.explain().getEstimatedCount(), 1);
+        assertTrue(cursor.explain().toString().contains("INDEX SCAN EqualsFilter(field=empId"));
+    }
+
+    @Test
+    public void testCount() {
+        Employee employee = employeeRepository.find().firstOrDefault();
+        assertEquals(employeeRepository.count(ALL), employeeRepository.size());
+        assertEquals(employeeRepository.count(eq("empId", employee.getEmpId())), 1);
+        assertEquals(employeeRepository.count(lte("joinDate", employee.getJoinDate())),
+                employeeRepository.find(lte("joinDate", employee.getJoinDate())).size());
+        assertEquals(employeeRepository.count(and(eq("empId", employee.getEmpId()),
+                not(eq("empId", employee.getEmpId())))), 0);
+    }
+
+    @Test
+    public void testBetweenFilter() {
+        Employee employee = employeeRepository.find().firstOrDefault();
+        Date joinDate = employee.getJoinDate();
+        assertEquals(employeeRepository.find(between("joinDate", joinDate, joinDate)).size(),
+                employeeRepository.find(eq("joinDate", joinDate)).size());
+        Date first = new Date(Long.MIN_VALUE);
+        assertEquals(employeeRepository.find(between("joinDate", first, true, joinDate, false)).size(),
+                employeeRepository.find(lt("joinDate", joinDate)).size());
+    }
+
     @Test
     public void testEqualFilterById() {
         Employee employee = employeeRepository.find().firstOrDefault();
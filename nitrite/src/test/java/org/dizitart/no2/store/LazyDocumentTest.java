@@ -0,0 +1,127 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.WriteBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.dizitart.no2.DbTestOperations.getRandomTempDbFile;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.util.DocumentUtils.getFieldValue;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class LazyDocumentTest {
+    private NitriteDataType dataType;
+    private Document document;
+    private String filePath;
+
+    @Before
+    public void setUp() {
+        dataType = new NitriteDataType();
+        document = createDocument("name", "Jürgen")
+                .put("age", 42)
+                .put("tags", new ArrayList<>(Arrays.asList("a", "b")))
+                .put("address", createDocument("city", "Kolkata").put("zip", 700001));
+        document.getId();
+        filePath = getRandomTempDbFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(filePath));
+    }
+
+    @Test
+    public void testFieldLookup() {
+        LazyDocument lazy = read(write(document));
+        assertEquals(lazy.size(), 5);
+        assertEquals(lazy.get("name"), "Jürgen");
+        assertEquals(lazy.get("age", Integer.class), Integer.valueOf(42));
+        assertEquals(getFieldValue(lazy, "address.city"), "Kolkata");
+        assertEquals(getFieldValue(lazy, "tags.1"), "b");
+        assertTrue(lazy.containsKey("tags"));
+        assertFalse(lazy.containsKey("Jürgen"));
+        assertNull(lazy.get("missing"));
+        assertEquals(lazy.getRevision(), 0);
+        // an embedded document is decoded right away
+        assertEquals(lazy.get("address").getClass(), Document.class);
+        assertFalse(lazy.isMaterialized());
+
+        assertEquals(lazy, document);
+        assertTrue(lazy.isMaterialized());
+        assertEquals(lazy.get("name"), "Jürgen");
+        assertEquals(lazy.getId(), document.getId());
+    }
+
+    @Test
+    public void testWrite() {
+        ByteBuffer stored = write(document);
+        LazyDocument lazy = read(stored.duplicate());
+        assertEquals(write(lazy), stored);
+
+        lazy.put("age", 43);
+        Document copy = read(write(lazy));
+        assertEquals(copy.get("age"), 43);
+        assertEquals(copy.get("name"), "Jürgen");
+    }
+
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream stream = new ObjectOutputStream(bytes)) {
+            stream.writeObject(read(write(document)));
+        }
+        try (ObjectInputStream stream = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            Object copy = stream.readObject();
+            assertEquals(copy.getClass(), Document.class);
+            assertEquals(copy, document);
+        }
+    }
+
+    @Test
+    public void testStore() {
+        NitriteMVStore store = new NitriteMVStore(MVStore.open(filePath));
+        NitriteMap<NitriteId, Document> map = store.openMap("test");
+        map.put(document.getId(), document);
+        store.close();
+
+        store = new NitriteMVStore(MVStore.open(filePath));
+        map = store.openMap("test");
+        for (Map.Entry<NitriteId, Document> entry : map.entrySet()) {
+            assertFalse(((LazyDocument) entry.getValue()).isMaterialized());
+            assertEquals(entry.getValue().get("age"), 42);
+        }
+        // handed out fully decoded
+        Document stored = map.get(document.getId());
+        assertTrue(((LazyDocument) stored).isMaterialized());
+        assertEquals(stored, document);
+        store.close();
+    }
+
+    private ByteBuffer write(Document value) {
+        WriteBuffer writeBuffer = new WriteBuffer();
+        dataType.write(writeBuffer, value);
+        ByteBuffer buffer = writeBuffer.getBuffer();
+        buffer.flip();
+        return buffer;
+    }
+
+    private LazyDocument read(ByteBuffer buffer) {
+        return (LazyDocument) dataType.read(buffer);
+    }
+}
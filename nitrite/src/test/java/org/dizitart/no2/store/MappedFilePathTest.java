@@ -0,0 +1,237 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.*;
+import org.h2.store.fs.FilePath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.dizitart.no2.DbTestOperations.getRandomTempDbFile;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.filters.Filters.eq;
+import static org.dizitart.no2.store.MappedFilePath.mappedFileName;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class MappedFilePathTest {
+    private String filePath;
+
+    @Before
+    public void setUp() {
+        MappedFilePath.register();
+        filePath = getRandomTempDbFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(filePath));
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        FileChannel channel = FilePath.get(mappedFileName(filePath)).open("rw");
+        assertTrue(channel instanceof MappedFileChannel);
+        assertEquals(channel.size(), 0);
+
+        channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3, 4 }), 0);
+        assertEquals(channel.size(), 4);
+        // grows the file beyond its mapped range
+        channel.write(ByteBuffer.wrap(new byte[] { 5, 6, 7, 8 }), 4);
+        assertArrayEquals(read(channel, 2, 4), new byte[] { 3, 4, 5, 6 });
+
+        // overwrites the mapped range
+        channel.write(ByteBuffer.wrap(new byte[] { 9, 9 }), 3);
+        assertArrayEquals(read(channel, 0, 8), new byte[] { 1, 2, 3, 9, 9, 6, 7, 8 });
+        assertEquals(channel.read(ByteBuffer.allocate(1), 8), -1);
+
+        channel.truncate(2);
+        assertEquals(channel.size(), 2);
+        assertArrayEquals(read(channel, 0, 2), new byte[] { 1, 2 });
+        channel.force(true);
+        channel.close();
+        assertEquals(Files.size(Paths.get(filePath)), 2);
+
+        channel = FilePath.get(mappedFileName(filePath)).open("r");
+        assertArrayEquals(read(channel, 0, 2), new byte[] { 1, 2 });
+        channel.close();
+    }
+
+    @Test
+    public void testConcurrentReadsOfGrowingFile() throws Exception {
+        final FileChannel channel = FilePath.get(mappedFileName(filePath)).open("rw");
+        final int blockSize = 64 * 1024;
+        final int blocks = 160;
+        for (int i = 0; i < blocks; i++) {
+            // the file grows past the mapping several times
+            channel.write(ByteBuffer.wrap(block(i, blockSize)), (long) i * blockSize);
+            assertArrayEquals(read(channel, (long) i * blockSize, blockSize), block(i, blockSize));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int seed = t;
+            results.add(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 500; i++) {
+                        int block = random.nextInt(blocks);
+                        byte[] expected = block(block, blockSize);
+                        int offset = random.nextInt(blockSize - 16);
+                        byte[] actual = read(channel, (long) block * blockSize + offset, 16);
+                        for (int j = 0; j < 16; j++) {
+                            if (actual[j] != expected[offset + j]) return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+        channel.close();
+    }
+
+    @Test
+    public void testConcurrentReadsWhileTruncating() throws Exception {
+        final FileChannel channel = FilePath.get(mappedFileName(filePath)).open("rw");
+        final int blockSize = 64 * 1024;
+        final int blocks = 128;
+        final int keptBlocks = 16;
+        for (int i = 0; i < blocks; i++) {
+            channel.write(ByteBuffer.wrap(block(i, blockSize)), (long) i * blockSize);
+        }
+        // maps the whole file
+        read(channel, (long) (blocks - 1) * blockSize, 16);
+
+        final AtomicBoolean stopped = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int seed = t;
+            results.add(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Random random = new Random(seed);
+                    try {
+                        while (!stopped.get()) {
+                            // the kept blocks are never cut off
+                            int block = random.nextInt(keptBlocks);
+                            byte[] expected = block(block, blockSize);
+                            int offset = random.nextInt(blockSize - 16);
+                            byte[] actual = read(channel, (long) block * blockSize + offset, 16);
+                            for (int j = 0; j < 16; j++) {
+                                if (actual[j] != expected[offset + j]) return false;
+                            }
+                        }
+                    } catch (ClosedChannelException e) {
+                        // the channel is closed while reading
+                    }
+                    return true;
+                }
+            }));
+        }
+
+        for (int round = 0; round < 50; round++) {
+            channel.truncate((long) keptBlocks * blockSize);
+            assertEquals(channel.size(), (long) keptBlocks * blockSize);
+            for (int i = keptBlocks; i < blocks; i++) {
+                channel.write(ByteBuffer.wrap(block(i, blockSize)), (long) i * blockSize);
+            }
+            // as on the platforms which refuse to truncate a mapped file,
+            // the next read maps the whole file again
+            ((MappedFileChannel) channel).releaseMapping();
+            Thread.sleep(5);
+        }
+        // the mapping is released while the readers still use the channel
+        channel.close();
+        stopped.set(true);
+
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDatabase() {
+        Nitrite db = Nitrite.builder()
+                .filePath(filePath)
+                .memoryMapped()
+                .cacheSize(1)
+                .openOrCreate("user", "password");
+        NitriteContext context = db.getContext();
+        assertTrue(context.isMemoryMapped());
+        assertEquals(context.getCacheSize(), 1);
+
+        NitriteCollection collection = db.getCollection("test");
+        collection.createIndex("group", IndexOptions.indexOptions(IndexType.NonUnique));
+        for (int i = 0; i < 1000; i++) {
+            collection.insert(createDocument("name", "name" + i).put("group", i % 10));
+            if (i % 100 == 0) {
+                db.commit();
+            }
+        }
+        collection.remove(eq("group", 1));
+        db.compact();
+        db.close();
+
+        db = Nitrite.builder()
+                .filePath(filePath)
+                .memoryMapped()
+                .readOnly()
+                .openOrCreate("user", "password");
+        collection = db.getCollection("test");
+        assertEquals(collection.size(), 900);
+        assertEquals(collection.find(eq("group", 2)).size(), 100);
+        assertEquals(collection.find(eq("name", "name42")).firstOrDefault().get("group"), 2);
+        db.close();
+    }
+
+    @Test
+    public void testInMemory() {
+        Nitrite db = Nitrite.builder()
+                .memoryMapped()
+                .openOrCreate();
+        assertFalse(db.getContext().isMemoryMapped());
+        // an in-memory store keeps its pages without a cache
+        assertEquals(db.getContext().getCacheSize(), 0);
+        db.close();
+    }
+
+    private static byte[] block(int index, int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (index * 31 + i);
+        }
+        return bytes;
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) break;
+        }
+        return buffer.array();
+    }
+}
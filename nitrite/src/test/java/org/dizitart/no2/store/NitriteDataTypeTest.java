@@ -0,0 +1,132 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.NitriteId;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.WriteBuffer;
+import org.h2.mvstore.type.ObjectDataType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.dizitart.no2.DbTestOperations.getRandomTempDbFile;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.NitriteId.createId;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class NitriteDataTypeTest {
+    private String filePath;
+
+    @Before
+    public void setUp() {
+        filePath = getRandomTempDbFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get(filePath));
+    }
+
+    @Test
+    public void testNitriteId() {
+        NitriteDataType dataType = new NitriteDataType();
+        WriteBuffer writeBuffer = new WriteBuffer();
+        dataType.write(writeBuffer, createId(42L));
+        dataType.write(writeBuffer, "value");
+
+        ByteBuffer buffer = writeBuffer.getBuffer();
+        buffer.flip();
+        assertEquals(buffer.get(0), NitriteDataType.TAG_NITRITE_ID);
+        assertEquals(dataType.read(buffer), createId(42L));
+        assertEquals(buffer.position(), 9);
+        assertEquals(dataType.read(buffer), "value");
+
+        assertTrue(dataType.compare(createId(-1L), createId(1L)) < 0);
+        assertEquals(dataType.compare(createId(7L), createId(7L)), 0);
+    }
+
+    @Test
+    public void testDocument() {
+        Document address = createDocument("city", "Kolkata")
+                .put("zip", 700001);
+        // an embedded document mapped from an object might have any _id
+        address.putAll(Collections.<String, Object>singletonMap("_id", "embedded"));
+        Document document = createDocument("name", "John")
+                .put("age", 42L)
+                .put("score", 3.5)
+                .put("active", true)
+                .put("nothing", null)
+                .put("tags", new ArrayList<>(Arrays.asList("a", 1, createDocument("b", 2))))
+                .put("set", new TreeSet<>(Arrays.asList(2, 1)))
+                .put("birthDay", new Date(0))
+                .put("address", address);
+        document.getId();
+
+        NitriteDataType dataType = new NitriteDataType();
+        ByteBuffer buffer = write(dataType, document);
+        assertEquals(buffer.get(0), NitriteDataType.TAG_DOCUMENT);
+        assertTrue(buffer.limit() < write(new ObjectDataType(), document).limit());
+
+        Document copy = (Document) dataType.read(buffer);
+        assertEquals(copy, document);
+        assertEquals(new ArrayList<>(copy.keySet()), new ArrayList<>(document.keySet()));
+        assertEquals(copy.getId(), document.getId());
+        assertEquals(copy.get("tags").getClass(), ArrayList.class);
+        assertEquals(copy.get("set").getClass(), TreeSet.class);
+        assertEquals(((Document) copy.get("address")).get("_id"), "embedded");
+        assertTrue(dataType.getMemory(document) > 0);
+    }
+
+    @Test
+    public void testLegacyKeys() {
+        // ids serialized as java objects, as written by an earlier version
+        MVStore mvStore = MVStore.open(filePath);
+        MVMap<NitriteId, Document> legacyMap = mvStore.openMap("test");
+        for (long i = 0; i < 100; i += 2) {
+            legacyMap.put(createId(i), createDocument("value", i));
+        }
+        mvStore.close();
+
+        NitriteMVStore store = new NitriteMVStore(MVStore.open(filePath));
+        NitriteMap<NitriteId, Document> map = store.openMap("test");
+        assertEquals(map.get(createId(42L)).get("value"), 42L);
+        for (long i = 1; i < 100; i += 2) {
+            map.put(createId(i), createDocument("value", i));
+        }
+        assertOrdered(map);
+        store.close();
+
+        store = new NitriteMVStore(MVStore.open(filePath));
+        map = store.openMap("test");
+        assertOrdered(map);
+        assertEquals(map.get(createId(43L)).get("value"), 43L);
+        assertEquals(map.higherKey(createId(98L)), createId(99L));
+        store.close();
+    }
+
+    private static ByteBuffer write(ObjectDataType dataType, Object value) {
+        WriteBuffer writeBuffer = new WriteBuffer();
+        dataType.write(writeBuffer, value);
+        ByteBuffer buffer = writeBuffer.getBuffer();
+        buffer.flip();
+        return buffer;
+    }
+
+    private void assertOrdered(NitriteMap<NitriteId, Document> map) {
+        List<NitriteId> keys = new ArrayList<>(map.keySet());
+        assertEquals(keys.size(), 100);
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(keys.get(i).getValue(), i);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.dizitart.no2.store;
+
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class NitriteMVMapTest {
+    private MVStore store;
+    private NitriteMap<Integer, String> nitriteMap;
+
+    @Before
+    public void setUp() {
+        store = MVStore.open(null);
+        MVMap<Integer, String> map = store.openMap("range-test");
+        nitriteMap = new NitriteMVMap<>(map, new NitriteMVStore(store));
+        for (int i = 0; i < 10; i++) {
+            nitriteMap.put(i * 10, "value" + i);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void testEntryIterator() {
+        assertEquals(keys(nitriteMap.entryIterator(20, true, 50, true, false)),
+                asList(20, 30, 40, 50));
+        assertEquals(keys(nitriteMap.entryIterator(20, false, 50, false, false)),
+                asList(30, 40));
+        assertEquals(keys(nitriteMap.entryIterator(15, true, 45, true, false)),
+                asList(20, 30, 40));
+        assertEquals(keys(nitriteMap.entryIterator(null, false, 20, false, false)),
+                asList(0, 10));
+        assertEquals(keys(nitriteMap.entryIterator(80, false, null, false, false)),
+                asList(90));
+        assertEquals(keys(nitriteMap.entryIterator(null, false, null, false, false)).size(), 10);
+        assertFalse(nitriteMap.entryIterator(50, true, 20, true, false).hasNext());
+        assertFalse(nitriteMap.entryIterator(100, true, null, false, false).hasNext());
+
+        Iterator<Map.Entry<Integer, String>> iterator
+                = nitriteMap.entryIterator(30, true, 30, true, false);
+        assertEquals(iterator.next().getValue(), "value3");
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void testDescendingEntryIterator() {
+        assertEquals(keys(nitriteMap.entryIterator(20, true, 50, true, true)),
+                asList(50, 40, 30, 20));
+        assertEquals(keys(nitriteMap.entryIterator(20, false, 50, false, true)),
+                asList(40, 30));
+        assertEquals(keys(nitriteMap.entryIterator(null, false, 15, true, true)),
+                asList(10, 0));
+        assertEquals(keys(nitriteMap.entryIterator(75, true, null, false, true)),
+                asList(90, 80));
+        assertFalse(nitriteMap.entryIterator(-10, true, -5, true, true).hasNext());
+    }
+
+    private static List<Integer> keys(Iterator<Map.Entry<Integer, String>> iterator) {
+        List<Integer> keys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next().getKey());
+        }
+        return keys;
+    }
+}
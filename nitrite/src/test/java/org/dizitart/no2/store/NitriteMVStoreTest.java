@@ -0,0 +1,81 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.meta.Attributes;
+import org.h2.mvstore.MVStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class NitriteMVStoreTest {
+    private NitriteMVStore nitriteStore;
+
+    @Before
+    public void setUp() {
+        nitriteStore = new NitriteMVStore(MVStore.open(null));
+    }
+
+    @After
+    public void tearDown() {
+        if (!nitriteStore.isClosed()) {
+            nitriteStore.close();
+        }
+    }
+
+    @Test
+    public void testAttributesWrittenOnCommit() {
+        NitriteMap<String, String> map = nitriteStore.openMap("test");
+        map.put("a", "1");
+        map.put("b", "2");
+        map.remove("a");
+        assertNull(nitriteStore.metaMap().get("test"));
+        assertTrue(nitriteStore.hasUnsavedChanges());
+
+        nitriteStore.commit();
+        Attributes attributes = nitriteStore.metaMap().get("test");
+        assertNotNull(attributes);
+        assertEquals(attributes.getCollection(), "test");
+
+        map.put("c", "3");
+        nitriteStore.commit();
+        attributes = nitriteStore.metaMap().get("test");
+        assertTrue(attributes.getLastModifiedTime() >= attributes.getCreatedTime());
+    }
+
+    @Test
+    public void testAttributesWrittenOnRead() throws InterruptedException {
+        NitriteMap<String, String> map = nitriteStore.openMap("test");
+        map.put("a", "1");
+        Attributes attributes = map.getAttributes();
+        assertNotNull(attributes);
+        assertEquals(attributes.getLastModifiedTime(), 0);
+
+        Thread.sleep(5);
+        map.put("b", "2");
+        assertTrue(map.getAttributes().getLastModifiedTime() > attributes.getCreatedTime());
+    }
+
+    @Test
+    public void testAttributesOfRemovedMap() {
+        NitriteMap<String, String> map = nitriteStore.openMap("test");
+        map.put("a", "1");
+        nitriteStore.removeMap(map);
+        nitriteStore.commit();
+        assertNull(nitriteStore.metaMap().get("test"));
+    }
+
+    @Test
+    public void testSetAttributes() {
+        NitriteMap<String, String> map = nitriteStore.openMap("test");
+        Attributes attributes = new Attributes("test");
+        attributes.setLastSynced(10);
+        map.put("a", "1");
+        map.setAttributes(attributes);
+        nitriteStore.commit();
+        assertEquals(nitriteStore.metaMap().get("test").getLastSynced(), 10);
+    }
+}
@@ -23,7 +23,7 @@ public class NitriteMapStressTest {
     public void testWithInsertReadUpdate() throws IOException {
         MVStore store = MVStore.open(dbPath);
         MVMap<String, Document> map = store.openMap("map-test");
-        NitriteStore nitriteStore = new NitriteMVStore(store);
+        NitriteMVStore nitriteStore = new NitriteMVStore(store);
         NitriteMap<String, Document> nitriteMap = new NitriteMVMap<>(map, nitriteStore);
 
         int count = 10000;
@@ -0,0 +1,274 @@
+package org.dizitart.no2.store;
+
+import org.dizitart.no2.*;
+import org.dizitart.no2.exceptions.InvalidOperationException;
+import org.dizitart.no2.exceptions.NitriteIOException;
+import org.dizitart.no2.exceptions.SecurityException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static org.dizitart.no2.Document.createDocument;
+import static org.dizitart.no2.filters.Filters.eq;
+import static org.dizitart.no2.filters.Filters.gte;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class OffHeapStoreTest {
+    private OffHeapStore store;
+
+    @Before
+    public void setUp() {
+        store = new OffHeapStore(256);
+    }
+
+    @After
+    public void tearDown() {
+        store.close();
+    }
+
+    @Test
+    public void testPutAndGet() {
+        NitriteMap<Integer, String> map = store.openMap("test");
+        assertSame(store.openMap("test"), map);
+        for (int i = 9; i >= 0; i--) {
+            map.put(i * 10, "value" + i);
+        }
+        assertEquals(map.size(), 10);
+        assertEquals(map.get(30), "value3");
+        assertNull(map.get(35));
+        assertTrue(map.containsKey(90));
+
+        map.put(30, "new value");
+        assertEquals(map.get(30), "new value");
+        assertEquals(map.putIfAbsent(30, "other value"), "new value");
+        assertNull(map.putIfAbsent(35, "value3.5"));
+        assertEquals(map.remove(35), "value3.5");
+        assertNull(map.remove(35));
+        assertEquals(map.size(), 10);
+
+        assertEquals(map.keyList(), asList(0, 10, 20, 30, 40, 50, 60, 70, 80, 90));
+        assertEquals(map.ceilingKey(31), Integer.valueOf(40));
+        assertEquals(map.floorKey(31), Integer.valueOf(30));
+        assertEquals(map.getKeyIndex(30), 3);
+        assertEquals(map.getKeyIndex(35), -5);
+        assertEquals(map.getKey(3), Integer.valueOf(30));
+        assertEquals(map.values().size(), 10);
+    }
+
+    @Test
+    public void testEntryIterator() {
+        NitriteMap<Integer, String> map = store.openMap("test");
+        for (int i = 0; i < 10; i++) {
+            map.put(i * 10, "value" + i);
+        }
+        assertEquals(keys(map.entryIterator(20, true, 50, false, false)), asList(20, 30, 40));
+        assertEquals(keys(map.entryIterator(20, false, null, false, true)),
+                asList(90, 80, 70, 60, 50, 40, 30));
+        assertFalse(map.entryIterator(50, true, 20, true, false).hasNext());
+
+        Iterator<Map.Entry<Integer, String>> iterator = map.entryIterator(null, false, null, false, false);
+        assertEquals(iterator.next().getValue(), "value0");
+        map.remove(10);
+        assertEquals(iterator.next().getKey(), Integer.valueOf(20));
+    }
+
+    @Test
+    public void testCompositeKeys() {
+        NitriteMap<Object[], Boolean> map = store.openMap("index");
+        map.put(new Object[] { "b", 1L }, true);
+        map.put(new Object[] { "a", 2L }, true);
+        map.put(new Object[] { "a", 1L }, true);
+
+        Object[] first = map.ceilingKey(new Object[] { "a" });
+        assertArrayEquals(first, new Object[] { "a", 1L });
+        assertTrue(map.get(new Object[] { "b", 1L }));
+    }
+
+    @Test
+    public void testDirectMemory() {
+        NitriteMap<Integer, String> map = store.openMap("test");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "value" + i);
+        }
+        assertTrue(store.getAllocatedBytes() > 0);
+        assertTrue(store.getReservedBytes() >= store.getAllocatedBytes());
+
+        // a value larger than a slab
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("large value ");
+        }
+        map.put(1000, builder.toString());
+        assertEquals(map.get(1000), builder.toString());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(store.getAllocatedBytes(), 0);
+        assertTrue(store.getReservedBytes() <= 256);
+    }
+
+    @Test
+    public void testKeyPositions() {
+        NitriteMap<Integer, String> map = store.openMap("test");
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int key = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+            } else {
+                map.put(key, "value" + key);
+            }
+        }
+
+        List<Integer> keys = map.keyList();
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(map.getKeyIndex(keys.get(i)), i);
+            assertEquals(map.getKey(i), keys.get(i));
+        }
+        for (int key = -1; key <= 1000; key++) {
+            if (!map.containsKey(key)) {
+                int insertion = 0;
+                while (insertion < keys.size() && keys.get(insertion) < key) insertion++;
+                assertEquals(map.getKeyIndex(key), -(insertion + 1));
+            }
+        }
+        assertNull(map.getKey(keys.size()));
+    }
+
+    @Test
+    public void testReclaimFreedMemory() {
+        NitriteMap<Integer, String> map = store.openMap("test");
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, "value" + i);
+        }
+        long reserved = store.getReservedBytes();
+
+        // every slab keeps a few live values
+        for (int i = 0; i < 1000; i++) {
+            if (i % 10 != 0) {
+                map.remove(i);
+            }
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 1000; i += 20) {
+                map.put(i, "value" + i + "-" + round);
+            }
+        }
+
+        assertTrue(store.getReservedBytes() < reserved / 2);
+        assertTrue(store.getReservedBytes() <= 3 * store.getAllocatedBytes() + 4 * 256);
+        assertEquals(map.size(), 100);
+        assertEquals(map.get(20), "value20-4");
+        assertEquals(map.get(30), "value30");
+
+        // an explicit compaction empties the sparse slabs as well
+        for (int i = 0; i < 1000; i += 20) {
+            map.remove(i);
+        }
+        assertTrue(store.compact(100, 0));
+        assertTrue(store.getReservedBytes() <= 2 * store.getAllocatedBytes() + 256);
+        assertEquals(map.get(30), "value30");
+        assertEquals(map.keyList().size(), 50);
+    }
+
+    @Test
+    public void testRemoveMap() {
+        NitriteMap<Integer, String> map = store.openMap("test");
+        map.put(1, "value");
+        assertTrue(store.hasMap("test"));
+
+        store.removeMap(map);
+        assertFalse(store.hasMap("test"));
+        assertEquals(store.getAllocatedBytes(), 0);
+
+        boolean error = false;
+        try {
+            map.get(1);
+        } catch (NitriteIOException e) {
+            error = true;
+        }
+        assertTrue(error);
+    }
+
+    @Test
+    public void testDatabase() {
+        Nitrite db = Nitrite.builder()
+                .storeFactory(new OffHeapStoreFactory())
+                .openOrCreate("user", "password");
+        NitriteCollection collection = db.getCollection("test");
+        collection.createIndex("age", IndexOptions.indexOptions(IndexType.NonUnique));
+        for (int i = 0; i < 100; i++) {
+            collection.insert(createDocument("name", "name" + i).put("age", i % 10));
+        }
+
+        assertEquals(collection.find(eq("age", 3)).size(), 10);
+        assertEquals(collection.find(gte("age", 8)).size(), 20);
+
+        Document document = collection.find(eq("name", "name5")).firstOrDefault();
+        document.put("age", 100);
+        collection.update(document);
+        assertEquals(collection.find(eq("age", 100)).size(), 1);
+        assertEquals(collection.find(eq("age", 5)).size(), 9);
+
+        collection.remove(eq("age", 100));
+        assertEquals(collection.size(), 99);
+        assertNotNull(collection.getAttributes());
+        db.close();
+    }
+
+    @Test(expected = InvalidOperationException.class)
+    public void testFileBased() {
+        Nitrite.builder()
+                .storeFactory(new OffHeapStoreFactory())
+                .filePath("/tmp/off-heap.db")
+                .openOrCreate();
+    }
+
+    @Test
+    public void testSecurity() {
+        OffHeapStore offHeapStore = new OffHeapStore();
+        offHeapStore.openMap("test").put(1, "value");
+
+        // an existing store without credentials can not be opened with
+        boolean error = false;
+        try {
+            Nitrite.builder()
+                    .storeFactory(new ExistingStoreFactory(offHeapStore))
+                    .openOrCreate("user", "password");
+        } catch (SecurityException e) {
+            error = true;
+        }
+        assertTrue(error);
+    }
+
+    private static List<Integer> keys(Iterator<Map.Entry<Integer, String>> iterator) {
+        List<Integer> keys = new ArrayList<>();
+        while (iterator.hasNext()) {
+            keys.add(iterator.next().getKey());
+        }
+        return keys;
+    }
+
+    private static class ExistingStoreFactory implements StoreFactory {
+        private NitriteStore store;
+
+        ExistingStoreFactory(NitriteStore store) {
+            this.store = store;
+        }
+
+        @Override
+        public NitriteStore openStore(NitriteContext context) {
+            return store;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.dizitart.no2.util;
+
+import org.dizitart.no2.Document;
+import org.dizitart.no2.exceptions.ValidationException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.dizitart.no2.Document.createDocument;
+import static org.junit.Assert.*;
+
+/**
+ * @author Anindya Chatterjee.
+ */
+public class FieldPathTest {
+    private Document document;
+
+    @Before
+    public void setUp() {
+        document = createDocument("name", "John")
+                .put("address", createDocument("city", "Kolkata")
+                        .put("geo", createDocument("lat", 22.5)))
+                .put("tags", new ArrayList<>(Arrays.asList("a", "b")))
+                .put("scores", new int[] {7, 9});
+    }
+
+    @Test
+    public void testGetValue() {
+        FieldPath path = FieldPath.compile("address.geo.lat");
+        assertTrue(path.isEmbedded());
+        assertEquals(path.getField(), "address.geo.lat");
+        assertEquals(path.getValue(document), 22.5);
+        // the same path reads every document
+        assertNull(path.getValue(createDocument("address", createDocument("city", "Pune"))));
+        assertNull(path.getValue(createDocument("name", "Jane")));
+
+        assertFalse(FieldPath.compile("name").isEmbedded());
+        assertEquals(FieldPath.compile("name").getValue(document), "John");
+        assertEquals(FieldPath.compile("tags.1").getValue(document), "b");
+        assertEquals(FieldPath.compile("scores.0").getValue(document), 7);
+        assertNull(FieldPath.compile("address.geo.").getValue(document));
+    }
+
+    @Test
+    public void testGetLeafValue() {
+        assertEquals(FieldPath.compile("address.geo.lat").getLeafValue(document), 22.5);
+        assertEquals(FieldPath.compile("name").getLeafValue(document), "John");
+        // not leaf fields of the document
+        assertNull(FieldPath.compile("address.geo").getLeafValue(document));
+        assertNull(FieldPath.compile("tags").getLeafValue(document));
+        assertNull(FieldPath.compile("tags.1").getLeafValue(document));
+        assertNull(FieldPath.compile("name.first").getLeafValue(document));
+        assertNull(FieldPath.compile("address..city").getLeafValue(document));
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testEmptyKey() {
+        FieldPath.compile("address..city").getValue(document);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testInvalidListIndex() {
+        FieldPath.compile("tags.2").getValue(document);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testNegativeArrayIndex() {
+        FieldPath.compile("scores.first").getValue(document);
+    }
+
+    @Test(expected = ValidationException.class)
+    public void testInvalidRemainingField() {
+        FieldPath.compile("name.first").getValue(document);
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Arrays;
 import java.util.Collection;
 
 import static org.dizitart.no2.util.NumberUtils.compare;
+import static org.dizitart.no2.util.NumberUtils.normalize;
 import static org.junit.Assert.assertEquals;
 
 /**
@@ -42,6 +43,8 @@ public class NumberUtilsTest {
                 {BigInteger.ONE, BigDecimal.ONE, 0},
                 {BigInteger.ONE, 1, 0},
                 {0, BigInteger.ZERO, 0},
+                {0.0d, new BigDecimal("0.00"), 0},
+                {2L, new BigDecimal("2.0"), 0},
                 {Integer.MAX_VALUE, Integer.MAX_VALUE, 0},
                 {Double.MAX_VALUE, Float.MAX_VALUE, 1},
                 {Double.POSITIVE_INFINITY, Float.POSITIVE_INFINITY, 0},
@@ -54,4 +57,12 @@ public class NumberUtilsTest {
     public void testCompare() {
         assertEquals(compare(x, y), result);
     }
+
+    @Test
+    public void testNormalize() {
+        assertEquals(normalize(x).equals(normalize(y)), result == 0);
+        if (result == 0) {
+            assertEquals(normalize(x).hashCode(), normalize(y).hashCode());
+        }
+    }
 }